@@ -0,0 +1,534 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.processor;
+
+import com.google.auto.service.AutoService;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a streaming TypeAdapter for every `@AutoValue` class created
+ * through a static `@SerializedNames` factory, as the domain classes are.
+ * The adapters read the tokens of a JsonReader straight into the arguments
+ * of the factory, where jclouds would otherwise look up the factory and the
+ * names of its parameters reflectively and invoke it through reflection.
+ * Writing is left to jclouds.
+ *
+ * <p>Where `com.cdancy.bitbucket.rest.projection.Projection` is around, the
+ * adapters skip the fields a projection in effect leaves out, as long as
+ * they are primitives, collections or `@Nullable`. Skipped collections
+ * are handed to the factory empty. Lists and Maps the projection has read
+ * lazily are handed over as collections decoding their JSON on first
+ * access.
+ *
+ * <p>Next to the adapters a public `GeneratedTypeAdapterFactory` is
+ * generated in each package, and registered as a service of
+ * `com.google.gson.TypeAdapterFactory` to be picked up at runtime. A
+ * factory fronted by another one registered with Gson in its stead is
+ * created with that one, for writes to be delegated past it.
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes(TypeAdapterProcessor.AUTO_VALUE)
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+    static final String AUTO_VALUE = "com.google.auto.value.AutoValue";
+    static final String SERIALIZED_NAMES = "org.jclouds.json.SerializedNames";
+    static final String FACTORY = "GeneratedTypeAdapterFactory";
+    static final String PROJECTION = "com.cdancy.bitbucket.rest.projection.Projection";
+    static final String SERVICE = "META-INF/services/com.google.gson.TypeAdapterFactory";
+
+    private final Map<String, Set<String>> adaptersByPackage = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    final TypeElement type = (TypeElement) element;
+                    final ExecutableElement factory = factoryOf(type);
+                    if (factory != null && type.getTypeParameters().isEmpty()) {
+                        generateAdapter(type, factory);
+                    }
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !adaptersByPackage.isEmpty()) {
+            generateFactories();
+        }
+        return false;
+    }
+
+    private ExecutableElement factoryOf(final TypeElement type) {
+        ExecutableElement factory = null;
+        for (final Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD
+                    && member.getModifiers().contains(Modifier.STATIC)
+                    && !member.getModifiers().contains(Modifier.PRIVATE)
+                    && serializedNames(member) != null) {
+                if (factory != null) {
+                    // more than one factory: leave it to jclouds to pick one
+                    return null;
+                }
+                factory = (ExecutableElement) member;
+            }
+        }
+        return factory;
+    }
+
+    private static List<String> serializedNames(final Element element) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(SERIALIZED_NAMES)) {
+                final List<String> names = new ArrayList<>();
+                for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        for (final Object name : (List<?>) entry.getValue().getValue()) {
+                            names.add((String) ((AnnotationValue) name).getValue());
+                        }
+                    }
+                }
+                return names;
+            }
+        }
+        return null;
+    }
+
+    private void generateAdapter(final TypeElement type, final ExecutableElement factory) {
+        final List<String> names = serializedNames(factory);
+        final List<? extends VariableElement> parameters = factory.getParameters();
+        if (names.size() != parameters.size()) {
+            // not readable by jclouds either, only ever written
+            return;
+        }
+
+        final boolean projectable = processingEnv.getElementUtils().getTypeElement(PROJECTION) != null;
+        final boolean[] skippable = new boolean[parameters.size()];
+        final boolean[] lazy = new boolean[parameters.size()];
+        boolean anySkippable = false;
+        boolean anyLazy = false;
+        for (int i = 0; i < parameters.size(); i++) {
+            final TypeMirror parameterType = parameters.get(i).asType();
+            skippable[i] = projectable && (parameterType.getKind().isPrimitive()
+                    || emptyValue(parameterType) != null
+                    || isNullable(type, parameters.get(i)));
+            anySkippable |= skippable[i];
+            lazy[i] = projectable && lazyFactory(parameterType) != null;
+            anyLazy |= lazy[i];
+        }
+
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String typeName = type.getQualifiedName().toString();
+        final String adapterName = adapterName(type);
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + adapterName, type).openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("@javax.annotation.processing.Generated(\"" + TypeAdapterProcessor.class.getName() + "\")");
+            out.println("final class " + adapterName + " extends com.google.gson.TypeAdapter<" + typeName + "> {");
+            out.println();
+            out.println("    private final com.google.gson.TypeAdapter<" + typeName + "> delegate;");
+            for (int i = 0; i < parameters.size(); i++) {
+                final TypeMirror parameterType = parameters.get(i).asType();
+                if (!isInlined(parameterType)) {
+                    out.println("    private final com.google.gson.TypeAdapter<" + boxedName(parameterType) + "> adapter" + i + ";");
+                }
+            }
+            out.println();
+            out.println("    " + adapterName + "(final com.google.gson.Gson gson, final com.google.gson.TypeAdapter<"
+                    + typeName + "> delegate) {");
+            out.println("        this.delegate = delegate;");
+            for (int i = 0; i < parameters.size(); i++) {
+                final TypeMirror parameterType = parameters.get(i).asType();
+                if (!isInlined(parameterType)) {
+                    out.println("        this.adapter" + i + " = gson.getAdapter(" + typeToken(parameterType) + ");");
+                }
+            }
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public void write(final com.google.gson.stream.JsonWriter out, final " + typeName
+                    + " value) throws java.io.IOException {");
+            out.println("        delegate.write(out, value);");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + typeName + " read(final com.google.gson.stream.JsonReader in) throws java.io.IOException {");
+            out.println("        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {");
+            out.println("            in.nextNull();");
+            out.println("            return null;");
+            out.println("        }");
+            for (int i = 0; i < parameters.size(); i++) {
+                final TypeMirror parameterType = parameters.get(i).asType();
+                out.println("        " + typeName(parameterType) + " value" + i + " = " + defaultValue(parameterType) + ";");
+            }
+            if (anySkippable) {
+                out.println("        final java.util.Set<String> fields = " + PROJECTION + ".fieldsOf(" + typeName + ".class);");
+            }
+            if (anyLazy) {
+                out.println("        final java.util.Set<String> lazy = " + PROJECTION + ".lazyFieldsOf(" + typeName + ".class);");
+            }
+            out.println("        in.beginObject();");
+            out.println("        try {");
+            out.println("            while (in.hasNext()) {");
+            out.println("                final String name = in.nextName();");
+            out.println("                if (in.peek() == com.google.gson.stream.JsonToken.NULL) {");
+            out.println("                    in.skipValue();");
+            out.println("                    continue;");
+            out.println("                }");
+            out.println("                switch (name) {");
+            for (int i = 0; i < parameters.size(); i++) {
+                out.println("                    case \"" + names.get(i) + "\":");
+                final String read = lazy[i]
+                        ? "value" + i + " = lazy != null && lazy.contains(\"" + names.get(i) + "\") ? " + PROJECTION + "."
+                                + lazyFactory(parameters.get(i).asType()) + "(adapter" + i + ", in) : adapter" + i + ".read(in);"
+                        : readStatement(parameters.get(i).asType(), i);
+                if (skippable[i]) {
+                    out.println("                        if (fields == null || fields.contains(\"" + names.get(i) + "\")) {");
+                    out.println("                            " + read);
+                    out.println("                        } else {");
+                    out.println("                            in.skipValue();");
+                    out.println("                        }");
+                } else {
+                    out.println("                        " + read);
+                }
+                out.println("                        break;");
+            }
+            out.println("                    default:");
+            out.println("                        in.skipValue();");
+            out.println("                }");
+            out.println("            }");
+            out.println("        } catch (final IllegalStateException | NumberFormatException e) {");
+            out.println("            throw new com.google.gson.JsonSyntaxException(e);");
+            out.println("        }");
+            out.println("        in.endObject();");
+            for (int i = 0; i < parameters.size(); i++) {
+                final String empty = emptyValue(parameters.get(i).asType());
+                if (skippable[i] && empty != null) {
+                    out.println("        if (fields != null && !fields.contains(\"" + names.get(i) + "\")) {");
+                    out.println("            value" + i + " = " + empty + ";");
+                    out.println("        }");
+                }
+            }
+            final StringBuilder arguments = new StringBuilder();
+            for (int i = 0; i < parameters.size(); i++) {
+                arguments.append(i == 0 ? "" : ", ").append("value").append(i);
+            }
+            out.println("        return " + typeName + "." + factory.getSimpleName() + "(" + arguments + ");");
+            out.println("    }");
+            out.println("}");
+        } catch (final IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + adapterName + ": " + e.getMessage(), type);
+            return;
+        }
+        adaptersByPackage.computeIfAbsent(packageName, key -> new TreeSet<>()).add(typeName);
+    }
+
+    private void generateFactories() {
+        for (final Map.Entry<String, Set<String>> entry : adaptersByPackage.entrySet()) {
+            final String packageName = entry.getKey();
+            try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                    .createSourceFile(packageName + "." + FACTORY).openWriter())) {
+                out.println("package " + packageName + ";");
+                out.println();
+                out.println("@javax.annotation.processing.Generated(\"" + TypeAdapterProcessor.class.getName() + "\")");
+                out.println("public final class " + FACTORY + " implements com.google.gson.TypeAdapterFactory {");
+                out.println();
+                out.println("    private final com.google.gson.TypeAdapterFactory skipPast;");
+                out.println();
+                out.println("    public " + FACTORY + "() {");
+                out.println("        this.skipPast = this;");
+                out.println("    }");
+                out.println();
+                out.println("    public " + FACTORY + "(final com.google.gson.TypeAdapterFactory skipPast) {");
+                out.println("        this.skipPast = skipPast;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    @SuppressWarnings(\"unchecked\")");
+                out.println("    public <T> com.google.gson.TypeAdapter<T> create(final com.google.gson.Gson gson, "
+                        + "final com.google.gson.reflect.TypeToken<T> type) {");
+                out.println("        final Class<? super T> rawType = type.getRawType();");
+                for (final String typeName : entry.getValue()) {
+                    final TypeElement type = processingEnv.getElementUtils().getTypeElement(typeName);
+                    out.println("        if (rawType == " + typeName + ".class) {");
+                    out.println("            return (com.google.gson.TypeAdapter<T>) new " + adapterName(type)
+                            + "(gson, gson.getDelegateAdapter(skipPast, com.google.gson.reflect.TypeToken.get("
+                            + typeName + ".class)));");
+                    out.println("        }");
+                }
+                out.println("        return null;");
+                out.println("    }");
+                out.println("}");
+            } catch (final IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to generate " + packageName + "." + FACTORY + ": " + e.getMessage());
+            }
+        }
+        try (Writer out = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE).openWriter()) {
+            for (final String packageName : adaptersByPackage.keySet()) {
+                out.write(packageName + "." + FACTORY + "\n");
+            }
+        } catch (final IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + SERVICE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the accessor of the passed factory parameter, being the
+     * abstract method of the same name, is annotated `@Nullable`.
+     */
+    private boolean isNullable(final TypeElement type, final VariableElement parameter) {
+        for (final Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (member.getKind() == ElementKind.METHOD
+                    && member.getModifiers().contains(Modifier.ABSTRACT)
+                    && member.getSimpleName().contentEquals(parameter.getSimpleName())
+                    && ((ExecutableElement) member).getParameters().isEmpty()) {
+                for (final AnnotationMirror mirror : member.getAnnotationMirrors()) {
+                    if (mirror.getAnnotationType().asElement().getSimpleName().contentEquals("Nullable")) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empty value of the passed collection type, or null if not a collection.
+     */
+    private static String emptyValue(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        switch (((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString()) {
+            case "java.lang.Iterable":
+            case "java.util.Collection":
+            case "java.util.List":
+                return "java.util.Collections.emptyList()";
+            case "java.util.Set":
+                return "java.util.Collections.emptySet()";
+            case "java.util.Map":
+                return "java.util.Collections.emptyMap()";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Method of the projection reading the passed type lazily, or null if
+     * it can not be read lazily.
+     */
+    private static String lazyFactory(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        switch (((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString()) {
+            case "java.util.List":
+                return "lazyList";
+            case "java.util.Map":
+                return "lazyMap";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Name of the adapter of the passed type, e.g. `TypeAdapter_Commit` or
+     * `TypeAdapter_Outer_Inner` for a nested class.
+     */
+    private static String adapterName(final TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return "TypeAdapter_" + name;
+    }
+
+    /**
+     * Whether the passed type is read straight off the JsonReader, rather
+     * than through the TypeAdapter Gson has for it.
+     */
+    private static boolean isInlined(final TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case INT:
+            case LONG:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String readStatement(final TypeMirror type, final int index) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "value" + index + " = in.peek() == com.google.gson.stream.JsonToken.STRING"
+                        + " ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();";
+            case INT:
+                return "value" + index + " = in.nextInt();";
+            case LONG:
+                return "value" + index + " = in.nextLong();";
+            case DOUBLE:
+                return "value" + index + " = in.nextDouble();";
+            default:
+                if (type.getKind().isPrimitive() || isOptional(type)) {
+                    // keep the default when the adapter reads nothing
+                    return "final " + boxedName(type) + " read" + index + " = adapter" + index + ".read(in);"
+                            + " if (read" + index + " != null) { value" + index + " = read" + index + "; }";
+                }
+                return "value" + index + " = adapter" + index + ".read(in);";
+        }
+    }
+
+    private static String defaultValue(final TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\0'";
+            case BYTE:
+            case SHORT:
+                return "(" + typeName(type) + ") 0";
+            case INT:
+                return "0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0F";
+            case DOUBLE:
+                return "0D";
+            default:
+                return isOptional(type) ? "com.google.common.base.Optional.absent()" : "null";
+        }
+    }
+
+    private static boolean isOptional(final TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+                        .contentEquals("com.google.common.base.Optional");
+    }
+
+    private static String typeToken(final TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return typeName(type) + ".class";
+        }
+        if (type.getKind().isPrimitive()) {
+            return type + ".class";
+        }
+        return "new com.google.gson.reflect.TypeToken<" + typeName(type) + ">() { }";
+    }
+
+    private static String boxedName(final TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+            case CHAR:
+                return "Character";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case INT:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                return typeName(type);
+        }
+    }
+
+    /**
+     * Source name of the passed type, leaving out any type annotations.
+     */
+    private static String typeName(final TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                final DeclaredType declared = (DeclaredType) type;
+                final StringBuilder name = new StringBuilder(
+                        ((TypeElement) declared.asElement()).getQualifiedName());
+                if (!declared.getTypeArguments().isEmpty()) {
+                    name.append('<');
+                    for (int i = 0; i < declared.getTypeArguments().size(); i++) {
+                        name.append(i == 0 ? "" : ", ").append(typeName(declared.getTypeArguments().get(i)));
+                    }
+                    name.append('>');
+                }
+                return name.toString();
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case WILDCARD:
+                final WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    return "? extends " + typeName(wildcard.getExtendsBound());
+                }
+                if (wildcard.getSuperBound() != null) {
+                    return "? super " + typeName(wildcard.getSuperBound());
+                }
+                return "?";
+            default:
+                return type.getKind().isPrimitive() ? type.getKind().name().toLowerCase(Locale.ROOT)
+                        : type.toString();
+        }
+    }
+}
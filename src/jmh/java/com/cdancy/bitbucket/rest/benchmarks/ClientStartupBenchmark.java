@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.benchmarks;
+
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how long it takes to build a BitbucketClient and make it ready
+ * for a first call, both in a freshly started JVM (cold) and once a client
+ * has been built before (warm). Run with `./gradlew jmh`.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClientStartupBenchmark {
+
+    private static final String ENDPOINT = "http://127.0.0.1:7990";
+    private static final String CREDENTIALS = "admin:password";
+
+    /**
+     * State preloading the client classes, as a short lived process would
+     * by calling {@link BitbucketClient#preload()} first thing on startup.
+     */
+    @State(Scope.Benchmark)
+    public static class Preloaded {
+
+        @Setup(Level.Trial)
+        public void preload() {
+            BitbucketClient.preload().join();
+        }
+    }
+
+    /**
+     * First client built within a fresh JVM, i.e. including class loading.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public void coldConstruction(final Blackhole blackhole) throws IOException {
+        buildAndUse(blackhole);
+    }
+
+    /**
+     * First client built within a fresh JVM after having preloaded.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public void preloadedConstruction(final Preloaded preloaded, final Blackhole blackhole) throws IOException {
+        buildAndUse(blackhole);
+    }
+
+    /**
+     * Steady state cost of building yet another client.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public void warmConstruction(final Blackhole blackhole) throws IOException {
+        buildAndUse(blackhole);
+    }
+
+    private static void buildAndUse(final Blackhole blackhole) throws IOException {
+        try (BitbucketClient client = BitbucketClient.builder()
+                .endPoint(ENDPOINT)
+                .credentials(CREDENTIALS)
+                .build()) {
+            final BitbucketApi api = client.api();
+            blackhole.consume(api.pullRequestApi());
+            blackhole.consume(api.repositoryApi());
+        }
+    }
+}
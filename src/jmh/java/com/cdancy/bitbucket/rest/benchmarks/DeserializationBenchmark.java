@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.benchmarks;
+
+import com.cdancy.bitbucket.rest.config.BitbucketJsonModule;
+import com.cdancy.bitbucket.rest.domain.activities.ActivitiesPage;
+import com.cdancy.bitbucket.rest.domain.branch.BranchPage;
+import com.cdancy.bitbucket.rest.domain.comment.Comments;
+import com.cdancy.bitbucket.rest.domain.commit.CommitPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.CommentPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequestPage;
+import com.cdancy.bitbucket.rest.interning.Interner;
+import com.cdancy.bitbucket.rest.interning.InterningModule;
+import com.cdancy.bitbucket.rest.projection.Projection;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures deserializing pages of domain objects the way the client does,
+ * through jclouds' ParseJson, with pages built from the mock test fixtures
+ * scaled to `values` entries. Run with `./gradlew jmh`, which includes the
+ * `gc` profiler such that allocation rate (`gc.alloc.rate.norm` being bytes
+ * per page) is reported along with throughput. `generatedAdapters` compares
+ * the TypeAdapters generated for the domain classes, as the client uses, to
+ * the reflective deserialization of plain jclouds, which also ignores the
+ * {@link Projection}s of `projectedPullRequestPage` and `lazyCommentPage`.
+ * `internedPullRequestPage` always reads through the generated TypeAdapters,
+ * interning users, repositories and links into an {@link Interner} kept
+ * across invocations as it would be across the pages of a listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int values;
+
+    @Param({"true", "false"})
+    public boolean generatedAdapters;
+
+    private byte[] branches;
+    private byte[] commits;
+    private byte[] pullRequests;
+    private byte[] activities;
+    private byte[] comments;
+    private ParseJson<BranchPage> branchPageParser;
+    private ParseJson<CommitPage> commitPageParser;
+    private ParseJson<PullRequestPage> pullRequestPageParser;
+    private ParseJson<ActivitiesPage> activitiesPageParser;
+    private ParseJson<CommentPage> commentPageParser;
+    private ParseJson<PullRequestPage> internedPullRequestPageParser;
+    private final Projection projection = Projection.builder()
+            .include(PullRequest.class, "id", "title", "state", "updatedDate")
+            .build();
+    private final Projection lazyComments = Projection.builder()
+            .lazy(Comments.class, "comments", "tasks", "properties")
+            .build();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        branches = Fixtures.page("/branch-list.json", values);
+        commits = Fixtures.page("/commit.json", values);
+        pullRequests = Fixtures.page("/pull-request-page.json", values);
+        activities = Fixtures.page("/pull-request-activities.json", values);
+        comments = Fixtures.page("/comments.json", values);
+
+        final Json json = (generatedAdapters
+                ? Guice.createInjector(new GsonModule(), new BitbucketJsonModule())
+                : Guice.createInjector(new GsonModule())).getInstance(Json.class);
+        branchPageParser = new ParseJson<>(json, TypeLiteral.get(BranchPage.class));
+        commitPageParser = new ParseJson<>(json, TypeLiteral.get(CommitPage.class));
+        pullRequestPageParser = new ParseJson<>(json, TypeLiteral.get(PullRequestPage.class));
+        activitiesPageParser = new ParseJson<>(json, TypeLiteral.get(ActivitiesPage.class));
+        commentPageParser = new ParseJson<>(json, TypeLiteral.get(CommentPage.class));
+
+        final Json interning = Guice.createInjector(new GsonModule(), new BitbucketJsonModule(),
+                new InterningModule(Interner.builder().build())).getInstance(Json.class);
+        internedPullRequestPageParser = new ParseJson<>(interning, TypeLiteral.get(PullRequestPage.class));
+    }
+
+    @Benchmark
+    public BranchPage branchPage() throws IOException {
+        return branchPageParser.apply(new ByteArrayInputStream(branches));
+    }
+
+    @Benchmark
+    public CommitPage commitPage() throws IOException {
+        return commitPageParser.apply(new ByteArrayInputStream(commits));
+    }
+
+    @Benchmark
+    public PullRequestPage pullRequestPage() throws IOException {
+        return pullRequestPageParser.apply(new ByteArrayInputStream(pullRequests));
+    }
+
+    @Benchmark
+    public PullRequestPage projectedPullRequestPage() {
+        return projection.apply(() -> {
+            try {
+                return pullRequestPage();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public PullRequestPage internedPullRequestPage() throws IOException {
+        return internedPullRequestPageParser.apply(new ByteArrayInputStream(pullRequests));
+    }
+
+    @Benchmark
+    public ActivitiesPage activitiesPage() throws IOException {
+        return activitiesPageParser.apply(new ByteArrayInputStream(activities));
+    }
+
+    @Benchmark
+    public CommentPage commentPage() throws IOException {
+        return commentPageParser.apply(new ByteArrayInputStream(comments));
+    }
+
+    @Benchmark
+    public CommentPage lazyCommentPage() {
+        return lazyComments.apply(() -> {
+            try {
+                return commentPage();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the JSON fixtures the mock tests serve, from `src/test/resources`,
+ * for benchmarks to feed to the client's parsers.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Read a fixture as it is.
+     *
+     * @param resource path of the fixture, e.g. `/commit.json`.
+     * @return the fixture as JSON.
+     */
+    static JsonElement read(final String resource) {
+        final InputStream stream = Fixtures.class.getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IllegalArgumentException("no such fixture: " + resource);
+        }
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Build a page of `size` values, cycling through the values of the passed
+     * page fixture, or repeating the passed fixture should it be a single
+     * value rather than a page.
+     *
+     * @param resource path of the fixture.
+     * @param size number of values of the page.
+     * @return the page as UTF-8 encoded JSON.
+     */
+    static byte[] page(final String resource, final int size) {
+        final JsonObject fixture = read(resource).getAsJsonObject();
+        final JsonArray values = fixture.has("values")
+                ? fixture.getAsJsonArray("values")
+                : singleton(fixture);
+
+        final JsonArray scaled = new JsonArray(size);
+        for (int i = 0; i < size; i++) {
+            scaled.add(values.get(i % values.size()));
+        }
+        final JsonObject page = new JsonObject();
+        page.addProperty("size", size);
+        page.addProperty("limit", size);
+        page.addProperty("start", 0);
+        page.addProperty("isLastPage", true);
+        page.add("values", scaled);
+        return page.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonArray singleton(final JsonElement value) {
+        final JsonArray values = new JsonArray(1);
+        values.add(value);
+        return values;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.benchmarks;
+
+import com.cdancy.bitbucket.rest.BitbucketAuthentication;
+import com.cdancy.bitbucket.rest.binders.BindHookSettingsToPayload;
+import com.cdancy.bitbucket.rest.binders.BindSearchRequestToPayload;
+import com.cdancy.bitbucket.rest.config.BitbucketAuthenticationModule;
+import com.cdancy.bitbucket.rest.domain.common.Error;
+import com.cdancy.bitbucket.rest.domain.repository.HookSettings;
+import com.cdancy.bitbucket.rest.domain.search.SearchRequest;
+import com.cdancy.bitbucket.rest.fallbacks.BitbucketFallbacks;
+import com.cdancy.bitbucket.rest.filters.BitbucketAuthenticationFilter;
+import com.cdancy.bitbucket.rest.filters.ScrubNullFromPathFilter;
+import com.cdancy.bitbucket.rest.handlers.BitbucketErrorHandler;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.Fallback;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-request work around a call: the request filters and
+ * payload binders building a request, and the error handler and fallbacks
+ * mapping a failed response onto the `errors` of a domain object. Run with
+ * `./gradlew jmh`, which includes the `gc` profiler such that allocations
+ * per operation (`gc.alloc.rate.norm`) are reported along with the time.
+ * `errorStorm` reports failures mapped per second instead, a server down
+ * behind a proxy answering every request with an HTML error page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPipelineBenchmark {
+
+    private static final String ENDPOINT = "http://127.0.0.1:7990";
+
+    private HttpRequest request;
+    private HttpRequest requestWithNullPath;
+    private BitbucketAuthenticationFilter authenticationFilter;
+    private ScrubNullFromPathFilter scrubNullFromPathFilter;
+    private BindSearchRequestToPayload searchRequestBinder;
+    private SearchRequest searchRequest;
+    private BindHookSettingsToPayload hookSettingsBinder;
+    private HookSettings hookSettings;
+    private BitbucketErrorHandler errorHandler;
+    private Fallback<Object> repositoryFallback;
+    private byte[] errorBody;
+    private String errorMessage;
+    private String nonJsonMessage;
+    private byte[] htmlPageBody;
+    private String htmlPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = HttpRequest.builder()
+                .method("GET")
+                .endpoint(ENDPOINT + "/rest/api/1.0/projects/PRJ/repos/my-repo/files/some/dir?at=master")
+                .build();
+        requestWithNullPath = HttpRequest.builder()
+                .method("GET")
+                .endpoint(ENDPOINT + "/rest/api/1.0/projects/PRJ/repos/my-repo/files/%7Bpath%7D?at=master")
+                .build();
+
+        final BitbucketAuthentication authentication = BitbucketAuthentication.builder()
+                .credentials("admin:password")
+                .build();
+        authenticationFilter = Guice.createInjector(new BitbucketAuthenticationModule(authentication))
+                .getInstance(BitbucketAuthenticationFilter.class);
+        scrubNullFromPathFilter = new ScrubNullFromPathFilter();
+
+        searchRequestBinder = new BindSearchRequestToPayload();
+        searchRequest = SearchRequest.of(ImmutableMap.of("query", "needle",
+                "entities", ImmutableMap.of("code", ImmutableMap.of()),
+                "limits", ImmutableMap.of("primary", 25, "secondary", 10)));
+        hookSettingsBinder = new BindHookSettingsToPayload();
+        hookSettings = HookSettings.of(Fixtures.read("/hook-settings.json"));
+
+        errorHandler = new BitbucketErrorHandler();
+        repositoryFallback = new BitbucketFallbacks.RepositoryOnError();
+        errorMessage = Fixtures.read("/repository-not-exist.json").toString();
+        errorBody = errorMessage.getBytes(StandardCharsets.UTF_8);
+        nonJsonMessage = "<html><body><h1>502 Bad Gateway</h1></body></html>";
+        htmlPage = "<!DOCTYPE html><html><head><title>404 Not Found</title></head><body><h1>Not Found</h1>"
+                + Strings.repeat("<p>The requested URL was not found on this server.</p>", 1000)
+                + "</body></html>";
+        htmlPageBody = htmlPage.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public HttpRequest authenticationFilter() {
+        return authenticationFilter.filter(request);
+    }
+
+    @Benchmark
+    public HttpRequest scrubNullFromPathFilter() {
+        return scrubNullFromPathFilter.filter(requestWithNullPath);
+    }
+
+    @Benchmark
+    public HttpRequest bindSearchRequest() {
+        return searchRequestBinder.bindToRequest(request, searchRequest);
+    }
+
+    @Benchmark
+    public HttpRequest bindHookSettings() {
+        return hookSettingsBinder.bindToRequest(request, hookSettings);
+    }
+
+    /**
+     * A 404 mapped onto an exception by the error handler, and that in turn
+     * onto a Repository holding its errors by the operation's fallback.
+     */
+    @Benchmark
+    public Object errorHandlerAndFallback() throws Exception {
+        final HttpCommand command = new HttpCommand(request);
+        final HttpResponse response = HttpResponse.builder()
+                .statusCode(404)
+                .message("Not Found")
+                .payload(errorBody)
+                .build();
+        errorHandler.handleError(command, response);
+        return repositoryFallback.createOrPropagate(command.getException());
+    }
+
+    @Benchmark
+    public List<Error> getErrors() {
+        return BitbucketFallbacks.getErrors(errorMessage);
+    }
+
+    @Benchmark
+    public List<Error> getErrorsOfNonJson() {
+        return BitbucketFallbacks.getErrors(nonJsonMessage);
+    }
+
+    @Benchmark
+    public List<Error> getErrorsOfHtmlPage() {
+        return BitbucketFallbacks.getErrors(htmlPage);
+    }
+
+    /**
+     * A 404 answered with a 50KB HTML page, mapped onto a Repository holding
+     * its errors, in failures per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object errorStorm() throws Exception {
+        final HttpCommand command = new HttpCommand(request);
+        final HttpResponse response = HttpResponse.builder()
+                .statusCode(404)
+                .message("Not Found")
+                .payload(htmlPageBody)
+                .build();
+        errorHandler.handleError(command, response);
+        return repositoryFallback.createOrPropagate(command.getException());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest;
+
+import com.cdancy.bitbucket.rest.async.AdminAsyncApi;
+import com.cdancy.bitbucket.rest.async.BranchAsyncApi;
+import com.cdancy.bitbucket.rest.async.BuildStatusAsyncApi;
+import com.cdancy.bitbucket.rest.async.CommentsAsyncApi;
+import com.cdancy.bitbucket.rest.async.CommitsAsyncApi;
+import com.cdancy.bitbucket.rest.async.CompareAsyncApi;
+import com.cdancy.bitbucket.rest.async.DefaultReviewersAsyncApi;
+import com.cdancy.bitbucket.rest.async.FileAsyncApi;
+import com.cdancy.bitbucket.rest.async.HookAsyncApi;
+import com.cdancy.bitbucket.rest.async.InsightsAsyncApi;
+import com.cdancy.bitbucket.rest.async.KeysAsyncApi;
+import com.cdancy.bitbucket.rest.async.LabelsAsyncApi;
+import com.cdancy.bitbucket.rest.async.LikesAsyncApi;
+import com.cdancy.bitbucket.rest.async.PostWebHookAsyncApi;
+import com.cdancy.bitbucket.rest.async.ProjectAsyncApi;
+import com.cdancy.bitbucket.rest.async.PullRequestAsyncApi;
+import com.cdancy.bitbucket.rest.async.RepositoryAsyncApi;
+import com.cdancy.bitbucket.rest.async.SearchAsyncApi;
+import com.cdancy.bitbucket.rest.async.SyncAsyncApi;
+import com.cdancy.bitbucket.rest.async.SystemAsyncApi;
+import com.cdancy.bitbucket.rest.async.TagAsyncApi;
+import com.cdancy.bitbucket.rest.async.TasksAsyncApi;
+import com.cdancy.bitbucket.rest.async.WebHookAsyncApi;
+
+/**
+ * Asynchronous variant of {@link BitbucketApi} where every operation returns a
+ * {@link java.util.concurrent.CompletableFuture} rather than blocking the
+ * calling thread. Errors are mapped to domain objects exactly as they are for
+ * the synchronous api.
+ */
+public interface BitbucketAsyncApi {
+
+    AdminAsyncApi adminApi();
+
+    BranchAsyncApi branchApi();
+
+    BuildStatusAsyncApi buildStatusApi();
+
+    CommentsAsyncApi commentsApi();
+
+    CommitsAsyncApi commitsApi();
+
+    CompareAsyncApi compareApi();
+
+    DefaultReviewersAsyncApi defaultReviewersApi();
+
+    FileAsyncApi fileApi();
+
+    HookAsyncApi hookApi();
+
+    WebHookAsyncApi webHookApi();
+
+    ProjectAsyncApi projectApi();
+
+    PullRequestAsyncApi pullRequestApi();
+
+    RepositoryAsyncApi repositoryApi();
+
+    SyncAsyncApi syncApi();
+
+    SystemAsyncApi systemApi();
+
+    TagAsyncApi tagApi();
+
+    TasksAsyncApi tasksApi();
+
+    InsightsAsyncApi insightsApi();
+
+    KeysAsyncApi keysApi();
+
+    SearchAsyncApi searchApi();
+
+    LabelsAsyncApi labelsApi();
+
+    PostWebHookAsyncApi postWebHookApi();
+
+    LikesAsyncApi likesApi();
+}
@@ -17,25 +17,48 @@
 
 package com.cdancy.bitbucket.rest;
 
+import com.cdancy.bitbucket.rest.async.AsyncApiInvocationHandler;
 import com.cdancy.bitbucket.rest.auth.AuthenticationType;
+import com.cdancy.bitbucket.rest.cache.ResponseCache;
 import com.cdancy.bitbucket.rest.config.BitbucketAuthenticationModule;
+import com.cdancy.bitbucket.rest.hedging.HedgingPolicy;
+import com.cdancy.bitbucket.rest.tracing.Span;
+import com.cdancy.bitbucket.rest.tracing.Tracing;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.name.Names;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jclouds.Constants;
 import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.Delegate;
 
 public final class BitbucketClient implements Closeable {
 
+    // immutable, and so built once and shared by every client
+    private static final BitbucketApiMetadata API_METADATA = new BitbucketApiMetadata.Builder().build();
+
     private final String endPoint;
     private final BitbucketAuthentication credentials;
     private final BitbucketApi bitbucketApi;
+    private final BitbucketAsyncApi bitbucketAsyncApi;
     private final Properties overrides;
+    private final ListeningExecutorService virtualThreadExecutor;
+    private final Injector injector;
 
     /**
      * Create a BitbucketClient inferring endpoint and authentication from
@@ -61,6 +84,18 @@ public final class BitbucketClient implements Closeable {
             @Nullable final BitbucketAuthentication authentication,
             @Nullable final Properties overrides,
             @Nullable final List<Module> modules) {
+        this(endPoint, authentication, overrides, modules, false, false, null, null, null);
+    }
+
+    private BitbucketClient(@Nullable final String endPoint,
+            @Nullable final BitbucketAuthentication authentication,
+            @Nullable final Properties overrides,
+            @Nullable final List<Module> modules,
+            final boolean virtualThreads,
+            final boolean coalesceRequests,
+            @Nullable final ResponseCache responseCache,
+            @Nullable final HedgingPolicy hedgingPolicy,
+            @Nullable final Tracing tracing) {
         this.endPoint = endPoint != null
                 ? endPoint
                 : BitbucketUtils.inferEndpoint();
@@ -68,23 +103,49 @@ public final class BitbucketClient implements Closeable {
                 ? authentication
                 : BitbucketUtils.inferAuthentication();
         this.overrides = mergeOverrides(overrides);
-        this.bitbucketApi = createApi(this.endPoint, this.credentials, this.overrides, modules);
+        this.virtualThreadExecutor = virtualThreads
+                ? MoreExecutors.listeningDecorator(BitbucketUtils.newVirtualThreadPerTaskExecutor())
+                : null;
+        try {
+            final List<Module> allModules = Lists.newArrayList();
+            if (modules != null) {
+                allModules.addAll(modules);
+            }
+            if (this.virtualThreadExecutor != null) {
+                allModules.add(new ExecutorServiceModule(this.virtualThreadExecutor));
+            }
+            if (tracing != null) {
+                allModules.add(tracing.module());
+            }
+            this.injector = createInjector(this.endPoint, this.credentials, this.overrides, allModules);
+            this.bitbucketApi = LazyDelegatesInvocationHandler.newProxy(injector.getInstance(BitbucketApi.class),
+                    coalesceRequests, responseCache, hedgingPolicy, tracing);
+            final Executor userExecutor = injector.getInstance(Key.get(ListeningExecutorService.class,
+                    Names.named(Constants.PROPERTY_USER_THREADS)));
+            this.bitbucketAsyncApi = AsyncApiInvocationHandler.newProxy(BitbucketAsyncApi.class,
+                    this.bitbucketApi,
+                    tracing != null ? Span.propagating(userExecutor) : userExecutor);
+        } catch (final RuntimeException | Error e) {
+            // no client to close is handed back, e.g. for a malformed endpoint
+            if (this.virtualThreadExecutor != null) {
+                this.virtualThreadExecutor.shutdownNow();
+            }
+            throw e;
+        }
     }
 
-    private BitbucketApi createApi(final String endPoint,
-                                   final BitbucketAuthentication authentication,
-                                   final Properties overrides,
-                                   final List<Module> modules) {
+    private Injector createInjector(final String endPoint,
+                                    final BitbucketAuthentication authentication,
+                                    final Properties overrides,
+                                    final List<Module> modules) {
         final List<Module> allModules = Lists.newArrayList(new BitbucketAuthenticationModule(authentication));
-        if (modules != null) {
-            allModules.addAll(modules);
-        }
+        allModules.addAll(modules);
         return ContextBuilder
-                .newBuilder(new BitbucketApiMetadata.Builder().build())
+                .newBuilder(API_METADATA)
                 .endpoint(endPoint)
                 .modules(allModules)
                 .overrides(overrides)
-                .buildApi(BitbucketApi.class);
+                .buildInjector();
     }
 
     /**
@@ -127,6 +188,61 @@ public final class BitbucketClient implements Closeable {
         return this.bitbucketApi;
     }
 
+    /**
+     * Get the asynchronous variant of the api. Calls are executed on the
+     * jclouds user executor (see `jclouds.user-threads`) and hand back a
+     * CompletableFuture which completes with the same domain object the
+     * synchronous api would have returned.
+     *
+     * @return instance of BitbucketAsyncApi.
+     */
+    public BitbucketAsyncApi asyncApi() {
+        return this.bitbucketAsyncApi;
+    }
+
+    /**
+     * The injector backing this client, used by {@link BitbucketClientPool}
+     * to pick up infrastructure it shares with subsequent clients.
+     *
+     * @return the Injector this client was built from.
+     */
+    Injector injector() {
+        return this.injector;
+    }
+
+    /**
+     * Load, and initialize, the classes backing a BitbucketClient, and all of
+     * its feature apis, on a background daemon thread. The bulk of the time
+     * it takes to build the first client within a JVM is spent on this, and
+     * not on the building itself, so short lived processes (e.g. CLI tools
+     * or serverless functions) can call this as early as possible to have
+     * that work overlap with their own startup. Subsequent clients, whether
+     * built before or after the returned future completes, build in a
+     * fraction of the time.
+     *
+     * @return future completing once preloading is done.
+     */
+    public static CompletableFuture<Void> preload() {
+        return CompletableFuture.runAsync(BitbucketClient::warmUp, runnable -> {
+            final Thread thread = new Thread(runnable, "bitbucket-client-preload");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private static void warmUp() {
+        try (BitbucketClient client = new BitbucketClient(BitbucketConstants.DEFAULT_ENDPOINT,
+                BitbucketAuthentication.builder().build(), null, null)) {
+            for (final Method method : BitbucketApi.class.getMethods()) {
+                if (method.isAnnotationPresent(Delegate.class)) {
+                    method.invoke(client.api());
+                }
+            }
+        } catch (final IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to preload BitbucketClient", e);
+        }
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -136,6 +252,11 @@ public final class BitbucketClient implements Closeable {
         if (this.api() != null) {
             this.api().close();
         }
+
+        // jclouds only shuts down the executors it created itself
+        if (this.virtualThreadExecutor != null) {
+            this.virtualThreadExecutor.shutdownNow();
+        }
     }
 
     public static class Builder {
@@ -144,6 +265,11 @@ public final class BitbucketClient implements Closeable {
         private BitbucketAuthentication.Builder authBuilder;
         private Properties overrides;
         private List<Module> modules = Lists.newArrayList();
+        private boolean virtualThreads;
+        private boolean coalesceRequests;
+        private ResponseCache responseCache;
+        private HedgingPolicy hedgingPolicy;
+        private Tracing tracing;
 
         /**
          * Define the base endpoint to connect to.
@@ -207,6 +333,81 @@ public final class BitbucketClient implements Closeable {
             return this;
         }
 
+        /**
+         * Optionally run the jclouds user executor, which backs the async api
+         * and any timed out calls, on a virtual-thread-per-task executor rather
+         * than a bounded pool of platform threads. This removes the need to
+         * size `jclouds.user-threads` for largely network bound workloads.
+         * Requires Java 21 or later.
+         *
+         * @param virtualThreads whether to use virtual threads.
+         * @return this Builder.
+         */
+        public Builder virtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Optionally coalesce concurrent calls of the same GET operation with
+         * equal arguments (e.g. many threads asking for
+         * `repositoryApi().get("PRJ", "hot-repo")` at once) into a single
+         * request whose result is handed to every caller. Calls are only
+         * coalesced while a request is in flight, and so are never served a
+         * result older than the one a call of their own would have fetched.
+         * Applies to both the synchronous and asynchronous api.
+         *
+         * @param coalesceRequests whether to coalesce identical concurrent GETs.
+         * @return this Builder.
+         */
+        public Builder coalesceRequests(final boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * Optionally serve GET operations from the passed ResponseCache for
+         * as long as their configured time-to-live, with every other
+         * operation invalidating the cached reads it may have affected. A
+         * cache must not be shared with clients authenticating as other
+         * users.
+         *
+         * @param responseCache the cache to serve GET operations from.
+         * @return this Builder.
+         */
+        public Builder responseCache(final ResponseCache responseCache) {
+            this.responseCache = Objects.requireNonNull(responseCache);
+            return this;
+        }
+
+        /**
+         * Optionally hedge GET operations through the passed HedgingPolicy,
+         * making a second call of any call which has not completed within a
+         * percentile of the recent latencies of its operation and handing
+         * back whichever succeeds first. Applies to both the synchronous and
+         * asynchronous api.
+         *
+         * @param hedgingPolicy the policy to hedge GET operations by.
+         * @return this Builder.
+         */
+        public Builder hedgingPolicy(final HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = Objects.requireNonNull(hedgingPolicy);
+            return this;
+        }
+
+        /**
+         * Optionally trace every call of the api through the passed Tracing,
+         * each in a span exported once the call returned. Applies to both
+         * the synchronous and asynchronous api.
+         *
+         * @param tracing the Tracing to trace calls through.
+         * @return this Builder.
+         */
+        public Builder tracing(final Tracing tracing) {
+            this.tracing = Objects.requireNonNull(tracing);
+            return this;
+        }
+
         /**
          * Build an instance of BitbucketClient.
          *
@@ -219,7 +420,8 @@ public final class BitbucketClient implements Closeable {
                     ? authBuilder.build()
                     : null;
 
-            return new BitbucketClient(endPoint, authentication, overrides, modules);
+            return new BitbucketClient(endPoint, authentication, overrides, modules, virtualThreads, coalesceRequests,
+                    responseCache, hedgingPolicy, tracing);
         }
     }
 }
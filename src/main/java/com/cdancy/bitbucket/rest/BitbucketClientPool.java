@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+
+import com.cdancy.bitbucket.rest.auth.AuthenticationType;
+import com.cdancy.bitbucket.rest.config.JavaHttpClientModule;
+import com.cdancy.bitbucket.rest.http.HostPermits;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.matcher.Matchers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Pool of BitbucketClient's keyed by endpoint and authentication, meant for
+ * services talking to many Bitbucket instances, or on behalf of many users,
+ * at once. Every client handed out by the pool is built from the same
+ * overrides and modules and shares a single user executor as well as a
+ * single {@link HttpClient}, and so connection pool, such that thread and
+ * connection counts scale with the number of concurrent requests rather
+ * than with the number of tenants. The cap of `jclouds.max-connections-per-host`
+ * applies to all clients together rather than to each of them.
+ *
+ * <p>Clients are evicted once the pool grows beyond its maximum size, least
+ * recently used first, or once they have not been asked for within the
+ * configured idle timeout. An evicted client is closed as soon as its
+ * requests still in flight are done. Clients obtained from the pool should
+ * therefore not be closed, nor held onto, by callers but instead be asked
+ * for each time they are needed.
+ */
+public final class BitbucketClientPool implements Closeable {
+
+    private final Properties overrides;
+    private final List<Module> modules;
+    private final ListeningExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Object httpClientLock = new Object();
+    private final Cache<ClientKey, PooledClient> clients;
+    private volatile HttpClient httpClient;
+    private volatile HostPermits hostPermits;
+
+    private BitbucketClientPool(final Builder builder) {
+        this.overrides = builder.overrides;
+        this.modules = ImmutableList.copyOf(builder.modules);
+        this.ownsExecutor = builder.executor == null;
+        this.executor = MoreExecutors.listeningDecorator(builder.executor != null
+                ? builder.executor
+                : newDefaultExecutor(builder.virtualThreads));
+        this.httpClient = builder.httpClient;
+        this.clients = CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumSize)
+                .expireAfterAccess(builder.idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .removalListener((RemovalListener<ClientKey, PooledClient>) notification -> notification.getValue().evict())
+                .build();
+    }
+
+    /**
+     * Get the client for the passed endpoint and authentication, creating
+     * it should one not already exist.
+     *
+     * @param endPoint URL of Bitbucket instance.
+     * @param authentication authentication used to connect to Bitbucket instance.
+     * @return pooled instance of BitbucketClient.
+     */
+    public BitbucketClient client(final String endPoint, final BitbucketAuthentication authentication) {
+        Objects.requireNonNull(endPoint);
+        Objects.requireNonNull(authentication);
+        try {
+            return clients.get(new ClientKey(endPoint, authentication.authType(), authentication.authValue()),
+                () -> newClient(endPoint, authentication)).client();
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to create client for " + endPoint, cause);
+        }
+    }
+
+    /**
+     * Convenience for {@code client(endPoint, authentication).api()}.
+     *
+     * @param endPoint URL of Bitbucket instance.
+     * @param authentication authentication used to connect to Bitbucket instance.
+     * @return instance of BitbucketApi.
+     */
+    public BitbucketApi api(final String endPoint, final BitbucketAuthentication authentication) {
+        return client(endPoint, authentication).api();
+    }
+
+    /**
+     * Convenience for {@code client(endPoint, authentication).asyncApi()}.
+     * Async calls of all pooled clients run on the shared user executor.
+     *
+     * @param endPoint URL of Bitbucket instance.
+     * @param authentication authentication used to connect to Bitbucket instance.
+     * @return instance of BitbucketAsyncApi.
+     */
+    public BitbucketAsyncApi asyncApi(final String endPoint, final BitbucketAuthentication authentication) {
+        return client(endPoint, authentication).asyncApi();
+    }
+
+    /**
+     * Number of clients currently held by the pool.
+     *
+     * @return number of pooled clients.
+     */
+    public long size() {
+        clients.cleanUp();
+        return clients.size();
+    }
+
+    /**
+     * Close, and remove, all pooled clients. Should the pool have created
+     * the shared user executor it is shut down as well.
+     */
+    @Override
+    public void close() throws IOException {
+        clients.invalidateAll();
+        clients.cleanUp();
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private PooledClient newClient(final String endPoint, final BitbucketAuthentication authentication) {
+        final HostPermits sharedHostPermits = this.hostPermits;
+        if (sharedHostPermits != null) {
+            return newClient(endPoint, authentication, this.httpClient, sharedHostPermits);
+        }
+
+        // the first client creates the HttpClient, and host permits, from the pools overrides which all others then share
+        synchronized (httpClientLock) {
+            if (this.hostPermits != null) {
+                return newClient(endPoint, authentication, this.httpClient, this.hostPermits);
+            }
+            final PooledClient pooled = newClient(endPoint, authentication, this.httpClient, null);
+            this.httpClient = pooled.client().injector().getInstance(HttpClient.class);
+            this.hostPermits = pooled.client().injector().getInstance(HostPermits.class);
+            return pooled;
+        }
+    }
+
+    private PooledClient newClient(final String endPoint,
+            final BitbucketAuthentication authentication,
+            @Nullable final HttpClient sharedHttpClient,
+            @Nullable final HostPermits sharedHostPermits) {
+        final JavaHttpClientModule.Builder httpClientModule = JavaHttpClientModule.builder();
+        if (sharedHttpClient != null) {
+            httpClientModule.httpClient(sharedHttpClient);
+        }
+        if (sharedHostPermits != null) {
+            httpClientModule.hostPermits(sharedHostPermits);
+        }
+
+        // counting in-flight calls comes first so it covers the time spent in any other interceptor
+        final PooledClient pooled = new PooledClient();
+        final List<Module> allModules = Lists.newArrayList(pooled.module());
+        allModules.addAll(modules);
+        allModules.add(new ExecutorServiceModule(executor));
+        allModules.add(httpClientModule.build());
+        pooled.client = new BitbucketClient(endPoint, authentication, overrides, allModules);
+        return pooled;
+    }
+
+    private static ExecutorService newDefaultExecutor(final boolean virtualThreads) {
+        if (virtualThreads) {
+            return BitbucketUtils.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("bitbucket-client-pool-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Pooled client along with the number of its requests in flight, such
+     * that closing it on eviction can wait for them to be done.
+     */
+    private static final class PooledClient implements MethodInterceptor {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile BitbucketClient client;
+
+        BitbucketClient client() {
+            return client;
+        }
+
+        Module module() {
+            return new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                            methodMatcher("invoke", HttpCommand.class),
+                            PooledClient.this);
+                }
+            };
+        }
+
+        @Override
+        public Object invoke(final MethodInvocation invocation) throws Throwable {
+            inFlight.incrementAndGet();
+            try {
+                return invocation.proceed();
+            } finally {
+                inFlight.decrementAndGet();
+                closeIfDone();
+            }
+        }
+
+        void evict() {
+            evicted.set(true);
+            closeIfDone();
+        }
+
+        // both sides first publish their own change and then check the others, so at least one of them closes
+        private void closeIfDone() {
+            if (evicted.get() && inFlight.get() == 0 && closed.compareAndSet(false, true)) {
+                try {
+                    client.close();
+                } catch (final IOException e) {
+                    // nothing left to do with an evicted client
+                }
+            }
+        }
+    }
+
+    private static final class ClientKey {
+
+        private final String endPoint;
+        private final AuthenticationType authType;
+        private final String authValue;
+
+        ClientKey(final String endPoint, final AuthenticationType authType, @Nullable final String authValue) {
+            this.endPoint = endPoint;
+            this.authType = authType;
+            this.authValue = authValue;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ClientKey)) {
+                return false;
+            }
+            final ClientKey other = (ClientKey) obj;
+            return endPoint.equals(other.endPoint)
+                    && authType == other.authType
+                    && Objects.equals(authValue, other.authValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endPoint, authType, authValue);
+        }
+    }
+
+    public static class Builder {
+
+        private long maximumSize = 100;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Properties overrides;
+        private final List<Module> modules = Lists.newArrayList();
+        private ExecutorService executor;
+        private HttpClient httpClient;
+        private boolean virtualThreads;
+
+        /**
+         * Maximum number of clients held by the pool after which the least
+         * recently used are evicted. Defaults to 100.
+         *
+         * @param maximumSize maximum number of pooled clients.
+         * @return this Builder.
+         */
+        public Builder maximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * How long a client may go unused before being evicted. Defaults
+         * to 10 minutes.
+         *
+         * @param idleTimeout idle time after which a client is evicted.
+         * @return this Builder.
+         */
+        public Builder idleTimeout(final Duration idleTimeout) {
+            this.idleTimeout = Objects.requireNonNull(idleTimeout);
+            return this;
+        }
+
+        /**
+         * Optional jclouds Properties to override for every pooled client.
+         *
+         * @param overrides optional jclouds Properties to override.
+         * @return this Builder.
+         */
+        public Builder overrides(final Properties overrides) {
+            this.overrides = overrides;
+            return this;
+        }
+
+        /**
+         * Optional List of Module to add to every pooled client. The same
+         * Module instances are installed into each client.
+         *
+         * @param modules optional List of Module to add.
+         * @return this Builder.
+         */
+        public Builder modules(final Module... modules) {
+            this.modules.addAll(Arrays.asList(modules));
+            return this;
+        }
+
+        /**
+         * Optional user executor shared by all pooled clients. The caller
+         * remains responsible for shutting it down. Defaults to an unbounded
+         * pool of daemon threads which are reaped once idle.
+         *
+         * @param executor the shared user executor.
+         * @return this Builder.
+         */
+        public Builder executor(final ExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Optional HttpClient, and so connection pool, shared by all pooled
+         * clients. Defaults to one created from the pools overrides when the
+         * first client is built.
+         *
+         * @param httpClient the shared HttpClient.
+         * @return this Builder.
+         */
+        public Builder httpClient(final HttpClient httpClient) {
+            this.httpClient = Objects.requireNonNull(httpClient);
+            return this;
+        }
+
+        /**
+         * Optionally back the default shared user executor with virtual
+         * threads. Requires Java 21 or later.
+         *
+         * @param virtualThreads whether to use virtual threads.
+         * @return this Builder.
+         */
+        public Builder virtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Build an instance of BitbucketClientPool.
+         *
+         * @return BitbucketClientPool
+         */
+        public BitbucketClientPool build() {
+            return new BitbucketClientPool(this);
+        }
+    }
+}
@@ -29,7 +29,10 @@ import static com.cdancy.bitbucket.rest.BitbucketConstants.JCLOUDS_VARIABLE_ID;
 import static com.cdancy.bitbucket.rest.BitbucketConstants.TOKEN_ENVIRONMENT_VARIABLE;
 import static com.cdancy.bitbucket.rest.BitbucketConstants.TOKEN_SYSTEM_PROPERTY;
 
+import com.cdancy.bitbucket.rest.auth.AuthenticationType;
+import com.cdancy.bitbucket.rest.projection.Projection;
 import com.google.common.base.Throwables;
+import com.google.common.hash.Hashing;
 
 import java.util.List;
 import java.util.Map;
@@ -38,14 +41,21 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
+import com.google.inject.matcher.Matcher;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.jclouds.javax.annotation.Nullable;
 
 /**
@@ -63,10 +73,18 @@ public class BitbucketUtils {
      * 
      * @param <T> an arbitrary type.
      * @param input the Iterable to copy.
-     * @return ImmutableList or empty ImmutableList if `input` is null.
+     * @return ImmutableList or empty ImmutableList if `input` is null, or
+     *         `input` itself if read lazily.
      */
     public static <T> List<T> nullToEmpty(final Iterable<? extends T> input) {
-        return (List<T>) (input == null ? ImmutableList.<T> of() : ImmutableList.copyOf(input));
+        if (Projection.isLazy(input)) {
+            // copying would decode it, and as it is immutable it may be
+            // viewed as holding the supertype
+            @SuppressWarnings("unchecked")
+            final List<T> lazy = (List<T>) input;
+            return lazy;
+        }
+        return input == null ? ImmutableList.<T> of() : ImmutableList.copyOf(input);
     }
 
     /**
@@ -75,10 +93,17 @@ public class BitbucketUtils {
      * @param <K> an arbitrary type.
      * @param <V> an arbitrary type.
      * @param input the Map to copy.
-     * @return ImmutableMap or empty ImmutableMap if `input` is null.
+     * @return ImmutableMap or empty ImmutableMap if `input` is null, or
+     *         `input` itself if read lazily.
      */
     public static <K, V> Map<K, V> nullToEmpty(final Map<? extends K, ? extends V> input) {
-        return (Map<K, V>) (input == null ? ImmutableMap.<K, V> of() : ImmutableMap.copyOf(input));
+        if (Projection.isLazy(input)) {
+            // as above, immutable and so safely viewed as of the supertypes
+            @SuppressWarnings("unchecked")
+            final Map<K, V> lazy = (Map<K, V>) input;
+            return lazy;
+        }
+        return input == null ? ImmutableMap.<K, V> of() : ImmutableMap.copyOf(input);
     }
 
     /**
@@ -226,6 +251,81 @@ public class BitbucketUtils {
         return overrides;
     }
 
+    /**
+     * Create an ExecutorService which starts a new virtual thread for each
+     * submitted task. Virtual threads are only available on Java 21 or later
+     * and so the factory method is looked up reflectively.
+     *
+     * @return ExecutorService backed by virtual threads.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later but running on "
+                    + System.getProperty("java.version"), e);
+        } catch (final InvocationTargetException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new UnsupportedOperationException("Failed to create a virtual thread executor", e.getCause());
+        } catch (final IllegalAccessException e) {
+            throw new UnsupportedOperationException("Failed to create a virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Get the id of the operation the passed api method performs, which is
+     * the value of its `@Named` annotation (e.g. `repository:get`), falling
+     * back to the method's signature for those without one.
+     *
+     * @param method api method, or the jclouds Invokable wrapping one.
+     * @return id of the operation.
+     */
+    public static String operationId(final AnnotatedElement method) {
+        final jakarta.inject.Named named = method.getAnnotation(jakarta.inject.Named.class);
+        if (named != null) {
+            return named.value();
+        }
+        final com.google.inject.name.Named guiceNamed = method.getAnnotation(com.google.inject.name.Named.class);
+        return guiceNamed != null
+                ? guiceNamed.value()
+                : method.toString();
+    }
+
+    /**
+     * Fingerprint of the passed authentication, e.g. `Bearer:3f2a9c01b4e7`,
+     * telling credentials apart without holding onto them in the clear.
+     *
+     * @param authentication authentication of a client.
+     * @return the type of authentication followed by a truncated SHA-256
+     *     of its value, or `Anonymous` if there is none.
+     */
+    public static String credentialFingerprint(final BitbucketAuthentication authentication) {
+        return authentication.authType() == AuthenticationType.Anonymous || authentication.authValue() == null
+                ? AuthenticationType.Anonymous.name()
+                : authentication.authType().name() + ":" + Hashing.sha256()
+                        .hashString(authentication.authValue(), StandardCharsets.UTF_8)
+                        .toString()
+                        .substring(0, 12);
+    }
+
+    /**
+     * Match methods of the passed name taking a single parameter of the
+     * passed type, e.g. `invoke(HttpCommand)` of HttpCommandExecutorService,
+     * for binding Guice method interceptors to. Synthetic bridge methods are
+     * skipped so a method is never intercepted twice.
+     *
+     * @param name name of the method.
+     * @param parameterType type of its only parameter.
+     * @return matcher of the method.
+     */
+    public static Matcher<Method> methodMatcher(final String name, final Class<?> parameterType) {
+        return method -> !method.isSynthetic()
+                && method.getName().equals(name)
+                && method.getParameterCount() == 1
+                && method.getParameterTypes()[0] == parameterType;
+    }
+
     /**
      * Add the passed environment variables to the currently existing env-vars.
      * 
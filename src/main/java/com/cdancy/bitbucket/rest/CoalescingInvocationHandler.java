@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest;
+
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.ws.rs.GET;
+
+/**
+ * Fronts a feature api (e.g. `RepositoryApi`) such that concurrent calls of
+ * the same `@GET` operation with equal arguments, and so the same resolved
+ * URI, are coalesced into a single request. The first caller issues the
+ * request while every caller arriving before it completes waits for, and is
+ * handed, the very same result, or exception. Calls arriving after it
+ * completes issue a fresh request, so nothing is ever served stale.
+ *
+ * <p>Results are shared rather than copied which is safe as all domain
+ * objects are immutable.
+ */
+final class CoalescingInvocationHandler extends ForwardingInvocationHandler {
+
+    // operation id of every @GET method, or empty for those not coalesced
+    private static final ConcurrentMap<Method, Optional<String>> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private CoalescingInvocationHandler(final Object api) {
+        super(api);
+    }
+
+    static Object newProxy(final Class<?> apiType, final Object api) {
+        return Proxy.newProxyInstance(apiType.getClassLoader(),
+                new Class<?>[]{apiType},
+                new CoalescingInvocationHandler(api));
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final Optional<String> operation = OPERATIONS.computeIfAbsent(method, CoalescingInvocationHandler::operationId);
+        if (!operation.isPresent() || Projection.current() != null) {
+            return invokeDelegate(method, args);
+        }
+
+        final List<Object> key = key(operation.get(), args);
+        final CompletableFuture<Object> call = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (final CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            final Object result = invokeDelegate(method, args);
+            inFlight.remove(key, call);
+            call.complete(result);
+            return result;
+        } catch (final Throwable e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static List<Object> key(final String operation, final Object[] args) {
+        final Object[] key = new Object[args != null ? args.length + 1 : 1];
+        key[0] = operation;
+        if (args != null) {
+            System.arraycopy(args, 0, key, 1, args.length);
+        }
+        return Arrays.asList(key);
+    }
+
+    private static Optional<String> operationId(final Method method) {
+        return method.isAnnotationPresent(GET.class)
+                ? Optional.of(BitbucketUtils.operationId(method))
+                : Optional.empty();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest;
+
+import com.google.common.reflect.AbstractInvocationHandler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * Base of the InvocationHandlers fronting an api with a proxy of the same,
+ * or a mirroring, interface. `equals`, `hashCode` and `toString` are
+ * answered by the proxy itself, the latter from the delegate, and calls
+ * are forwarded to the delegate with whatever it threw rethrown as is.
+ */
+public abstract class ForwardingInvocationHandler extends AbstractInvocationHandler {
+
+    private final Object delegate;
+
+    protected ForwardingInvocationHandler(final Object delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    /**
+     * The api calls are forwarded to.
+     *
+     * @return the delegate.
+     */
+    protected final Object delegate() {
+        return delegate;
+    }
+
+    /**
+     * Invoke the passed method on the delegate.
+     *
+     * @param method method of the delegate.
+     * @param args arguments to pass.
+     * @return what the delegate returned.
+     * @throws Throwable whatever the delegate threw.
+     */
+    protected final Object invokeDelegate(final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
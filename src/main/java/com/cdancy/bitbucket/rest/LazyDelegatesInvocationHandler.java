@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest;
+
+import com.cdancy.bitbucket.rest.cache.ResponseCache;
+import com.cdancy.bitbucket.rest.hedging.HedgingPolicy;
+import com.cdancy.bitbucket.rest.tracing.Tracing;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.Delegate;
+
+/**
+ * Fronts the jclouds generated BitbucketApi such that each `@Delegate`
+ * feature api (e.g. `branchApi()`) is only resolved the first time it is
+ * asked for and the same instance handed back from then on. jclouds would
+ * otherwise build a new delegate on every call, which is pure overhead for
+ * the common `client.api().branchApi().get(...)` pattern.
+ *
+ * <p>When asked to, each delegate is in turn fronted by a
+ * {@link HedgingPolicy}, outside of that a {@link CoalescingInvocationHandler}
+ * coalescing identical concurrent GETs, outside of that a {@link ResponseCache}
+ * and, outermost, {@link Tracing} such that spans cover all of the above.
+ */
+final class LazyDelegatesInvocationHandler extends ForwardingInvocationHandler {
+
+    private final boolean coalesceRequests;
+    private final ResponseCache responseCache;
+    private final HedgingPolicy hedgingPolicy;
+    private final Tracing tracing;
+    private final ConcurrentMap<Method, Object> delegates = new ConcurrentHashMap<>();
+
+    private LazyDelegatesInvocationHandler(final BitbucketApi api,
+            final boolean coalesceRequests,
+            @Nullable final ResponseCache responseCache,
+            @Nullable final HedgingPolicy hedgingPolicy,
+            @Nullable final Tracing tracing) {
+        super(api);
+        this.coalesceRequests = coalesceRequests;
+        this.responseCache = responseCache;
+        this.hedgingPolicy = hedgingPolicy;
+        this.tracing = tracing;
+    }
+
+    static BitbucketApi newProxy(final BitbucketApi api,
+            final boolean coalesceRequests,
+            @Nullable final ResponseCache responseCache,
+            @Nullable final HedgingPolicy hedgingPolicy,
+            @Nullable final Tracing tracing) {
+        return (BitbucketApi) Proxy.newProxyInstance(BitbucketApi.class.getClassLoader(),
+                new Class<?>[]{BitbucketApi.class},
+                new LazyDelegatesInvocationHandler(api, coalesceRequests, responseCache, hedgingPolicy, tracing));
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (method.isAnnotationPresent(Delegate.class)) {
+            final Object delegate = delegates.get(method);
+            return delegate != null
+                    ? delegate
+                    : delegates.computeIfAbsent(method, key -> resolveDelegate(key, args));
+        }
+        return invokeDelegate(method, args);
+    }
+
+    private Object resolveDelegate(final Method method, final Object[] args) {
+        final Object raw = invokeApi(method, args);
+        final Object delegate = hedgingPolicy != null
+                ? wrap(hedgingPolicy, method.getReturnType(), raw)
+                : raw;
+        final Object coalescing = coalesceRequests
+                ? CoalescingInvocationHandler.newProxy(method.getReturnType(), delegate)
+                : delegate;
+        final Object cached = responseCache != null
+                ? wrap(responseCache, method.getReturnType(), coalescing)
+                : coalescing;
+        return tracing != null
+                ? wrap(tracing, method.getReturnType(), cached)
+                : cached;
+    }
+
+    private static <T> T wrap(final ResponseCache responseCache, final Class<T> apiType, final Object delegate) {
+        return responseCache.wrap(apiType, apiType.cast(delegate));
+    }
+
+    private static <T> T wrap(final HedgingPolicy hedgingPolicy, final Class<T> apiType, final Object delegate) {
+        return hedgingPolicy.wrap(apiType, apiType.cast(delegate));
+    }
+
+    private static <T> T wrap(final Tracing tracing, final Class<T> apiType, final Object delegate) {
+        return tracing.wrap(apiType, apiType.cast(delegate));
+    }
+
+    private Object invokeApi(final Method method, final Object[] args) {
+        try {
+            return invokeDelegate(method, args);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
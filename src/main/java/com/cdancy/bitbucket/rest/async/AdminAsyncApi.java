@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.admin.UserPage;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.pullrequest.User;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.AdminApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface AdminAsyncApi {
+
+    @Named("admin:list-user-by-group")
+    CompletableFuture<UserPage> listUsersByGroup(String context,
+                                                 @Nullable String filter,
+                                                 @Nullable Integer start,
+                                                 @Nullable Integer limit);
+
+    @Named("admin:list-users")
+    CompletableFuture<UserPage> listUsers(@Nullable String filter,
+                                          @Nullable Integer start,
+                                          @Nullable Integer limit);
+
+    @Named("admin:create-user")
+    CompletableFuture<RequestStatus> createUser(String name,
+                                                String password,
+                                                String displayName,
+                                                String emailAddress,
+                                                @Nullable Boolean addToDefaultGroup,
+                                                @Nullable String notify);
+
+    @Named("admin:delete-user")
+    CompletableFuture<User> deleteUser(String name);
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.ForwardingInvocationHandler;
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Backs the async api interfaces by forwarding each call to the synchronous
+ * method of the same name and parameter types on the wrapped api. Methods
+ * returning a CompletableFuture are run on the passed Executor while methods
+ * returning another async api (e.g. `pullRequestApi()`) hand back a proxy
+ * over the matching synchronous delegate.
+ */
+public final class AsyncApiInvocationHandler extends ForwardingInvocationHandler {
+
+    private final Executor executor;
+    private final ConcurrentMap<Method, Method> syncMethods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Object> asyncDelegates = new ConcurrentHashMap<>();
+
+    private AsyncApiInvocationHandler(final Object syncApi, final Executor executor) {
+        super(syncApi);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Create a new async proxy over the passed synchronous api.
+     *
+     * @param <T> the async api type.
+     * @param asyncType the async api interface to implement.
+     * @param syncApi the synchronous api to forward calls to.
+     * @param executor the Executor async calls are run on.
+     * @return proxy implementing asyncType.
+     */
+    public static <T> T newProxy(final Class<T> asyncType, final Object syncApi, final Executor executor) {
+        return asyncType.cast(Proxy.newProxyInstance(asyncType.getClassLoader(),
+                new Class<?>[]{asyncType},
+                new AsyncApiInvocationHandler(syncApi, executor)));
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final Method syncMethod = syncMethods.computeIfAbsent(method, this::findSyncMethod);
+        if (CompletableFuture.class.equals(method.getReturnType())) {
+            final Projection projection = Projection.current();
+            return projection != null
+                    ? CompletableFuture.supplyAsync(() -> projection.apply(() -> invokeSync(syncMethod, args)), executor)
+                    : CompletableFuture.supplyAsync(() -> invokeSync(syncMethod, args), executor);
+        }
+
+        // anything else is an accessor for a nested async api (e.g. `branchApi()`)
+        return asyncDelegates.computeIfAbsent(method,
+            key -> newProxy(key.getReturnType(), invokeSync(syncMethod, args), executor));
+    }
+
+    private Method findSyncMethod(final Method asyncMethod) {
+        try {
+            return delegate().getClass().getMethod(asyncMethod.getName(), asyncMethod.getParameterTypes());
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException("No synchronous counterpart found for " + asyncMethod, e);
+        }
+    }
+
+    private Object invokeSync(final Method syncMethod, final Object[] args) {
+        try {
+            return invokeDelegate(syncMethod, args);
+        } catch (final Throwable e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Async" + delegate();
+    }
+}
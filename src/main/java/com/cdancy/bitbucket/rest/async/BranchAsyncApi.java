@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.branch.Branch;
+import com.cdancy.bitbucket.rest.domain.branch.BranchModel;
+import com.cdancy.bitbucket.rest.domain.branch.BranchModelConfiguration;
+import com.cdancy.bitbucket.rest.domain.branch.BranchPage;
+import com.cdancy.bitbucket.rest.domain.branch.BranchRestriction;
+import com.cdancy.bitbucket.rest.domain.branch.BranchRestrictionPage;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.options.CreateBranch;
+import com.cdancy.bitbucket.rest.options.CreateBranchModelConfiguration;
+
+import jakarta.inject.Named;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.BranchApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface BranchAsyncApi {
+
+    @Named("branch:list")
+    CompletableFuture<BranchPage> list(String project,
+                                       String repo,
+                                       @Nullable String base,
+                                       @Nullable String details,
+                                       @Nullable String filterText,
+                                       @Nullable String orderBy,
+                                       @Nullable Integer start,
+                                       @Nullable Integer limit);
+
+    @Named("branch:create")
+    CompletableFuture<Branch> create(String project,
+                                     String repo,
+                                     CreateBranch createBranch);
+
+    @Named("branch:delete")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo,
+                                            String branchPath);
+
+    @Named("branch:update-default")
+    CompletableFuture<RequestStatus> updateDefault(String project,
+                                                   String repo,
+                                                   String id);
+
+    @Named("branch:get-default")
+    CompletableFuture<Branch> getDefault(String project,
+                                         String repo);
+
+    @Named("branch:model")
+    CompletableFuture<BranchModel> model(String project,
+                                         String repo);
+
+    @Named("branch:info")
+    CompletableFuture<BranchPage> info(String project,
+                                       String repo,
+                                       String commitId);
+
+    @Named("branch:get-model-configuration")
+    CompletableFuture<BranchModelConfiguration> getModelConfiguration(String project,
+                                                                      String repo);
+
+    @Named("branch:update-model-configuration")
+    CompletableFuture<BranchModelConfiguration> updateModelConfiguration(String project,
+                                                                         String repo,
+                                                                         CreateBranchModelConfiguration config);
+
+    @Named("branch:delete-model-configuration")
+    CompletableFuture<RequestStatus> deleteModelConfiguration(String project,
+                                                              String repo);
+
+    @Named("branch:list-branch-permission")
+    CompletableFuture<BranchRestrictionPage> listBranchRestriction(String project,
+                                                                   String repo,
+                                                                   @Nullable Integer start,
+                                                                   @Nullable Integer limit);
+
+    @Named("branch:update-branch-permission")
+    CompletableFuture<RequestStatus> createBranchRestriction(String project,
+                                                             String repo,
+                                                             List<BranchRestriction> branchRestrictions);
+
+    @Named("branch:delete-branch-permission")
+    CompletableFuture<RequestStatus> deleteBranchRestriction(String project,
+                                                             String repo,
+                                                             long id);
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.comment.Comments;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.pullrequest.CommentPage;
+import com.cdancy.bitbucket.rest.options.CreateComment;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.CommentsApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface CommentsAsyncApi {
+
+    @Named("comments:comment")
+    CompletableFuture<Comments> comment(String project,
+                                        String repo,
+                                        int pullRequestId,
+                                        String comment);
+
+    @Named("comments:create")
+    CompletableFuture<Comments> create(String project,
+                                       String repo,
+                                       int pullRequestId,
+                                       CreateComment createComment);
+
+    @Named("comments:get")
+    CompletableFuture<Comments> get(String project,
+                                    String repo,
+                                    int pullRequestId,
+                                    int commentId);
+
+    @Named("comments:file-comments-deprecated")
+    CompletableFuture<CommentPage> fileComments(String project,
+                                                String repo,
+                                                int pullRequestId,
+                                                String pathToFile,
+                                                @Nullable Integer start,
+                                                @Nullable Integer limit);
+
+    @Named("comments:file-comments")
+    CompletableFuture<CommentPage> fileComments(String project,
+                                                String repo,
+                                                int pullRequestId,
+                                                String pathToFile,
+                                                @Nullable String anchorState,
+                                                @Nullable String diffType,
+                                                @Nullable String fromHash,
+                                                @Nullable String toHash,
+                                                @Nullable Integer start,
+                                                @Nullable Integer limit);
+
+    @Named("comments:delete")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo,
+                                            int pullRequestId,
+                                            int commentId,
+                                            int version);
+}
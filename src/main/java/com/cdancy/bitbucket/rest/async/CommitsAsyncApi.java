@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.commit.Commit;
+import com.cdancy.bitbucket.rest.domain.commit.CommitPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.ChangePage;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.CommitsApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface CommitsAsyncApi {
+
+    @Named("commits:get")
+    CompletableFuture<Commit> get(String project,
+                                  String repo,
+                                  String commitId,
+                                  @Nullable String path);
+
+    @Named("commits:list-changes")
+    CompletableFuture<ChangePage> listChanges(String project,
+                                              String repo,
+                                              String commitId,
+                                              @Nullable Integer limit,
+                                              @Nullable Integer start);
+
+    @Named("commits:list")
+    CompletableFuture<CommitPage> list(String project,
+                                       String repo,
+                                       @Nullable Boolean withCounts,
+                                       @Nullable Boolean followRenames,
+                                       @Nullable Boolean ignoreMissing,
+                                       @Nullable String merges,
+                                       @Nullable String path,
+                                       @Nullable String since,
+                                       @Nullable String until,
+                                       @Nullable Integer limit,
+                                       @Nullable Integer start);
+}
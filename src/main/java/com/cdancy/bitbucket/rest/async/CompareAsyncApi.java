@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.commit.CommitPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.ChangePage;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.CompareApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface CompareAsyncApi {
+
+    @Named("compare:changes")
+    CompletableFuture<ChangePage> changes(String project,
+                                          String repo,
+                                          @Nullable String fromRef,
+                                          @Nullable String toRef,
+                                          @Nullable String fromRepo,
+                                          @Nullable Integer start,
+                                          @Nullable Integer limit);
+
+    @Named("compare:commits")
+    CompletableFuture<CommitPage> commits(String project,
+                                          String repo,
+                                          @Nullable String fromRef,
+                                          @Nullable String toRef,
+                                          @Nullable String fromRepo,
+                                          @Nullable Integer start,
+                                          @Nullable Integer limit);
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.commit.Commit;
+import com.cdancy.bitbucket.rest.domain.file.FilesPage;
+import com.cdancy.bitbucket.rest.domain.file.LastModified;
+import com.cdancy.bitbucket.rest.domain.file.LinePage;
+import com.cdancy.bitbucket.rest.domain.file.RawContent;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.FileApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface FileAsyncApi {
+
+    @Named("file:raw-content")
+    CompletableFuture<RawContent> raw(String project,
+                                      String repo,
+                                      String filePath,
+                                      @Nullable String branchOrTag);
+
+    @Named("file:list-lines")
+    CompletableFuture<LinePage> listLines(String project,
+                                          String repo,
+                                          String filePath,
+                                          @Nullable String branchOrTag,
+                                          @Nullable Boolean type,
+                                          @Nullable Boolean blame,
+                                          @Nullable Boolean noContent,
+                                          @Nullable Integer start,
+                                          @Nullable Integer limit);
+
+    @Named("file:update-content")
+    CompletableFuture<Commit> updateContent(String project,
+                                            String repo,
+                                            String filePath,
+                                            String branch,
+                                            String content,
+                                            @Nullable String message,
+                                            @Nullable String sourceCommitId,
+                                            @Nullable String sourceBranch);
+
+    @Named("file:list-files")
+    CompletableFuture<FilesPage> listFiles(String project,
+                                           String repo,
+                                           @Nullable String path,
+                                           @Nullable String branchOrTag,
+                                           @Nullable Integer start,
+                                           @Nullable Integer limit);
+
+    @Named("file:last-modified")
+    CompletableFuture<LastModified> lastModified(String project,
+                                                 String repo,
+                                                 @Nullable String path,
+                                                 String branchOrTag);
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.repository.Hook;
+import com.cdancy.bitbucket.rest.domain.repository.HookPage;
+import com.cdancy.bitbucket.rest.domain.repository.HookSettings;
+import com.google.inject.name.Named;
+
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.HookApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface HookAsyncApi {
+
+    @Named("hook:list-hooks")
+    CompletableFuture<HookPage> list(String project,
+                                     String repo,
+                                     @Nullable Integer start,
+                                     @Nullable Integer limit);
+
+    @Named("hook:get-hook")
+    CompletableFuture<Hook> get(String project,
+                                String repo,
+                                String hookKey);
+
+    @Named("hook:update-hook-settings")
+    CompletableFuture<HookSettings> update(String project,
+                                           String repo,
+                                           String hookKey,
+                                           HookSettings hookSettings);
+
+    @Named("hook:get-hook-settings")
+    CompletableFuture<HookSettings> settings(String project,
+                                             String repo,
+                                             String hookKey);
+
+    @Named("hook:enable-hook")
+    CompletableFuture<Hook> enable(String project,
+                                   String repo,
+                                   String hookKey);
+
+    @Named("hook:disable-hook")
+    CompletableFuture<Hook> disable(String project,
+                                    String repo,
+                                    String hookKey);
+}
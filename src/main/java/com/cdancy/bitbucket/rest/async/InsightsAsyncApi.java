@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.insights.Annotation;
+import com.cdancy.bitbucket.rest.domain.insights.AnnotationsResponse;
+import com.cdancy.bitbucket.rest.domain.insights.InsightReport;
+import com.cdancy.bitbucket.rest.domain.insights.InsightReportPage;
+import com.cdancy.bitbucket.rest.options.CreateAnnotations;
+import com.cdancy.bitbucket.rest.options.CreateInsightReport;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.InsightsApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface InsightsAsyncApi {
+
+    @Named("insights:get-annotations")
+    CompletableFuture<AnnotationsResponse> listAnnotations(String project,
+                                                           String repo,
+                                                           String commitId,
+                                                           @Nullable String externalId,
+                                                           @Nullable String path,
+                                                           @Nullable String severity,
+                                                           @Nullable String type);
+
+    @Named("insights:get-reports")
+    CompletableFuture<InsightReportPage> listReports(String project,
+                                                     String repo,
+                                                     String commitId,
+                                                     @Nullable int limit,
+                                                     @Nullable int start);
+
+    @Named("insights:get-report")
+    CompletableFuture<InsightReport> getReport(String project,
+                                               String repo,
+                                               String commitId,
+                                               String key);
+
+    @Named("insights:create-report")
+    CompletableFuture<InsightReport> createReport(String project,
+                                                  String repo,
+                                                  String commitId,
+                                                  String key,
+                                                  CreateInsightReport createInsightReport);
+
+    @Named("insights:delete-report")
+    CompletableFuture<RequestStatus> deleteReport(String project,
+                                                  String repo,
+                                                  String commitId,
+                                                  String key);
+
+    @Named("insights:delete-annotation")
+    CompletableFuture<RequestStatus> deleteAnnotation(String project,
+                                                      String repo,
+                                                      String commitId,
+                                                      String key,
+                                                      @Nullable String externalId);
+
+    @Named("insights:create-annotations")
+    CompletableFuture<RequestStatus> createAnnotations(String project,
+                                                       String repo,
+                                                       String commitId,
+                                                       String key,
+                                                       CreateAnnotations createAnnotations);
+
+    @Named("insights:get-annotations")
+    CompletableFuture<AnnotationsResponse> getAnnotationsByReport(String project,
+                                                                  String repo,
+                                                                  String commitId,
+                                                                  String key);
+
+    @Named("insights:create-annotation")
+    CompletableFuture<RequestStatus> createAnnotation(String project,
+                                                      String repo,
+                                                      String commitId,
+                                                      String key,
+                                                      String externalId,
+                                                      Annotation annotation);
+}
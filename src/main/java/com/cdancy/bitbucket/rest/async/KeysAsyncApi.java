@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.sshkey.AccessKey;
+import com.cdancy.bitbucket.rest.domain.sshkey.AccessKeyPage;
+import com.cdancy.bitbucket.rest.options.CreateAccessKey;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.KeysApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface KeysAsyncApi {
+
+    @Named("keys:list-by-repo")
+    CompletableFuture<AccessKeyPage> listByRepo(String project,
+                                                String repo,
+                                                @Nullable Integer start,
+                                                @Nullable Integer limit);
+
+    @Named("keys:create-for-repo")
+    CompletableFuture<AccessKey> createForRepo(String project,
+                                               String repo,
+                                               CreateAccessKey createAccessKey);
+
+    @Named("keys:get-for-repo")
+    CompletableFuture<AccessKey> getForRepo(String project,
+                                            String repo,
+                                            long id);
+
+    @Named("keys:delete-from-repo")
+    CompletableFuture<RequestStatus> deleteFromRepo(String project,
+                                                    String repo,
+                                                    long id);
+
+    @Named("keys:list-by-project")
+    CompletableFuture<AccessKeyPage> listByProject(String project,
+                                                   @Nullable Integer start,
+                                                   @Nullable Integer limit);
+
+    @Named("keys:create-for-project")
+    CompletableFuture<AccessKey> createForProject(String project,
+                                                  CreateAccessKey createAccessKey);
+
+    @Named("keys:get-for-project")
+    CompletableFuture<AccessKey> getForProject(String project,
+                                               long id);
+
+    @Named("keys:delete-from-project")
+    CompletableFuture<RequestStatus> deleteFromProject(String project,
+                                                       long id);
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.postwebhooks.PostWebHook;
+import com.cdancy.bitbucket.rest.options.CreatePostWebHook;
+
+import jakarta.inject.Named;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.PostWebHookApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface PostWebHookAsyncApi {
+
+    @Named("postwebhook:list")
+    CompletableFuture<List<PostWebHook>> list(String project,
+                                              String repo);
+
+    @Named("postwebhook:update-postwebhook")
+    CompletableFuture<PostWebHook> update(String project,
+                                          String repo,
+                                          String postWebHookId,
+                                          CreatePostWebHook postWebHook);
+
+    @Named("postwebhook:create-postwebhook")
+    CompletableFuture<PostWebHook> create(String project,
+                                          String repo,
+                                          CreatePostWebHook postWebHook);
+
+    @Named("postwebhook:delete-postwebhook")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo,
+                                            String postWebHookId);
+}
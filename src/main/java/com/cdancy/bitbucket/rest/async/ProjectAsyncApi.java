@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.project.Project;
+import com.cdancy.bitbucket.rest.domain.project.ProjectPage;
+import com.cdancy.bitbucket.rest.domain.project.ProjectPermissionsPage;
+import com.cdancy.bitbucket.rest.options.CreateProject;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.ProjectApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface ProjectAsyncApi {
+
+    @Named("/api/{jclouds.api-version}/projects:create")
+    CompletableFuture<Project> create(CreateProject createProject);
+
+    @Named("project:get")
+    CompletableFuture<Project> get(String project);
+
+    @Named("project:delete")
+    CompletableFuture<RequestStatus> delete(String project);
+
+    @Named("/api/{jclouds.api-version}/projects/project:list")
+    CompletableFuture<ProjectPage> list(@Nullable String name,
+                                        @Nullable String permission,
+                                        @Nullable Integer start,
+                                        @Nullable Integer limit);
+
+    @Named("/api/{jclouds.api-version}/project:create-permissions-by-user")
+    CompletableFuture<RequestStatus> createPermissionsByUser(String project,
+                                                             String permission,
+                                                             String name);
+
+    @Named("project:delete-permissions-by-user")
+    CompletableFuture<RequestStatus> deletePermissionsByUser(String project,
+                                                             String name);
+
+    @Named("project:list-permissions-by-user")
+    CompletableFuture<ProjectPermissionsPage> listPermissionsByUser(String project,
+                                                                    @Nullable Integer start,
+                                                                    @Nullable Integer limit);
+
+    @Named("project:create-permissions-by-group")
+    CompletableFuture<RequestStatus> createPermissionsByGroup(String project,
+                                                              String permission,
+                                                              String name);
+
+    @Named("project:delete-permissions-by-group")
+    CompletableFuture<RequestStatus> deletePermissionsByGroup(String project,
+                                                              String name);
+
+    @Named("project:list-permissions-by-group")
+    CompletableFuture<ProjectPermissionsPage> listPermissionsByGroup(String project,
+                                                                     @Nullable Integer start,
+                                                                     @Nullable Integer limit);
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.activities.ActivitiesPage;
+import com.cdancy.bitbucket.rest.domain.commit.CommitPage;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.participants.Participants;
+import com.cdancy.bitbucket.rest.domain.participants.ParticipantsPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.ChangePage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.MergeStatus;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequestPage;
+import com.cdancy.bitbucket.rest.options.CreateParticipants;
+import com.cdancy.bitbucket.rest.options.CreatePullRequest;
+import com.cdancy.bitbucket.rest.options.EditPullRequest;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.PullRequestApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface PullRequestAsyncApi {
+
+    @Named("pull-request:get")
+    CompletableFuture<PullRequest> get(String project,
+                                       String repo,
+                                       int pullRequestId);
+
+    @Named("pull-request:list")
+    CompletableFuture<PullRequestPage> list(String project,
+                                            String repo,
+                                            @Nullable String direction,
+                                            @Nullable String branchOrTag,
+                                            @Nullable String state,
+                                            @Nullable String order,
+                                            @Nullable Boolean withAttributes,
+                                            @Nullable Boolean withProperties,
+                                            @Nullable Integer start,
+                                            @Nullable Integer limit);
+
+    @Named("pull-request:create")
+    CompletableFuture<PullRequest> create(String project,
+                                          String repo,
+                                          CreatePullRequest createPullRequest);
+
+    @Named("pull-request:edit")
+    CompletableFuture<PullRequest> edit(String project,
+                                        String repo,
+                                        int pullRequestId,
+                                        EditPullRequest editPullRequest);
+
+    @Named("pull-request:delete")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo,
+                                            long pullRequestId,
+                                            long version);
+
+    @Named("pull-request:merge")
+    CompletableFuture<PullRequest> merge(String project,
+                                         String repo,
+                                         int pullRequestId,
+                                         int version);
+
+    @Named("pull-request:can-merge")
+    CompletableFuture<MergeStatus> canMerge(String project,
+                                            String repo,
+                                            int pullRequestId);
+
+    @Named("pull-request:decline")
+    CompletableFuture<PullRequest> decline(String project,
+                                           String repo,
+                                           int pullRequestId,
+                                           int version);
+
+    @Named("pull-request:reopen")
+    CompletableFuture<PullRequest> reopen(String project,
+                                          String repo,
+                                          int pullRequestId,
+                                          int version);
+
+    @Named("pull-request:changes")
+    CompletableFuture<ChangePage> changes(String project,
+                                          String repo,
+                                          int pullRequestId,
+                                          @Nullable Boolean withComments,
+                                          @Nullable Integer limit,
+                                          @Nullable Integer start);
+
+    @Named("pull-request:commits")
+    CompletableFuture<CommitPage> commits(String project,
+                                          String repo,
+                                          int pullRequestId,
+                                          @Nullable Boolean withCounts,
+                                          @Nullable Integer limit,
+                                          @Nullable Integer start);
+
+    @Named("pull-request:list-activities")
+    CompletableFuture<ActivitiesPage> listActivities(String project,
+                                                     String repo,
+                                                     long pullRequestId,
+                                                     @Nullable Integer limit,
+                                                     @Nullable Integer start);
+
+    @Named("pull-request:list-participants")
+    CompletableFuture<ParticipantsPage> listParticipants(String project,
+                                                         String repo,
+                                                         long pullRequestId,
+                                                         @Nullable Integer limit,
+                                                         @Nullable Integer start);
+
+    @Named("pull-request:assign-participants")
+    CompletableFuture<Participants> assignParticipant(String project,
+                                                      String repo,
+                                                      long pullRequestId,
+                                                      CreateParticipants participants);
+
+    @Named("pull-request:delete-participants")
+    CompletableFuture<RequestStatus> deleteParticipant(String project,
+                                                       String repo,
+                                                       long pullRequestId,
+                                                       String userSlug);
+
+    @Named("pull-request:add-participant")
+    CompletableFuture<Participants> addParticipant(String project,
+                                                   String repo,
+                                                   long pullRequestId,
+                                                   String userSlug,
+                                                   CreateParticipants participants);
+}
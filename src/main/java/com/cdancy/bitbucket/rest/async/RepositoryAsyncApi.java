@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.labels.LabelsPage;
+import com.cdancy.bitbucket.rest.domain.repository.PermissionsPage;
+import com.cdancy.bitbucket.rest.domain.repository.PullRequestSettings;
+import com.cdancy.bitbucket.rest.domain.repository.Repository;
+import com.cdancy.bitbucket.rest.domain.repository.RepositoryPage;
+import com.cdancy.bitbucket.rest.options.CreatePullRequestSettings;
+import com.cdancy.bitbucket.rest.options.CreateRepository;
+import com.google.inject.name.Named;
+
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.RepositoryApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface RepositoryAsyncApi {
+
+    @Named("repository:create")
+    CompletableFuture<Repository> create(String project,
+                                         CreateRepository createRepository);
+
+    @Named("repository:get")
+    CompletableFuture<Repository> get(String project,
+                                      String repo);
+
+    @Named("repository:fork")
+    CompletableFuture<Repository> fork(String project,
+                                       String repo,
+                                       String newProject,
+                                       String newRepo);
+
+    @Named("repository:delete")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo);
+
+    @Named("repository:list")
+    CompletableFuture<RepositoryPage> list(String project,
+                                           @Nullable Integer start,
+                                           @Nullable Integer limit);
+
+    @Named("repository:list-all")
+    CompletableFuture<RepositoryPage> listAll(@Nullable String project,
+                                              @Nullable String repo,
+                                              @Nullable String permission,
+                                              @Nullable String visibility,
+                                              @Nullable Integer start,
+                                              @Nullable Integer limit);
+
+    @Named("repository:get-pullrequest-settings")
+    CompletableFuture<PullRequestSettings> getPullRequestSettings(String project,
+                                                                  String repo);
+
+    @Named("repository:update-pullrequest-settings")
+    CompletableFuture<PullRequestSettings> updatePullRequestSettings(String project,
+                                                                     String repo,
+                                                                     CreatePullRequestSettings createPullRequestSettings);
+
+    @Named("repository:create-permissions-by-user")
+    CompletableFuture<RequestStatus> createPermissionsByUser(String project,
+                                                             String repo,
+                                                             String permission,
+                                                             String name);
+
+    @Named("repository:delete-permissions-by-user")
+    CompletableFuture<RequestStatus> deletePermissionsByUser(String project,
+                                                             String repo,
+                                                             String name);
+
+    @Named("repository:list-permissions-by-user")
+    CompletableFuture<PermissionsPage> listPermissionsByUser(String project,
+                                                             String repo,
+                                                             @Nullable Integer start,
+                                                             @Nullable Integer limit);
+
+    @Named("repository:create-permissions-by-group")
+    CompletableFuture<RequestStatus> createPermissionsByGroup(String project,
+                                                              String repo,
+                                                              String permission,
+                                                              String name);
+
+    @Named("repository:delete-permissions-by-group")
+    CompletableFuture<RequestStatus> deletePermissionsByGroup(String project,
+                                                              String repo,
+                                                              String name);
+
+    @Named("repository:list-permissions-by-group")
+    CompletableFuture<PermissionsPage> listPermissionsByGroup(String project,
+                                                              String repo,
+                                                              @Nullable Integer start,
+                                                              @Nullable Integer limit);
+
+    @Named("repository:getLabels")
+    CompletableFuture<LabelsPage> getLabels(String project,
+                                            String repo);
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.comment.Task;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.options.CreateTask;
+
+import jakarta.inject.Named;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.TasksApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface TasksAsyncApi {
+
+    @Named("tasks:create")
+    CompletableFuture<Task> create(CreateTask createTask);
+
+    @Named("tasks:update")
+    CompletableFuture<Task> update(int taskId,
+                                   String state);
+
+    @Named("tasks:get")
+    CompletableFuture<Task> get(int taskId);
+
+    @Named("tasks:delete")
+    CompletableFuture<RequestStatus> delete(int taskId);
+}
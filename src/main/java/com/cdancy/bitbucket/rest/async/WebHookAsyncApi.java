@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.async;
+
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.domain.repository.WebHook;
+import com.cdancy.bitbucket.rest.domain.repository.WebHookPage;
+import com.cdancy.bitbucket.rest.options.CreateWebHook;
+import com.google.inject.name.Named;
+
+import java.util.concurrent.CompletableFuture;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Asynchronous variant of {@link com.cdancy.bitbucket.rest.features.WebHookApi}.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public interface WebHookAsyncApi {
+
+    @Named("webhook:list-webhook")
+    CompletableFuture<WebHookPage> list(String project,
+                                        String repo,
+                                        @Nullable Integer start,
+                                        @Nullable Integer limit);
+
+    @Named("webhook:get-webhook")
+    CompletableFuture<WebHook> get(String project,
+                                   String repo,
+                                   String webHookKey);
+
+    @Named("webhook:create-webhook")
+    CompletableFuture<WebHook> create(String project,
+                                      String repo,
+                                      CreateWebHook webHook);
+
+    @Named("webhook:update-webhook")
+    CompletableFuture<WebHook> update(String project,
+                                      String repo,
+                                      String webHookKey,
+                                      CreateWebHook webHook);
+
+    @Named("webhook:delete-webhook")
+    CompletableFuture<RequestStatus> delete(String project,
+                                            String repo,
+                                            String webHookKey);
+}
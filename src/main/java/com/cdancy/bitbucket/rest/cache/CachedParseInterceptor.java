@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpResponse;
+
+/**
+ * Intercepts `ParseJson.apply(HttpResponse)` on behalf of the
+ * {@link ConditionalCacheModule} such that the body of a cached response is
+ * only ever parsed once, with every response revalidated by a `304 Not
+ * Modified` being handed that same, immutable, domain object.
+ */
+final class CachedParseInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpResponse response = (HttpResponse) invocation.getArguments()[0];
+        if (response == null || !(response.getPayload() instanceof CachedResponse.Payload)) {
+            return invocation.proceed();
+        }
+
+        final CachedResponse cached = ((CachedResponse.Payload) response.getPayload()).response();
+        final Object parsed = cached.parsed();
+        if (parsed != null) {
+            return parsed;
+        }
+        final Object result = invocation.proceed();
+        if (Projection.current() == null) {
+            // a projected result lacks fields later responses may need
+            cached.parsed(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.payloads.ByteArrayPayload;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * A buffered GET response along with its validators and, once parsed, the
+ * domain object parsed from it. Each call to {@link #toResponse()} hands out
+ * a fresh HttpResponse whose {@link Payload} leads back to this instance so
+ * the {@link CachedParseInterceptor} is able to skip parsing.
+ */
+final class CachedResponse {
+
+    private final int statusCode;
+    private final String message;
+    private final Multimap<String, String> headers;
+    private final String contentType;
+    private final byte[] body;
+    private final String etag;
+    private final String lastModified;
+    private volatile Object parsed;
+
+    CachedResponse(final HttpResponse response,
+            final byte[] body,
+            @Nullable final String etag,
+            @Nullable final String lastModified) {
+        this.statusCode = response.getStatusCode();
+        this.message = response.getMessage();
+        this.headers = ImmutableMultimap.copyOf(response.getHeaders());
+        this.contentType = response.getPayload().getContentMetadata().getContentType();
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    @Nullable
+    String etag() {
+        return etag;
+    }
+
+    @Nullable
+    String lastModified() {
+        return lastModified;
+    }
+
+    @Nullable
+    Object parsed() {
+        return parsed;
+    }
+
+    void parsed(final Object parsed) {
+        this.parsed = parsed;
+    }
+
+    int weight() {
+        return body.length;
+    }
+
+    HttpResponse toResponse() {
+        final Payload payload = new Payload(this);
+        payload.getContentMetadata().setContentType(contentType);
+        return HttpResponse.builder()
+                .statusCode(statusCode)
+                .message(message)
+                .headers(headers)
+                .payload(payload)
+                .build();
+    }
+
+    /**
+     * Payload replaying the cached body.
+     */
+    static final class Payload extends ByteArrayPayload {
+
+        private final CachedResponse response;
+
+        Payload(final CachedResponse response) {
+            super(response.body);
+            this.response = response;
+        }
+
+        CachedResponse response() {
+            return response;
+        }
+    }
+}
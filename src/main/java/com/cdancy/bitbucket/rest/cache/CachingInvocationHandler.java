@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.cdancy.bitbucket.rest.ForwardingInvocationHandler;
+import com.cdancy.bitbucket.rest.domain.common.ErrorsHolder;
+import com.cdancy.bitbucket.rest.projection.Projection;
+import com.cdancy.bitbucket.rest.tracing.Span;
+import com.google.common.collect.Lists;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PathParam;
+
+/**
+ * Fronts a feature api on behalf of a {@link ResponseCache}, serving GET
+ * operations given a ttl from the cache and having every other operation
+ * invalidate the reads of its scope once done.
+ */
+final class CachingInvocationHandler extends ForwardingInvocationHandler {
+
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final ConcurrentMap<Method, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final ResponseCache cache;
+    private final Class<?> apiType;
+
+    CachingInvocationHandler(final ResponseCache cache, final Class<?> apiType, final Object api) {
+        super(api);
+        this.cache = cache;
+        this.apiType = apiType;
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final Operation operation = OPERATIONS.computeIfAbsent(method, Operation::new);
+        if (!operation.read) {
+            try {
+                return invokeDelegate(method, args);
+            } finally {
+                cache.invalidate(operation.scope(apiType, args));
+            }
+        }
+
+        final Duration ttl = cache.ttl(operation.id);
+        if (ttl == null) {
+            return invokeDelegate(method, args);
+        }
+
+        final List<Object> key = Lists.asList(operation.id, args != null ? args : NO_ARGS);
+        final Object cached = cache.get(key);
+        final Span span = Span.current();
+        if (span != null) {
+            span.attribute("cache", cached != null ? "hit" : "miss");
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        final long generation = cache.generation();
+        final Object result = invokeDelegate(method, args);
+        if (result != null && !(result instanceof ErrorsHolder && !((ErrorsHolder) result).errors().isEmpty())
+                && Projection.current() == null) {
+            cache.put(key, result, ttl, operation.scope(apiType, args), generation);
+        }
+        return result;
+    }
+
+    /**
+     * What the cache needs to know about an api method: its id, whether it
+     * only reads, and which of its arguments are the project and repository.
+     */
+    private static final class Operation {
+
+        final String id;
+        final boolean read;
+        final int projectIndex;
+        final int repoIndex;
+
+        Operation(final Method method) {
+            this.id = BitbucketUtils.operationId(method);
+            this.read = method.isAnnotationPresent(GET.class);
+            this.projectIndex = pathParamIndex(method, "project");
+            this.repoIndex = pathParamIndex(method, "repo");
+        }
+
+        ResponseCache.Scope scope(final Class<?> apiType, final Object[] args) {
+            return new ResponseCache.Scope(apiType, argument(args, projectIndex), argument(args, repoIndex));
+        }
+
+        private static String argument(final Object[] args, final int index) {
+            return index >= 0 && args[index] != null ? args[index].toString() : null;
+        }
+
+        private static int pathParamIndex(final Method method, final String name) {
+            final Annotation[][] annotations = method.getParameterAnnotations();
+            for (int i = 0; i < annotations.length; i++) {
+                for (final Annotation annotation : annotations[i]) {
+                    if (annotation instanceof PathParam && name.equals(((PathParam) annotation).value())) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Opt-in module revalidating, rather than re-downloading, GET responses
+ * Bitbucket handed out an `ETag` or `Last-Modified` validator for. Repeated
+ * GETs of the same operation and URI carry `If-None-Match`/`If-Modified-Since`
+ * and, when answered with `304 Not Modified`, are served the domain object
+ * parsed from the cached response instead of downloading and parsing the
+ * JSON again. Pass it along when building a client:
+ *
+ * <pre>
+ * BitbucketClient.builder().modules(new ConditionalCacheModule()).build();
+ * </pre>
+ *
+ * <p>As every request still goes out, nothing stale is ever served. Works
+ * with any transport, including the {@link com.cdancy.bitbucket.rest.config.JavaHttpClientModule},
+ * as it intercepts the bound HttpCommandExecutorService rather than
+ * replacing it. Every client built with this module has a cache of its own.
+ */
+public class ConditionalCacheModule extends AbstractModule {
+
+    static final long DEFAULT_MAXIMUM_BYTES = 32L * 1024 * 1024;
+
+    private final long maximumBytes;
+
+    /**
+     * Create a module caching up to 32MB of response bodies.
+     */
+    public ConditionalCacheModule() {
+        this(DEFAULT_MAXIMUM_BYTES);
+    }
+
+    private ConditionalCacheModule(final long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether the passed payload replays a response cached by a
+     * ConditionalCacheModule. Such a payload must reach parsing as is for
+     * its body to be parsed only once, so modules wrapping the payloads of
+     * responses, e.g. to meter them, leave it alone.
+     *
+     * @param payload the payload of a response.
+     * @return true if the payload replays a cached response.
+     */
+    public static boolean isCached(@Nullable final Payload payload) {
+        return payload instanceof CachedResponse.Payload;
+    }
+
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                new ConditionalRequestInterceptor(maximumBytes));
+        bindInterceptor(Matchers.subclassesOf(ParseJson.class),
+                methodMatcher("apply", HttpResponse.class),
+                new CachedParseInterceptor());
+    }
+
+    public static class Builder {
+
+        private long maximumBytes = DEFAULT_MAXIMUM_BYTES;
+
+        /**
+         * Maximum number of bytes of response bodies to cache, beyond which
+         * the least recently used responses are evicted. Defaults to 32MB.
+         *
+         * @param maximumBytes maximum size of the cache in bytes.
+         * @return this Builder.
+         */
+        public Builder maximumBytes(final long maximumBytes) {
+            checkArgument(maximumBytes > 0, "maximumBytes must be greater than 0");
+            this.maximumBytes = maximumBytes;
+            return this;
+        }
+
+        /**
+         * Build an instance of ConditionalCacheModule.
+         *
+         * @return ConditionalCacheModule
+         */
+        public ConditionalCacheModule build() {
+            return new ConditionalCacheModule(maximumBytes);
+        }
+    }
+}
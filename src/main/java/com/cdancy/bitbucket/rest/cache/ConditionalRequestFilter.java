@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.google.common.net.HttpHeaders;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+
+/**
+ * Makes a GET conditional on the validators of the response cached for it,
+ * running after the filters declared on the api (e.g. the
+ * BitbucketAuthenticationFilter).
+ */
+final class ConditionalRequestFilter implements HttpRequestFilter {
+
+    private final CachedResponse cached;
+
+    ConditionalRequestFilter(final CachedResponse cached) {
+        this.cached = cached;
+    }
+
+    @Override
+    public HttpRequest filter(final HttpRequest request) throws HttpException {
+        final HttpRequest.Builder<?> builder = request.toBuilder();
+        if (cached.etag() != null) {
+            builder.replaceHeader(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        }
+        if (cached.lastModified() != null) {
+            builder.replaceHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.HttpHeaders;
+
+import java.io.IOException;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link ConditionalCacheModule}. GET responses carrying a validator are
+ * buffered and cached, keyed by operation id and URI, while subsequent GETs
+ * of a cached response get a {@link ConditionalRequestFilter} appended to
+ * their filter chain. jclouds surfaces a `304 Not Modified` as an
+ * HttpResponseException which is swapped for the cached response here.
+ */
+final class ConditionalRequestInterceptor implements MethodInterceptor {
+
+    private static final String GET = "GET";
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+
+    private final Cache<String, CachedResponse> responses;
+
+    ConditionalRequestInterceptor(final long maximumBytes) {
+        this.responses = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((final String key, final CachedResponse response) -> response.weight())
+                .build();
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpCommand command = (HttpCommand) invocation.getArguments()[0];
+        final HttpRequest request = command.getCurrentRequest();
+        if (!GET.equals(request.getMethod()) || !(request instanceof GeneratedHttpRequest)) {
+            return invocation.proceed();
+        }
+
+        final String key = BitbucketUtils.operationId(((GeneratedHttpRequest) request).getInvocation().getInvokable())
+                + " " + request.getEndpoint();
+        final CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            command.setCurrentRequest(request.toBuilder().filter(new ConditionalRequestFilter(cached)).build());
+        }
+
+        final HttpResponse response;
+        try {
+            response = (HttpResponse) invocation.proceed();
+        } catch (final HttpResponseException e) {
+            if (cached != null && e.getResponse() != null && e.getResponse().getStatusCode() == NOT_MODIFIED) {
+                command.setException(null);
+                return cached.toResponse();
+            }
+            responses.invalidate(key);
+            throw e;
+        }
+        return cache(key, response);
+    }
+
+    private HttpResponse cache(final String key, final HttpResponse response) throws IOException {
+        final String etag = response.getFirstHeaderOrNull(HttpHeaders.ETAG);
+        final String lastModified = response.getFirstHeaderOrNull(HttpHeaders.LAST_MODIFIED);
+        if (response.getStatusCode() != OK
+                || response.getPayload() == null
+                || (etag == null && lastModified == null)) {
+            responses.invalidate(key);
+            return response;
+        }
+
+        final byte[] body = ByteStreams2.toByteArrayAndClose(response.getPayload().openStream());
+        final CachedResponse cached = new CachedResponse(response, body, etag, lastModified);
+        responses.put(key, cached);
+        return cached.toResponse();
+    }
+}
@@ -0,0 +1,565 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.google.common.hash.Hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Persistent store of response bodies backing the {@link DiskCacheModule}.
+ *
+ * <p>Records are only ever appended to segment files, `segment-NNNNNNNN.dat`,
+ * each holding its key, content type, body and a CRC32 over all of them. A
+ * new segment is started once the current one is full. Records are found
+ * through `index.dat`, a memory-mapped open addressing hash table of
+ * 32 byte slots (key hash, segment, offset, length and last access) which
+ * is rebuilt from the segments should it be missing or damaged.
+ *
+ * <p>Once the segments hold more than the maximum number of bytes the
+ * least recently used segment, that is the one whose most recently read or
+ * written record is the oldest, is deleted along with its slots. Reads
+ * verify the key and checksum of the record they land on, so a torn write
+ * or stale slot is merely a miss.
+ *
+ * <p>A directory is locked by the process using it. Within that process
+ * {@link #open(Path, long)} hands out the same instance to everyone asking
+ * for the same directory, which is only closed once all of them closed it.
+ */
+final class DiskCache implements Closeable {
+
+    static final String INDEX_FILE = "index.dat";
+    static final String LOCK_FILE = "cache.lock";
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{8})\\.dat");
+    private static final int INDEX_MAGIC = 0x42424358;
+    private static final int RECORD_MAGIC = 0x42424352;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 32;
+    private static final int MINIMUM_CAPACITY = 1024;
+    private static final long EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+
+    // record layout: magic, key length, key, content type length, content type, body length, body, crc
+    private static final int RECORD_OVERHEAD = 4 * Integer.BYTES;
+
+    // caches open within this JVM by directory, along with how many opened each
+    private static final Map<Path, DiskCache> OPEN = new HashMap<>();
+
+    private final Path directory;
+    private final long maximumBytes;
+    private final long segmentBytes;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    private MappedByteBuffer index;
+    private int capacity;
+    private int occupied;
+    private long clock;
+    private long totalBytes;
+    private Segment active;
+    private int references;
+
+    /**
+     * Open the cache kept in the passed directory, or share the one already
+     * open within this JVM in which case its maximum size stays as is.
+     *
+     * @param directory the cache directory, created if need be.
+     * @param maximumBytes maximum number of bytes to keep on disk.
+     * @return the cache, to be closed once no longer used.
+     * @throws IOException if the cache could not be opened.
+     */
+    static DiskCache open(final Path directory, final long maximumBytes) throws IOException {
+        final Path normalized = directory.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            DiskCache cache = OPEN.get(normalized);
+            if (cache == null) {
+                cache = new DiskCache(normalized, maximumBytes);
+                OPEN.put(normalized, cache);
+            }
+            cache.references++;
+            return cache;
+        }
+    }
+
+    DiskCache(final Path directory, final long maximumBytes) throws IOException {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.segmentBytes = Math.max(1L << 20, Math.min(64L << 20, maximumBytes / 8));
+
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Cache directory " + directory + " is in use by another process");
+        }
+        this.lock = acquired;
+
+        try {
+            openSegments();
+            if (!loadIndex()) {
+                rebuildIndex();
+            }
+            evictIfNeeded();
+        } catch (final IOException | RuntimeException e) {
+            closeFiles();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the cached record for the passed key.
+     *
+     * @param key the key the record was put under.
+     * @return the record or null if not cached.
+     */
+    @Nullable
+    Record get(final String key) {
+        final long hash = hash(key);
+        final Segment segment;
+        final long offset;
+        final int length;
+        synchronized (this) {
+            final int slot = find(hash);
+            if (slot < 0) {
+                return null;
+            }
+            segment = segments.get(index.getInt(slotPosition(slot) + 8));
+            offset = index.getLong(slotPosition(slot) + 16);
+            length = index.getInt(slotPosition(slot) + 12);
+            if (segment == null) {
+                return null;
+            }
+            clock++;
+            index.putLong(slotPosition(slot) + 24, clock);
+            index.putLong(24, clock);
+            segment.lastAccess = clock;
+        }
+
+        try {
+            final Record record = segment.read(offset, length);
+            return record != null && record.key.equals(key) ? record : null;
+        } catch (final IOException e) {
+            // segment evicted, or damaged, in the meantime
+            return null;
+        }
+    }
+
+    /**
+     * Append a record, replacing any previously put under the same key.
+     *
+     * @param key the key to put the record under.
+     * @param contentType the content type of the body.
+     * @param body the body.
+     * @throws IOException if the record could not be written.
+     */
+    synchronized void put(final String key, @Nullable final String contentType, final byte[] body) throws IOException {
+        final ByteBuffer record = encode(key, contentType, body);
+        if (record.remaining() > maximumBytes) {
+            return;
+        }
+        if (active == null || active.size + record.remaining() > segmentBytes) {
+            active = newSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        }
+
+        final long offset = active.size;
+        final int length = record.remaining();
+        active.write(record, offset);
+        totalBytes += length;
+        clock++;
+        active.lastAccess = clock;
+        index.putLong(24, clock);
+        insert(hash(key), active.id, offset, length, clock);
+
+        evictIfNeeded();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN) {
+            if (references > 1) {
+                references--;
+                return;
+            }
+            references = 0;
+            OPEN.remove(directory, this);
+        }
+        closeFiles();
+    }
+
+    private synchronized void closeFiles() throws IOException {
+        for (final Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+        if (index != null) {
+            index.force();
+        }
+        if (lock != null) {
+            lock.release();
+        }
+        lockChannel.close();
+    }
+
+    private void openSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                final Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    totalBytes += newSegment(Integer.parseInt(matcher.group(1))).size;
+                }
+            }
+        }
+        if (!segments.isEmpty() && segments.lastEntry().getValue().size < segmentBytes) {
+            active = segments.lastEntry().getValue();
+        }
+    }
+
+    private boolean loadIndex() throws IOException {
+        final Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            final int savedCapacity = header.getInt(4);
+            if (header.getInt(0) != INDEX_MAGIC
+                    || Integer.bitCount(savedCapacity) != 1
+                    || channel.size() != HEADER_BYTES + (long) savedCapacity * SLOT_BYTES) {
+                return false;
+            }
+            this.index = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            this.capacity = savedCapacity;
+            this.occupied = index.getInt(8);
+            this.clock = index.getLong(24);
+        }
+
+        // slots may point at segments deleted before a crash
+        for (int slot = 0; slot < capacity; slot++) {
+            final int position = slotPosition(slot);
+            if (index.getLong(position) != EMPTY && index.getInt(position + 8) != TOMBSTONE) {
+                final Segment segment = segments.get(index.getInt(position + 8));
+                if (segment == null) {
+                    index.putInt(position + 8, TOMBSTONE);
+                } else {
+                    segment.lastAccess = Math.max(segment.lastAccess, index.getLong(position + 24));
+                }
+            }
+        }
+        return true;
+    }
+
+    private void rebuildIndex() throws IOException {
+        createIndex(MINIMUM_CAPACITY);
+        for (final Segment segment : segments.values()) {
+            long offset = 0;
+            while (offset < segment.size) {
+                final int length = segment.recordLength(offset);
+                final Record record = length > 0 ? segment.read(offset, length) : null;
+                if (record == null) {
+                    // torn write at the tail, drop it
+                    segment.truncate(offset);
+                    break;
+                }
+                clock++;
+                insert(hash(record.key), segment.id, offset, length, clock);
+                offset += length;
+            }
+            segment.lastAccess = clock;
+        }
+        totalBytes = segments.values().stream().mapToLong(segment -> segment.size).sum();
+        index.putLong(24, clock);
+    }
+
+    private void createIndex(final int newCapacity) throws IOException {
+        final Path file = directory.resolve(INDEX_FILE);
+        final Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        final MappedByteBuffer created;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            created = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) newCapacity * SLOT_BYTES);
+        }
+        created.putInt(0, INDEX_MAGIC);
+        created.putInt(4, newCapacity);
+        created.putInt(8, 0);
+        created.putLong(24, clock);
+
+        final MappedByteBuffer previous = index;
+        final int previousCapacity = capacity;
+        index = created;
+        capacity = newCapacity;
+        occupied = 0;
+        if (previous != null) {
+            for (int slot = 0; slot < previousCapacity; slot++) {
+                final int position = HEADER_BYTES + slot * SLOT_BYTES;
+                final long hash = previous.getLong(position);
+                final int segment = previous.getInt(position + 8);
+                if (hash != EMPTY && segment != TOMBSTONE) {
+                    insert(hash, segment, previous.getLong(position + 16),
+                            previous.getInt(position + 12), previous.getLong(position + 24));
+                }
+            }
+        }
+        created.force();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int find(final long hash) {
+        final int mask = capacity - 1;
+        for (int slot = (int) hash & mask, probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            final int position = slotPosition(slot);
+            final long slotHash = index.getLong(position);
+            if (slotHash == EMPTY) {
+                return -1;
+            }
+            if (slotHash == hash && index.getInt(position + 8) != TOMBSTONE) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(final long hash, final int segment, final long offset, final int length, final long access)
+            throws IOException {
+        if ((occupied + 1) * 4L > capacity * 3L) {
+            final int live = liveSlots();
+            createIndex(live * 2 >= capacity ? capacity * 2 : capacity);
+        }
+
+        final int existing = find(hash);
+        int slot = existing;
+        if (slot < 0) {
+            final int mask = capacity - 1;
+            slot = (int) hash & mask;
+            while (index.getLong(slotPosition(slot)) != EMPTY
+                    && index.getInt(slotPosition(slot) + 8) != TOMBSTONE) {
+                slot = (slot + 1) & mask;
+            }
+            if (index.getLong(slotPosition(slot)) == EMPTY) {
+                occupied++;
+                index.putInt(8, occupied);
+            }
+        }
+        final int position = slotPosition(slot);
+        index.putLong(position, hash);
+        index.putInt(position + 8, segment);
+        index.putInt(position + 12, length);
+        index.putLong(position + 16, offset);
+        index.putLong(position + 24, access);
+    }
+
+    private int liveSlots() {
+        int live = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            final int position = slotPosition(slot);
+            if (index.getLong(position) != EMPTY && index.getInt(position + 8) != TOMBSTONE) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private void evictIfNeeded() throws IOException {
+        while (totalBytes > maximumBytes && segments.size() > 1) {
+            Segment eldest = null;
+            for (final Segment segment : segments.values()) {
+                if (segment != active && (eldest == null || segment.lastAccess < eldest.lastAccess)) {
+                    eldest = segment;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            segments.remove(eldest.id);
+            totalBytes -= eldest.size;
+            for (int slot = 0; slot < capacity; slot++) {
+                final int position = slotPosition(slot);
+                if (index.getLong(position) != EMPTY && index.getInt(position + 8) == eldest.id) {
+                    index.putInt(position + 8, TOMBSTONE);
+                }
+            }
+            eldest.channel.close();
+            Files.deleteIfExists(eldest.file);
+        }
+    }
+
+    private Segment newSegment(final int id) throws IOException {
+        final Segment segment = new Segment(id, directory.resolve(String.format("segment-%08d.dat", id)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static int slotPosition(final int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static long hash(final String key) {
+        final long hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static ByteBuffer encode(final String key, @Nullable final String contentType, final byte[] body) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] typeBytes = contentType != null
+                ? contentType.getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_OVERHEAD + Integer.BYTES
+                + keyBytes.length + typeBytes.length + body.length);
+        buffer.putInt(RECORD_MAGIC)
+                .putInt(keyBytes.length).put(keyBytes)
+                .putInt(typeBytes.length).put(typeBytes)
+                .putInt(body.length).put(body);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * A cached response body along with the key it was put under.
+     */
+    static final class Record {
+
+        final String key;
+        final String contentType;
+        final byte[] body;
+
+        Record(final String key, @Nullable final String contentType, final byte[] body) {
+            this.key = key;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private static final class Segment {
+
+        final int id;
+        final Path file;
+        final FileChannel channel;
+        long size;
+        long lastAccess;
+
+        Segment(final int id, final Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        void write(final ByteBuffer record, final long offset) throws IOException {
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            size = position;
+        }
+
+        void truncate(final long length) throws IOException {
+            channel.truncate(length);
+            size = length;
+        }
+
+        /**
+         * Length of the record starting at the passed offset, derived from
+         * its header, or -1 if there is no intact header.
+         */
+        int recordLength(final long offset) throws IOException {
+            final ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+            if (readFully(header, offset) < header.capacity() || header.getInt(0) != RECORD_MAGIC) {
+                return -1;
+            }
+            long position = offset + header.capacity() + header.getInt(4);
+            for (int field = 0; field < 2; field++) {
+                final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+                if (position < 0 || readFully(length, position) < Integer.BYTES || length.getInt(0) < 0) {
+                    return -1;
+                }
+                position += Integer.BYTES + length.getInt(0);
+            }
+            position += Integer.BYTES;
+            return position - offset > Integer.MAX_VALUE || position > size ? -1 : (int) (position - offset);
+        }
+
+        @Nullable
+        Record read(final long offset, final int length) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            if (length < RECORD_OVERHEAD + Integer.BYTES || readFully(buffer, offset) < length) {
+                return null;
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, length - Integer.BYTES);
+            if (buffer.getInt(0) != RECORD_MAGIC || buffer.getInt(length - Integer.BYTES) != (int) crc.getValue()) {
+                return null;
+            }
+
+            buffer.position(Integer.BYTES);
+            final String key = new String(readField(buffer), StandardCharsets.UTF_8);
+            final byte[] type = readField(buffer);
+            final byte[] body = readField(buffer);
+            return new Record(key, type.length > 0 ? new String(type, StandardCharsets.UTF_8) : null, body);
+        }
+
+        private int readFully(final ByteBuffer buffer, final long offset) throws IOException {
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            return buffer.position();
+        }
+
+        private static byte[] readField(final ByteBuffer buffer) {
+            final byte[] field = new byte[buffer.getInt()];
+            buffer.get(field);
+            return field;
+        }
+    }
+}
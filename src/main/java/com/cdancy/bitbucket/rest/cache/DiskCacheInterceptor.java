@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import com.cdancy.bitbucket.rest.BitbucketAuthentication;
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.Parameter;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.ByteArrayPayload;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link DiskCacheModule}. GETs of the configured operations whose
+ * revision arguments all are full commit or blob ids are answered from the
+ * {@link DiskCache} without going out at all, otherwise successful responses
+ * are buffered and written to it on their way back. Cached responses are
+ * kept apart per credential, as what a user may see differs.
+ */
+final class DiskCacheInterceptor implements MethodInterceptor {
+
+    private static final String GET = "GET";
+    private static final int OK = 200;
+
+    // a full SHA-1, or SHA-256, object id
+    private static final Pattern OBJECT_ID = Pattern.compile("[0-9a-fA-F]{40}([0-9a-fA-F]{24})?");
+
+    // path and query parameters naming the revision a response is for
+    private static final Set<String> REVISIONS = ImmutableSet.of("commitId", "at", "since", "until");
+
+    // revision parameters which, when left out, default to something mutable (e.g. the default branch)
+    private static final Set<String> REQUIRED_REVISIONS = ImmutableSet.of("commitId", "at");
+
+    private final Path directory;
+    private final long maximumBytes;
+    private final Set<String> operations;
+    private volatile DiskCache cache;
+    private volatile String credential;
+
+    DiskCacheInterceptor(final Path directory, final long maximumBytes, final Set<String> operations) {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.operations = ImmutableSet.copyOf(operations);
+    }
+
+    /**
+     * Open the cache once the injector is created, closing it along with
+     * the client it was created for.
+     *
+     * @param closer closes resources when the client is closed.
+     */
+    @Inject
+    void open(final Closer closer) {
+        try {
+            cache = DiskCache.open(directory, maximumBytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        closer.addToClose(cache);
+    }
+
+    /**
+     * Pick up the credential of the client this interceptor was created for.
+     *
+     * @param authentication the client's authentication.
+     */
+    @Inject
+    void credential(final BitbucketAuthentication authentication) {
+        credential = BitbucketUtils.credentialFingerprint(authentication);
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpCommand command = (HttpCommand) invocation.getArguments()[0];
+        final HttpRequest request = command.getCurrentRequest();
+        if (!GET.equals(request.getMethod()) || !(request instanceof GeneratedHttpRequest)) {
+            return invocation.proceed();
+        }
+        final Invocation apiInvocation = ((GeneratedHttpRequest) request).getInvocation();
+        final String operation = BitbucketUtils.operationId(apiInvocation.getInvokable());
+        if (!operations.contains(operation) || !immutable(apiInvocation)) {
+            return invocation.proceed();
+        }
+
+        final String key = operation + " " + credential + " " + request.getEndpoint();
+        final DiskCache.Record record = cache.get(key);
+        if (record != null) {
+            return response(record.contentType, record.body);
+        }
+
+        final HttpResponse response = (HttpResponse) invocation.proceed();
+        if (response.getStatusCode() != OK || response.getPayload() == null) {
+            return response;
+        }
+
+        final Payload payload = response.getPayload();
+        final String contentType = payload.getContentMetadata().getContentType();
+        final byte[] body = ByteStreams2.toByteArrayAndClose(payload.openStream());
+        try {
+            cache.put(key, contentType, body);
+        } catch (final IOException e) {
+            // the cache is best effort, failing to write to it must not fail the request
+        }
+        return response.toBuilder().payload(payload(contentType, body)).build();
+    }
+
+    // immutable if the revision arguments of the call name full object ids only, whatever else its URI holds
+    private static boolean immutable(final Invocation invocation) {
+        final List<Parameter> parameters = invocation.getInvokable().getParameters();
+        final List<Object> args = invocation.getArgs();
+        boolean revisioned = false;
+        for (int i = 0; i < parameters.size() && i < args.size(); i++) {
+            final String name = revisionName(parameters.get(i));
+            if (name == null) {
+                continue;
+            }
+            final Object value = args.get(i);
+            if (value == null) {
+                if (REQUIRED_REVISIONS.contains(name)) {
+                    return false;
+                }
+            } else if (OBJECT_ID.matcher(value.toString()).matches()) {
+                revisioned = true;
+            } else {
+                return false;
+            }
+        }
+        return revisioned;
+    }
+
+    @Nullable
+    private static String revisionName(final Parameter parameter) {
+        final PathParam pathParam = parameter.getAnnotation(PathParam.class);
+        if (pathParam != null) {
+            return REVISIONS.contains(pathParam.value()) ? pathParam.value() : null;
+        }
+        final QueryParam queryParam = parameter.getAnnotation(QueryParam.class);
+        return queryParam != null && REVISIONS.contains(queryParam.value())
+                ? queryParam.value()
+                : null;
+    }
+
+    private static HttpResponse response(final String contentType, final byte[] body) {
+        return HttpResponse.builder()
+                .statusCode(OK)
+                .message("OK")
+                .payload(payload(contentType, body))
+                .build();
+    }
+
+    private static Payload payload(final String contentType, final byte[] body) {
+        final Payload payload = new ByteArrayPayload(body);
+        payload.getContentMetadata().setContentType(contentType);
+        return payload;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+
+/**
+ * Opt-in module persisting the responses of GETs which can never change to
+ * a directory on disk, such that they survive restarts. A GET is only ever
+ * cached when its operation is one of those configured, by default getting
+ * a commit, listing its changes and fetching file content or lines, and
+ * its revision arguments, i.e. those passed as `commitId`, `at`, `since` or
+ * `until`, all are full 40 (or 64) character commit or blob ids. Anything
+ * addressed by branch, tag or abbreviated id, or by the default branch, always
+ * goes out. Pass it along when building a client:
+ *
+ * <pre>
+ * BitbucketClient.builder()
+ *     .modules(DiskCacheModule.builder().directory(Paths.get("/var/cache/bitbucket")).build())
+ *     .build();
+ * </pre>
+ *
+ * <p>Cached responses are served without any request to the server, and
+ * are parsed again when read. They are kept apart per credential. Clients
+ * within the same JVM, e.g. those of a {@link com.cdancy.bitbucket.rest.BitbucketClientPool}
+ * passed this module, share the cache of a directory, whereas other
+ * processes can not use it for as long as any of those clients is open.
+ */
+public class DiskCacheModule extends AbstractModule {
+
+    static final long DEFAULT_MAXIMUM_BYTES = 1024L * 1024 * 1024;
+    static final Set<String> DEFAULT_OPERATIONS = ImmutableSet.of(
+            "commits:get", "commits:list-changes", "file:raw-content", "file:list-lines");
+
+    private final Path directory;
+    private final long maximumBytes;
+    private final Set<String> operations;
+
+    private DiskCacheModule(final Path directory, final long maximumBytes, final Set<String> operations) {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.operations = operations;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    protected void configure() {
+        final DiskCacheInterceptor interceptor = new DiskCacheInterceptor(directory, maximumBytes, operations);
+        requestInjection(interceptor);
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                interceptor);
+    }
+
+    public static class Builder {
+
+        private Path directory;
+        private long maximumBytes = DEFAULT_MAXIMUM_BYTES;
+        private Set<String> operations = DEFAULT_OPERATIONS;
+
+        /**
+         * Directory to keep the cache in, created if need be. Required.
+         *
+         * @param directory the cache directory.
+         * @return this Builder.
+         */
+        public Builder directory(final Path directory) {
+            this.directory = Objects.requireNonNull(directory);
+            return this;
+        }
+
+        /**
+         * Maximum number of bytes to keep on disk, beyond which the least
+         * recently used responses are evicted. Defaults to 1GB.
+         *
+         * @param maximumBytes maximum size of the cache in bytes.
+         * @return this Builder.
+         */
+        public Builder maximumBytes(final long maximumBytes) {
+            checkArgument(maximumBytes > 0, "maximumBytes must be greater than 0");
+            this.maximumBytes = maximumBytes;
+            return this;
+        }
+
+        /**
+         * Ids, as in the `@Named` annotation, of the operations to cache.
+         * Defaults to `commits:get`, `commits:list-changes`, `file:raw-content`
+         * and `file:list-lines`. Only operations whose response is fully
+         * determined by their `commitId`, `at`, `since` or `until` argument
+         * should be passed.
+         *
+         * @param operations ids of the operations to cache.
+         * @return this Builder.
+         */
+        public Builder operations(final String... operations) {
+            this.operations = ImmutableSet.copyOf(operations);
+            return this;
+        }
+
+        /**
+         * Build an instance of DiskCacheModule.
+         *
+         * @return DiskCacheModule
+         */
+        public DiskCacheModule build() {
+            checkState(directory != null, "directory must be set");
+            return new DiskCacheModule(directory, maximumBytes, operations);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.cdancy.bitbucket.rest.domain.common.Page;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Client side cache of the domain objects handed back by GET operations,
+ * keyed by `@Named` operation id and arguments. Only operations given a
+ * time-to-live are cached, each for as long as its own, e.g.:
+ *
+ * <pre>
+ * ResponseCache cache = ResponseCache.builder()
+ *     .ttl("system:version", Duration.ofHours(6))
+ *     .ttl("repository:get", Duration.ofMinutes(5))
+ *     .ttl("pull-request:get", Duration.ofSeconds(10))
+ *     .build();
+ * BitbucketClient client = BitbucketClient.builder().responseCache(cache).build();
+ * </pre>
+ *
+ * <p>Every non-GET operation (e.g. `branch:create` or `repository:delete`)
+ * invalidates the cached reads it may have affected: those of the same
+ * project and repository or, for reads not scoped to either, those of the
+ * same feature api. Results holding errors are never cached.
+ *
+ * <p>The cache is bounded to a maximum number of values, where a cached
+ * page weighs as much as the values it holds, beyond which the least
+ * recently used entries are evicted. As cached objects are handed out as
+ * they are a cache must not be shared by clients authenticating as
+ * different users.
+ */
+public final class ResponseCache {
+
+    static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final Cache<List<Object>, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private ResponseCache(final Builder builder) {
+        this.ttls = ImmutableMap.copyOf(builder.ttls);
+        this.defaultTtl = builder.defaultTtl;
+
+        // entries expire individually, this merely drops the stale ones
+        Duration longestTtl = defaultTtl;
+        for (final Duration ttl : ttls.values()) {
+            longestTtl = ttl.compareTo(longestTtl) > 0 ? ttl : longestTtl;
+        }
+        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+                .maximumWeight(builder.maximumSize)
+                .weigher((final Object key, final Object entry) -> ((Entry) entry).weight)
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        evictions.increment();
+                    }
+                });
+        if (!longestTtl.isZero()) {
+            cacheBuilder.expireAfterWrite(longestTtl.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        this.entries = cacheBuilder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Front a feature api (e.g. `RepositoryApi`) with this cache, which is
+     * what {@link com.cdancy.bitbucket.rest.BitbucketClient.Builder#responseCache(ResponseCache)}
+     * does for every feature api of a client.
+     *
+     * @param <T> the feature api type.
+     * @param apiType the feature api interface.
+     * @param api the feature api to cache the results of.
+     * @return proxy implementing apiType.
+     */
+    public <T> T wrap(final Class<T> apiType, final T api) {
+        return apiType.cast(Proxy.newProxyInstance(apiType.getClassLoader(),
+                new Class<?>[]{apiType},
+                new CachingInvocationHandler(this, apiType, api)));
+    }
+
+    /**
+     * Snapshot of the number of hits, misses and evictions, the latter
+     * including entries dropped once expired, since this cache was built.
+     *
+     * @return statistics of this cache.
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, evictions.sum());
+    }
+
+    /**
+     * Approximate number of cached entries.
+     *
+     * @return number of cached entries.
+     */
+    public long size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop every cached entry.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    @Nullable
+    Duration ttl(final String operationId) {
+        final Duration ttl = ttls.getOrDefault(operationId, defaultTtl);
+        return ttl.isZero() ? null : ttl;
+    }
+
+    @Nullable
+    Object get(final List<Object> key) {
+        final Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+            if (entries.asMap().remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Number of invalidations so far, to be passed along when putting the
+     * result of a read started now.
+     */
+    long generation() {
+        return invalidations.get();
+    }
+
+    /**
+     * Cache the result of a read unless an invalidation happened while it
+     * was in flight, in which case it may predate the invalidating call.
+     */
+    void put(final List<Object> key, final Object value, final Duration ttl,
+            final Scope scope, final long generation) {
+        final Entry entry = new Entry(value, System.nanoTime() + ttl.toNanos(), scope);
+        if (invalidations.get() == generation) {
+            entries.put(key, entry);
+            if (invalidations.get() != generation) {
+                entries.asMap().remove(key, entry);
+            }
+        }
+    }
+
+    void invalidate(final Scope scope) {
+        invalidations.incrementAndGet();
+        entries.asMap().values().removeIf(entry -> entry.scope.invalidatedBy(scope));
+    }
+
+    /**
+     * The feature api, project and repository an operation works on.
+     */
+    static final class Scope {
+
+        private final Class<?> api;
+        private final String project;
+        private final String repo;
+
+        Scope(final Class<?> api, @Nullable final String project, @Nullable final String repo) {
+            this.api = api;
+            this.project = project;
+            this.repo = repo;
+        }
+
+        /**
+         * Whether a read of this scope may have been affected by a write
+         * of the passed one.
+         */
+        boolean invalidatedBy(final Scope write) {
+            if (project == null && repo == null) {
+                return api == write.api;
+            }
+            return matches(project, write.project) && matches(repo, write.repo);
+        }
+
+        private static boolean matches(@Nullable final String read, @Nullable final String write) {
+            return read == null || write == null || read.equalsIgnoreCase(write);
+        }
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final long expiresAtNanos;
+        final Scope scope;
+        final int weight;
+
+        Entry(final Object value, final long expiresAtNanos, final Scope scope) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.scope = scope;
+            this.weight = value instanceof Page
+                    ? ((Page<?>) value).values().size() + 1
+                    : 1;
+        }
+    }
+
+    public static class Builder {
+
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Duration defaultTtl = Duration.ZERO;
+        private final Map<String, Duration> ttls = new HashMap<>();
+
+        /**
+         * Maximum number of values to cache, where a cached page counts as
+         * each of the values it holds. Defaults to 10000.
+         *
+         * @param maximumSize maximum number of cached values.
+         * @return this Builder.
+         */
+        public Builder maximumSize(final long maximumSize) {
+            checkArgument(maximumSize > 0, "maximumSize must be greater than 0");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * How long to cache the results of the passed GET operation, by its
+         * `@Named` id (e.g. `repository:get`). A zero Duration disables
+         * caching of the operation, overriding any default.
+         *
+         * @param operationId id of the operation.
+         * @param ttl how long to cache results for.
+         * @return this Builder.
+         */
+        public Builder ttl(final String operationId, final Duration ttl) {
+            checkArgument(!ttl.isNegative(), "ttl must not be negative");
+            this.ttls.put(Objects.requireNonNull(operationId), ttl);
+            return this;
+        }
+
+        /**
+         * How long to cache the results of GET operations not given a ttl
+         * of their own. Defaults to zero, only caching those that are.
+         *
+         * @param defaultTtl how long to cache results for.
+         * @return this Builder.
+         */
+        public Builder defaultTtl(final Duration defaultTtl) {
+            checkArgument(!defaultTtl.isNegative(), "defaultTtl must not be negative");
+            this.defaultTtl = defaultTtl;
+            return this;
+        }
+
+        /**
+         * Build an instance of ResponseCache.
+         *
+         * @return ResponseCache
+         */
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
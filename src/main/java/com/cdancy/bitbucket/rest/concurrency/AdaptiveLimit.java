@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.concurrency;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AIMD limit on the number of requests in flight to a single endpoint, on
+ * behalf of the {@link ConcurrencyLimiter}. Each request completing in no
+ * more than `latencyTolerance` times the lowest latency seen for its
+ * operation raises the limit by `1 / limit`, so by roughly one per round
+ * trip of the whole window, while a request failing with a 5xx or 429, or
+ * taking longer than that, multiplies it by `backoffRatio`.
+ *
+ * <p>Latencies are only ever compared within an operation, as listing the
+ * changes of a large pull request will always take many times as long as
+ * getting a commit, which is no sign of overload. Requests sent before the
+ * last decrease saw the same overload as the one which caused it and so are
+ * not counted again. The lowest latency of an operation is forgotten every
+ * `SAMPLES_PER_PROBE` of its requests such that the limit follows a server
+ * whose baseline latency changed.
+ */
+final class AdaptiveLimit {
+
+    static final int SAMPLES_PER_PROBE = 1000;
+
+    private final String endpoint;
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final Map<String, Baseline> baselines = new HashMap<>();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long decreasedAt = Long.MIN_VALUE;
+    private long drops;
+
+    AdaptiveLimit(final String endpoint,
+            final int initialLimit,
+            final int minimumLimit,
+            final int maximumLimit,
+            final double backoffRatio,
+            final double latencyTolerance) {
+        this.endpoint = endpoint;
+        this.limit = initialLimit;
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * Wait for the number of requests in flight to drop below the limit
+     * and count one more.
+     *
+     * @return the time the request was let through, to pass back on release.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    synchronized long acquire() throws InterruptedException {
+        queued++;
+        try {
+            while (inFlight >= (int) limit) {
+                wait();
+            }
+        } finally {
+            queued--;
+        }
+        inFlight++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Count a request as no longer in flight and adjust the limit by how
+     * it went.
+     *
+     * @param operation id of the operation the request performed.
+     * @param startedAt as returned by {@link #acquire()}.
+     * @param dropped whether the request failed in a way signalling overload.
+     */
+    synchronized void release(final String operation, final long startedAt, final boolean dropped) {
+        final long now = System.nanoTime();
+        final long latency = now - startedAt;
+        inFlight--;
+
+        final long minimumLatency = baselines.computeIfAbsent(operation, key -> new Baseline())
+                .update(latency, dropped);
+        if (dropped || latency > minimumLatency * latencyTolerance) {
+            if (startedAt >= decreasedAt) {
+                drops++;
+                decreasedAt = now;
+                limit = Math.max(minimumLimit, limit * backoffRatio);
+            }
+        } else {
+            limit = Math.min(maximumLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    synchronized ConcurrencyState state() {
+        long minimumLatency = Long.MAX_VALUE;
+        for (final Baseline baseline : baselines.values()) {
+            minimumLatency = Math.min(minimumLatency, baseline.minimumLatency);
+        }
+        return ConcurrencyState.create(endpoint,
+                (int) limit,
+                inFlight,
+                queued,
+                minimumLatency == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(minimumLatency),
+                drops);
+    }
+
+    /**
+     * Lowest recent latency of a single operation.
+     */
+    private static final class Baseline {
+
+        private long minimumLatency = Long.MAX_VALUE;
+        private int samples;
+
+        long update(final long latency, final boolean dropped) {
+            if (++samples >= SAMPLES_PER_PROBE) {
+                samples = 0;
+                minimumLatency = latency;
+            }
+            if (!dropped) {
+                minimumLatency = Math.min(minimumLatency, latency);
+            }
+            return minimumLatency;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.concurrency;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+
+import java.net.URI;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link ConcurrencyLimitModule}, holding every request until the
+ * {@link AdaptiveLimit} of its endpoint lets it through and reporting back
+ * how it went. jclouds surfaces error responses as HttpResponseExceptions,
+ * of which those with a 5xx or 429 status count as signs of overload, as
+ * does failing without any response at all.
+ */
+final class ConcurrencyLimitInterceptor implements MethodInterceptor {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    private final ConcurrencyLimiter limiter;
+
+    ConcurrencyLimitInterceptor(final ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpRequest request = ((HttpCommand) invocation.getArguments()[0]).getCurrentRequest();
+        final URI uri = request.getEndpoint();
+        final AdaptiveLimit limit = limiter.limit(uri.getScheme() + "://" + uri.getRawAuthority());
+        final String operation = request instanceof GeneratedHttpRequest
+                ? BitbucketUtils.operationId(((GeneratedHttpRequest) request).getInvocation().getInvokable())
+                : request.getMethod();
+
+        final long startedAt = limit.acquire();
+        boolean dropped = true;
+        try {
+            final HttpResponse response = (HttpResponse) invocation.proceed();
+            dropped = overloaded(response);
+            return response;
+        } catch (final HttpResponseException e) {
+            dropped = e.getResponse() == null || overloaded(e.getResponse());
+            throw e;
+        } finally {
+            limit.release(operation, startedAt, dropped);
+        }
+    }
+
+    private static boolean overloaded(final HttpResponse response) {
+        return response.getStatusCode() >= SERVER_ERROR || response.getStatusCode() == TOO_MANY_REQUESTS;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.concurrency;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import java.util.Objects;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+
+/**
+ * Opt-in module limiting the requests of a client in flight at once
+ * through the passed {@link ConcurrencyLimiter}. A request holds its slot
+ * until the executor hands back its response, before the body is read, so
+ * time spent parsing large responses does not count against the limit.
+ */
+public class ConcurrencyLimitModule extends AbstractModule {
+
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Create a module limiting requests through the passed ConcurrencyLimiter.
+     *
+     * @param limiter the limiter to limit requests through.
+     */
+    public ConcurrencyLimitModule(final ConcurrencyLimiter limiter) {
+        this.limiter = Objects.requireNonNull(limiter);
+    }
+
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                new ConcurrencyLimitInterceptor(limiter));
+    }
+}
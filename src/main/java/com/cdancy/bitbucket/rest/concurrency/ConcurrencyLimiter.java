@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.concurrency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the number of requests in flight to each endpoint, adapting the
+ * limit to how the server copes: raised while latency stays close to the
+ * lowest seen for each operation, and lowered as soon as it climbs or the server answers with
+ * a 5xx or `429 Too Many Requests`. Requests beyond the limit wait for one
+ * in flight to complete rather than adding to the load of a struggling
+ * server.
+ *
+ * <pre>
+ * ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().maximumLimit(64).build();
+ * BitbucketClient client = BitbucketClient.builder()
+ *     .modules(new ConcurrencyLimitModule(limiter))
+ *     .build();
+ * </pre>
+ *
+ * <p>A limiter may be shared by any number of clients, in which case they
+ * share the limit of every endpoint.
+ */
+public final class ConcurrencyLimiter {
+
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MINIMUM_LIMIT = 1;
+    static final int DEFAULT_MAXIMUM_LIMIT = 200;
+    static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private final int initialLimit;
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final ConcurrentMap<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    private ConcurrencyLimiter(final Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minimumLimit = builder.minimumLimit;
+        this.maximumLimit = builder.maximumLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyTolerance = builder.latencyTolerance;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Snapshot of the limit of every endpoint requests have been sent to.
+     *
+     * @return the state of every limit.
+     */
+    public List<ConcurrencyState> state() {
+        final ImmutableList.Builder<ConcurrencyState> states = ImmutableList.builder();
+        for (final AdaptiveLimit limit : limits.values()) {
+            states.add(limit.state());
+        }
+        return states.build();
+    }
+
+    AdaptiveLimit limit(final String endpoint) {
+        return limits.computeIfAbsent(endpoint, key -> new AdaptiveLimit(key,
+                initialLimit, minimumLimit, maximumLimit, backoffRatio, latencyTolerance));
+    }
+
+    public static class Builder {
+
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+        private int minimumLimit = DEFAULT_MINIMUM_LIMIT;
+        private int maximumLimit = DEFAULT_MAXIMUM_LIMIT;
+        private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+        private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+
+        /**
+         * Number of requests allowed in flight to an endpoint before
+         * anything is known about it. Defaults to 20.
+         *
+         * @param initialLimit the initial limit.
+         * @return this Builder.
+         */
+        public Builder initialLimit(final int initialLimit) {
+            checkArgument(initialLimit > 0, "initialLimit must be greater than 0");
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Lowest the limit is ever lowered to. Defaults to 1.
+         *
+         * @param minimumLimit the minimum limit.
+         * @return this Builder.
+         */
+        public Builder minimumLimit(final int minimumLimit) {
+            checkArgument(minimumLimit > 0, "minimumLimit must be greater than 0");
+            this.minimumLimit = minimumLimit;
+            return this;
+        }
+
+        /**
+         * Highest the limit is ever raised to. Defaults to 200.
+         *
+         * @param maximumLimit the maximum limit.
+         * @return this Builder.
+         */
+        public Builder maximumLimit(final int maximumLimit) {
+            checkArgument(maximumLimit > 0, "maximumLimit must be greater than 0");
+            this.maximumLimit = maximumLimit;
+            return this;
+        }
+
+        /**
+         * Factor the limit is multiplied by upon signs of overload. Defaults
+         * to 0.9.
+         *
+         * @param backoffRatio ratio between 0 and 1, exclusive.
+         * @return this Builder.
+         */
+        public Builder backoffRatio(final double backoffRatio) {
+            checkArgument(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be between 0 and 1");
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Multiple of the lowest latency seen for the same operation beyond
+         * which a request is taken as a sign of overload. Defaults to 2.
+         *
+         * @param latencyTolerance tolerance of at least 1.
+         * @return this Builder.
+         */
+        public Builder latencyTolerance(final double latencyTolerance) {
+            checkArgument(latencyTolerance >= 1, "latencyTolerance must be at least 1");
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * Build an instance of ConcurrencyLimiter.
+         *
+         * @return ConcurrencyLimiter
+         */
+        public ConcurrencyLimiter build() {
+            checkState(minimumLimit <= initialLimit && initialLimit <= maximumLimit,
+                    "initialLimit must be between minimumLimit and maximumLimit");
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.concurrency;
+
+import com.google.auto.value.AutoValue;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the concurrency limit of a single endpoint, as handed out by
+ * {@link ConcurrencyLimiter#state()}.
+ */
+@AutoValue
+public abstract class ConcurrencyState {
+
+    /**
+     * Scheme, host and port requests are sent to.
+     *
+     * @return the endpoint.
+     */
+    public abstract String endpoint();
+
+    /**
+     * Number of requests currently allowed in flight at once.
+     *
+     * @return the current limit.
+     */
+    public abstract int limit();
+
+    /**
+     * Number of requests currently in flight.
+     *
+     * @return the number of requests in flight.
+     */
+    public abstract int inFlight();
+
+    /**
+     * Number of requests currently waiting for one in flight to complete.
+     *
+     * @return the queue depth.
+     */
+    public abstract int queued();
+
+    /**
+     * Lowest latency seen recently of any operation. The latency of every
+     * request is compared against the lowest of its own operation.
+     *
+     * @return the lowest baseline latency, zero if none seen yet.
+     */
+    public abstract Duration minimumLatency();
+
+    /**
+     * Number of times the limit was lowered.
+     *
+     * @return the number of decreases.
+     */
+    public abstract long drops();
+
+    ConcurrencyState() {
+    }
+
+    public static ConcurrencyState create(final String endpoint,
+            final int limit,
+            final int inFlight,
+            final int queued,
+            final Duration minimumLatency,
+            final long drops) {
+        return new AutoValue_ConcurrencyState(endpoint,
+                limit,
+                inFlight,
+                queued,
+                minimumLatency,
+                drops);
+    }
+}
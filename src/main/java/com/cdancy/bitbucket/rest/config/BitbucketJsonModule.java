@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.config;
+
+import com.cdancy.bitbucket.rest.interning.Interner;
+import com.google.gson.TypeAdapterFactory;
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.multibindings.OptionalBinder;
+
+/**
+ * Register the TypeAdapters generated at compile time for the domain
+ * classes with the Gson of jclouds, such that responses are read straight
+ * into the `create(...)` factories of the domain classes rather than
+ * through reflection.
+ *
+ * <p>The entities read are interned through the {@link Interner} bound by
+ * the {@link com.cdancy.bitbucket.rest.interning.InterningModule}, if any.
+ */
+public class BitbucketJsonModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        OptionalBinder.newOptionalBinder(binder(), Interner.class);
+        Multibinder.newSetBinder(binder(), TypeAdapterFactory.class).addBinding().to(DomainTypeAdapterFactory.class);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.config;
+
+import com.cdancy.bitbucket.rest.interning.Interner;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+import jakarta.inject.Inject;
+
+/**
+ * Hands out the TypeAdapters generated for the domain classes, found
+ * through the ServiceLoader, fronted by the {@link Interner} bound through
+ * the InterningModule, if any. Kept a single factory such that interning
+ * does not depend on the order Gson consults its factories in.
+ */
+final class DomainTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final String PACKAGE = "com.cdancy.bitbucket.rest.";
+
+    private final List<TypeAdapterFactory> generated;
+    private final Interner interner;
+
+    @Inject
+    DomainTypeAdapterFactory(final Optional<Interner> interner) {
+        this.generated = ServiceLoader.load(TypeAdapterFactory.class, DomainTypeAdapterFactory.class.getClassLoader())
+                .stream()
+                .filter(provider -> provider.type().getName().startsWith(PACKAGE))
+                .map(provider -> frontedBy(provider.type(), this))
+                .collect(ImmutableList.toImmutableList());
+        this.interner = interner.orElse(null);
+    }
+
+    /**
+     * Create a generated factory which writes through the adapters Gson
+     * has past the passed factory, being the one registered in its stead.
+     */
+    private static TypeAdapterFactory frontedBy(final Class<? extends TypeAdapterFactory> type,
+            final TypeAdapterFactory skipPast) {
+        try {
+            return type.getConstructor(TypeAdapterFactory.class).newInstance(skipPast);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+        TypeAdapter<T> adapter = null;
+        for (final TypeAdapterFactory factory : generated) {
+            adapter = factory.create(gson, type);
+            if (adapter != null) {
+                break;
+            }
+        }
+        if (interner == null || !interner.interns(type.getRawType())) {
+            return adapter;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Class<T> rawType = (Class<T>) type.getRawType();
+        final TypeAdapter<T> delegate = adapter != null
+                ? adapter
+                : gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<T>() {
+
+            @Override
+            public void write(final JsonWriter out, final T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(final JsonReader in) throws IOException {
+                return interner.intern(rawType, delegate.read(in));
+            }
+        };
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.config;
+
+import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+
+import com.cdancy.bitbucket.rest.http.HostPermits;
+import com.cdancy.bitbucket.rest.http.JavaHttpClientCommandExecutorService;
+import com.google.common.base.Supplier;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.SSLModule;
+
+/**
+ * Opt-in module replacing jclouds' default URLConnection based executor with
+ * one built on the JDK's {@link HttpClient}, which supports HTTP/2 and pools
+ * connections across concurrent requests. Pass it along when building a
+ * client:
+ *
+ * <pre>
+ * BitbucketClient.builder().modules(new JavaHttpClientModule()).build();
+ * </pre>
+ *
+ * <p>Connect and request timeouts are taken from `jclouds.connection-timeout`
+ * and `jclouds.so-timeout` while `jclouds.max-connections-per-host` caps the
+ * in-flight requests per host.
+ *
+ * <p>The JDK only lets the connection pool be tuned through JVM wide System
+ * Properties, read once when the first HttpClient is created, and so these
+ * are left to the command line, e.g.
+ * `-Djdk.httpclient.keepalive.timeout=300` for idle connections to be kept
+ * for 5 minutes or `-Djdk.httpclient.connectionPoolSize=50` to keep up to 50
+ * idle HTTP/1.1 connections.
+ */
+@ConfiguresHttpCommandExecutorService
+public class JavaHttpClientModule extends AbstractModule {
+
+    private final HttpClient httpClient;
+    private final HttpClient.Version version;
+    private final HostPermits hostPermits;
+
+    /**
+     * Create a module preferring HTTP/2 with default connection pooling.
+     */
+    public JavaHttpClientModule() {
+        this(null, HttpClient.Version.HTTP_2, null);
+    }
+
+    private JavaHttpClientModule(final HttpClient httpClient, final HttpClient.Version version,
+            final HostPermits hostPermits) {
+        this.httpClient = httpClient;
+        this.version = version;
+        this.hostPermits = hostPermits;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    protected void configure() {
+        install(new SSLModule());
+        bind(HttpCommandExecutorService.class).to(JavaHttpClientCommandExecutorService.class);
+    }
+
+    @Provides
+    @Singleton
+    HostPermits provideHostPermits(@Named(PROPERTY_MAX_CONNECTIONS_PER_HOST) final int maxRequestsPerHost) {
+        return hostPermits != null
+                ? hostPermits
+                : new HostPermits(maxRequestsPerHost);
+    }
+
+    @Provides
+    @Singleton
+    HttpClient provideHttpClient(@Named(PROPERTY_CONNECTION_TIMEOUT) final int connectionTimeout,
+            final HttpUtils utils,
+            @Named("untrusted") final Supplier<SSLContext> untrustedSSLContextProvider) {
+        if (httpClient != null) {
+            return httpClient;
+        }
+
+        // jclouds handles redirects itself through its retry handlers
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .proxy(ProxySelector.getDefault());
+        if (connectionTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectionTimeout));
+        }
+        if (utils.trustAllCerts()) {
+            builder.sslContext(untrustedSSLContextProvider.get());
+        }
+        return builder.build();
+    }
+
+    public static class Builder {
+
+        private HttpClient httpClient;
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private HostPermits hostPermits;
+
+        /**
+         * Preferred HTTP version. Defaults to HTTP/2 which falls back to
+         * HTTP/1.1 should the server not support it.
+         *
+         * @param version the preferred HTTP version.
+         * @return this Builder.
+         */
+        public Builder version(final HttpClient.Version version) {
+            this.version = Objects.requireNonNull(version);
+            return this;
+        }
+
+        /**
+         * Use an already configured HttpClient, and so its connection pool,
+         * rather than creating a new one. Useful for sharing connections
+         * across many BitbucketClient's. The connect timeout, version and
+         * SSL settings of the passed client take precedence.
+         *
+         * @param httpClient the HttpClient to use.
+         * @return this Builder.
+         */
+        public Builder httpClient(final HttpClient httpClient) {
+            this.httpClient = Objects.requireNonNull(httpClient);
+            return this;
+        }
+
+        /**
+         * Use already existing permits capping the requests in flight per
+         * host, e.g. those of other clients sharing the same HttpClient,
+         * rather than creating them from `jclouds.max-connections-per-host`.
+         *
+         * @param hostPermits the permits to use.
+         * @return this Builder.
+         */
+        public Builder hostPermits(final HostPermits hostPermits) {
+            this.hostPermits = Objects.requireNonNull(hostPermits);
+            return this;
+        }
+
+        /**
+         * Build an instance of JavaHttpClientModule.
+         *
+         * @return JavaHttpClientModule
+         */
+        public JavaHttpClientModule build() {
+            return new JavaHttpClientModule(httpClient, version, hostPermits);
+        }
+    }
+}
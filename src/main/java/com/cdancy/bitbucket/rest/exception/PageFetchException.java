@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.exception;
+
+import com.cdancy.bitbucket.rest.domain.common.Error;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Thrown when iterating over a listing and one of its pages came back
+ * holding errors rather than values.
+ */
+public class PageFetchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Error> errors;
+
+    public PageFetchException(final int start, final List<Error> errors) {
+        super("Failed to fetch page starting at " + start + ": " + errors);
+        this.errors = ImmutableList.copyOf(errors);
+    }
+
+    public List<Error> errors() {
+        return errors;
+    }
+}
@@ -17,7 +17,6 @@
 
 package com.cdancy.bitbucket.rest.fallbacks;
 
-import com.cdancy.bitbucket.rest.BitbucketUtils;
 import com.cdancy.bitbucket.rest.domain.activities.ActivitiesPage;
 import com.cdancy.bitbucket.rest.domain.admin.UserPage;
 import com.cdancy.bitbucket.rest.domain.branch.Branch;
@@ -74,13 +73,16 @@ import com.cdancy.bitbucket.rest.domain.sync.SyncStatus;
 import com.cdancy.bitbucket.rest.domain.tags.Tag;
 import com.cdancy.bitbucket.rest.domain.tags.TagPage;
 import com.google.common.collect.Lists;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.jclouds.Fallback;
 
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -91,6 +93,16 @@ import static org.jclouds.http.HttpUtils.returnValueOnCodeOrNull;
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class BitbucketFallbacks {
 
+    /**
+     * Longest output {@link #getErrors(String)} parses as JSON.
+     */
+    public static final int MAXIMUM_PARSED_LENGTH = 1024 * 1024;
+
+    /**
+     * Most characters of unparsable output kept as the context of an Error.
+     */
+    public static final int MAXIMUM_CONTEXT_LENGTH = 4096;
+
     public static final class BranchOnError implements Fallback<Object> {
         @Override
         public Object createOrPropagate(final Throwable throwable) throws Exception {
@@ -858,82 +870,238 @@ public final class BitbucketFallbacks {
     /**
      * Parse list of Error's from output.
      *
+     * <p>The output is read as it is streamed through a JsonReader rather
+     * than into a tree first. Output which is not a JSON object, e.g. the
+     * HTML page of a proxy, or is longer than {@value #MAXIMUM_PARSED_LENGTH}
+     * characters, is not parsed at all, and at most the first {@value
+     * #MAXIMUM_CONTEXT_LENGTH} characters of output which could not be
+     * parsed are kept as the context of the single Error handed back.
+     *
      * @param output json containing errors hash
      * @return List of Error's or empty list if none could be found
      */
     public static List<Error> getErrors(final String output) {
+        if (!isJsonObject(output)) {
+            return Lists.newArrayList(unparsedError(output, JsonSyntaxException.class.getName(), "not a JSON object"));
+        }
+        if (output.length() > MAXIMUM_PARSED_LENGTH) {
+            return Lists.newArrayList(unparsedError(output, JsonSyntaxException.class.getName(),
+                    "longer than " + MAXIMUM_PARSED_LENGTH + " characters"));
+        }
 
-        final List<Error> errors = Lists.newArrayList();
-
-        try {
-
-            final JsonElement element = BitbucketUtils.JSON_PARSER.parse(output);
-            final JsonObject object = element.getAsJsonObject();
+        try (JsonReader reader = new JsonReader(new StringReader(output))) {
+            reader.setStrictness(Strictness.LENIENT);
 
             // in most cases Bitbucket will hand us back a list of `Error` objects
             // but in other cases we will simply be handed back the singular
             // `Error` object (i.e. not as a list).
-            if (object.has("errors")) {
-                final JsonArray errorsArray = object.get("errors").getAsJsonArray();
-                final Iterator<JsonElement> it = errorsArray.iterator();
-                while (it.hasNext()) {
-                    final JsonObject obj = it.next().getAsJsonObject();
-                    errors.add(getErrorFromJsonObject(obj));
+            List<Error> errors = null;
+            final ErrorFields singular = new ErrorFields();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("errors".equals(name)) {
+                    errors = readErrors(reader);
+                } else {
+                    singular.read(name, reader);
                 }
-            } else if (object.has("context")) {
-                errors.add(getErrorFromJsonObject(object));
+            }
+            reader.endObject();
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+
+            if (errors != null) {
+                return errors;
+            } else if (singular.hasContext) {
+                return Lists.newArrayList(singular.toError());
             } else {
-                throw new RuntimeException(output);
+                return Lists.newArrayList(unparsedError(output, RuntimeException.class.getName(),
+                        "neither errors nor context found"));
             }
         } catch (final Exception e) {
-            final Error error = Error.create(output,
-                    "Failed to parse output: message=" + e.getMessage(),
-                    e.getClass().getName(),
-                    false,
-                    null);
-            errors.add(error);
+            return Lists.newArrayList(unparsedError(output, e.getClass().getName(), e.getMessage()));
         }
+    }
+
+    private static boolean isJsonObject(final String output) {
+        if (output != null) {
+            for (int i = 0; i < output.length(); i++) {
+                final char next = output.charAt(i);
+                if (!Character.isWhitespace(next)) {
+                    return next == '{';
+                }
+            }
+        }
+        return false;
+    }
 
+    private static Error unparsedError(final String output, final String exceptionName, final String reason) {
+        final String context = output != null && output.length() > MAXIMUM_CONTEXT_LENGTH
+                ? output.substring(0, MAXIMUM_CONTEXT_LENGTH) + "..."
+                : output;
+        return Error.create(context,
+                "Failed to parse output: message=" + reason,
+                exceptionName,
+                false,
+                null);
+    }
+
+    private static List<Error> readErrors(final JsonReader reader) throws IOException {
+        final List<Error> errors = Lists.newArrayList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            errors.add(readError(reader));
+        }
+        reader.endArray();
         return errors;
     }
 
+    private static Error readError(final JsonReader reader) throws IOException {
+        final ErrorFields fields = new ErrorFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            fields.read(reader.nextName(), reader);
+        }
+        reader.endObject();
+        return fields.toError();
+    }
+
     /**
-     * Parse a single Error object from a given JsonObject.
-     *
-     * @param obj the JsonObject to parse an Error from.
-     * @return Error object derived from parsing the passed JsonObject.
+     * Fields of an Error as they are read, off a JsonReader or a JsonObject
+     * alike: JSON nulls are left null, and primitives are read as strings,
+     * or booleans, whatever their type.
      */
-    public static Error getErrorFromJsonObject(final JsonObject obj) {
-        final JsonElement context = obj.get("context");
-        final JsonElement message = obj.get("message");
-        final JsonElement exceptionName = obj.get("exceptionName");
-        final JsonElement conflicted = obj.get("conflicted");
+    private static final class ErrorFields {
+
+        private static final String CONTEXT = "context";
+        private static final String MESSAGE = "message";
+        private static final String EXCEPTION_NAME = "exceptionName";
+        private static final String CONFLICTED = "conflicted";
+        private static final String VETOES = "vetoes";
+        private static final String SUMMARY_MESSAGE = "summaryMessage";
+        private static final String DETAILED_MESSAGE = "detailedMessage";
+
+        private String context;
+        private String message;
+        private String exceptionName;
+        private boolean conflicted;
+        private final List<Veto> vetoes = Lists.newArrayList();
+        private boolean hasContext;
+
+        void read(final String name, final JsonReader reader) throws IOException {
+            switch (name) {
+                case CONTEXT:
+                    hasContext = true;
+                    context = readString(reader);
+                    break;
+                case MESSAGE:
+                    message = readString(reader);
+                    break;
+                case EXCEPTION_NAME:
+                    exceptionName = readString(reader);
+                    break;
+                case CONFLICTED:
+                    conflicted = readBoolean(reader);
+                    break;
+                case VETOES:
+                    readVetoes(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        private void readVetoes(final JsonReader reader) throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String summary = null;
+                String detailed = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    final String name = reader.nextName();
+                    if (SUMMARY_MESSAGE.equals(name)) {
+                        summary = readString(reader);
+                    } else if (DETAILED_MESSAGE.equals(name)) {
+                        detailed = readString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                vetoes.add(Veto.create(summary, detailed));
+            }
+            reader.endArray();
+        }
 
-        final List<Veto> vetos = Lists.newArrayList();
-        final JsonElement possibleVetoesArray = obj.get("vetoes");
-        if (isNotJsonNull(possibleVetoesArray)) {
+        Error toError() {
+            return Error.create(context, message, exceptionName, conflicted, vetoes);
+        }
 
-            final JsonArray vetoesArray = possibleVetoesArray.getAsJsonArray();
-            final Iterator<JsonElement> vetoIterator = vetoesArray.iterator();
-            while (vetoIterator.hasNext()) {
-                final JsonObject vetoObj = vetoIterator.next().getAsJsonObject();
-                final JsonElement summary = vetoObj.get("summaryMessage");
-                final JsonElement detailed = vetoObj.get("detailedMessage");
-                final Veto veto = Veto.create(isNotJsonNull(summary) ? summary.getAsString() : null,
-                        isNotJsonNull(detailed) ? detailed.getAsString() : null);
-                vetos.add(veto);
+        static Error fromTree(final JsonObject obj) {
+            final ErrorFields fields = new ErrorFields();
+            fields.context = treeString(obj.get(CONTEXT));
+            fields.message = treeString(obj.get(MESSAGE));
+            fields.exceptionName = treeString(obj.get(EXCEPTION_NAME));
+            fields.conflicted = treeBoolean(obj.get(CONFLICTED));
+            final JsonElement vetoes = obj.get(VETOES);
+            if (vetoes != null && !vetoes.isJsonNull()) {
+                for (final JsonElement veto : vetoes.getAsJsonArray()) {
+                    final JsonObject vetoObj = veto.getAsJsonObject();
+                    fields.vetoes.add(Veto.create(treeString(vetoObj.get(SUMMARY_MESSAGE)),
+                            treeString(vetoObj.get(DETAILED_MESSAGE))));
+                }
             }
+            return fields.toError();
+        }
+    }
+
+    private static String readString(final JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                return reader.nextString();
         }
+    }
+
+    private static boolean readBoolean(final JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return false;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                return Boolean.parseBoolean(reader.nextString());
+        }
+    }
+
+    private static String treeString(final JsonElement element) {
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
 
-        return Error.create(isNotJsonNull(context) ? context.getAsString() : null,
-                isNotJsonNull(message) ? message.getAsString() : null,
-                isNotJsonNull(exceptionName) ? exceptionName.getAsString() : null,
-                isNotJsonNull(conflicted) ? conflicted.getAsBoolean() : false, //NOPMD
-                vetos);
+    private static boolean treeBoolean(final JsonElement element) {
+        // getAsBoolean parses the string of non-boolean primitives, as readBoolean does
+        return element != null && !element.isJsonNull() && element.getAsBoolean();
     }
 
-    private static boolean isNotJsonNull(final JsonElement jsonElement) {
-        return jsonElement != null && !jsonElement.isJsonNull();
+    /**
+     * Parse a single Error object from a given JsonObject, mapping its
+     * fields the same way {@link #getErrors(String)} does.
+     *
+     * @param obj the JsonObject to parse an Error from.
+     * @return Error object derived from parsing the passed JsonObject.
+     */
+    public static Error getErrorFromJsonObject(final JsonObject obj) {
+        return ErrorFields.fromTree(obj);
     }
 
 }
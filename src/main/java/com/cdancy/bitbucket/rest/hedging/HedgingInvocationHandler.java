@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.hedging;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.cdancy.bitbucket.rest.ForwardingInvocationHandler;
+import com.cdancy.bitbucket.rest.domain.common.ErrorsHolder;
+import com.cdancy.bitbucket.rest.projection.Projection;
+import com.cdancy.bitbucket.rest.tracing.Span;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import jakarta.ws.rs.GET;
+
+/**
+ * Fronts a feature api on behalf of a {@link HedgingPolicy}. Calls of GET
+ * operations run on the policy's Executor while the calling thread waits
+ * for up to the operation's hedging delay, past which, budget permitting,
+ * the same call is made a second time. The first of the two to succeed is
+ * handed back, or the outcome of the original call when both fail. Calls
+ * handing back a domain object holding errors, as fallbacks do for error
+ * responses, have failed. Both run within the span of the call, if traced.
+ */
+final class HedgingInvocationHandler extends ForwardingInvocationHandler {
+
+    private final HedgingPolicy policy;
+    private final Executor executor;
+
+    HedgingInvocationHandler(final HedgingPolicy policy, final Object api) {
+        super(api);
+        this.policy = policy;
+        this.executor = Projection.propagating(Span.propagating(policy.executor()));
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String operation = BitbucketUtils.operationId(method);
+        if (!method.isAnnotationPresent(GET.class) || !policy.appliesTo(operation)) {
+            return invokeDelegate(method, args);
+        }
+
+        final LatencyTracker latencies = policy.latencies(operation);
+        final long threshold = latencies.threshold();
+        policy.deposit();
+
+        final long startedAt = System.nanoTime();
+        final CompletableFuture<Object> primary = call(method, args);
+        primary.whenComplete((result, error) -> latencies.record(System.nanoTime() - startedAt));
+        if (threshold < 0) {
+            return join(primary);
+        }
+
+        try {
+            return primary.get(threshold, TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            if (!policy.withdraw()) {
+                return join(primary);
+            }
+            final Span span = Span.current();
+            if (span != null) {
+                span.attribute("hedged", true);
+            }
+        } catch (final ExecutionException e) {
+            throw e.getCause();
+        }
+        return join(firstSuccessful(primary, call(method, args)));
+    }
+
+    private CompletableFuture<Object> call(final Method method, final Object[] args) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return invokeDelegate(method, args);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static CompletableFuture<Object> firstSuccessful(final CompletableFuture<Object> primary,
+            final CompletableFuture<Object> hedge) {
+        final CompletableFuture<Object> first = new CompletableFuture<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final BiConsumer<Object, Throwable> settle = (result, error) -> {
+            if (succeeded(result, error)) {
+                first.complete(result);
+            } else if (failures.incrementAndGet() == 2) {
+                // both failed, the original call has completed then
+                primary.whenComplete((primaryResult, primaryError) -> {
+                    if (primaryError != null) {
+                        first.completeExceptionally(primaryError);
+                    } else {
+                        first.complete(primaryResult);
+                    }
+                });
+            }
+        };
+        primary.whenComplete(settle);
+        hedge.whenComplete(settle);
+        return first;
+    }
+
+    /**
+     * Whether a call succeeded, i.e. neither threw nor handed back the
+     * errors a fallback mapped an error response to, e.g. a 503 of a node
+     * being restarted.
+     */
+    private static boolean succeeded(final Object result, final Throwable error) {
+        return error == null && !(result instanceof ErrorsHolder && !((ErrorsHolder) result).errors().isEmpty());
+    }
+
+    private static Object join(final CompletableFuture<Object> future) throws Throwable {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.hedging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuts the tail latency of GET operations by hedging them: a call which
+ * has not completed within a percentile of the recent latencies of its
+ * operation is made a second time, and whichever of the two succeeds first
+ * is handed back. This helps most against a server which occasionally
+ * stalls, e.g. a node of a cluster pausing for garbage collection.
+ *
+ * <pre>
+ * HedgingPolicy hedging = HedgingPolicy.builder().percentile(0.95).budget(0.05).build();
+ * BitbucketClient client = BitbucketClient.builder()
+ *     .hedgingPolicy(hedging)
+ *     .build();
+ * </pre>
+ *
+ * <p>Hedging is bounded by a budget, shared by every client using the
+ * policy, of hedged calls per call made such that a server which slows
+ * down as a whole is not sent twice the load. Only operations annotated
+ * with `@GET`, optionally limited to a configured set, are ever hedged.
+ */
+public final class HedgingPolicy {
+
+    static final double DEFAULT_PERCENTILE = 0.95;
+    static final double DEFAULT_BUDGET = 0.05;
+    static final Duration DEFAULT_MINIMUM_DELAY = Duration.ofMillis(10);
+    static final double MAXIMUM_SAVED_HEDGES = 10;
+
+    private final double percentile;
+    private final double budget;
+    private final long minimumDelay;
+    private final Set<String> operations;
+    private final Executor executor;
+    private final ConcurrentMap<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private double savedHedges;
+
+    private HedgingPolicy(final Builder builder) {
+        this.percentile = builder.percentile;
+        this.budget = builder.budget;
+        this.minimumDelay = builder.minimumDelay.toNanos();
+        this.operations = builder.operations;
+        this.executor = builder.executor != null
+                ? builder.executor
+                : Holder.EXECUTOR;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Front the passed feature api such that its GET operations are
+     * hedged, as done for every feature api of a client built with
+     * `BitbucketClient.Builder.hedgingPolicy(...)`.
+     *
+     * @param <T> the type of feature api.
+     * @param apiType the feature api interface, e.g. PullRequestApi.class.
+     * @param api the feature api to front.
+     * @return the hedged feature api.
+     */
+    public <T> T wrap(final Class<T> apiType, final T api) {
+        return apiType.cast(Proxy.newProxyInstance(apiType.getClassLoader(),
+                new Class<?>[]{apiType},
+                new HedgingInvocationHandler(this, api)));
+    }
+
+    /**
+     * Number of GET calls made through this policy.
+     *
+     * @return the number of calls.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Number of those calls which were hedged.
+     *
+     * @return the number of hedged calls.
+     */
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    boolean appliesTo(final String operation) {
+        return operations.isEmpty() || operations.contains(operation);
+    }
+
+    LatencyTracker latencies(final String operation) {
+        return latencies.computeIfAbsent(operation, key -> new LatencyTracker(percentile, minimumDelay));
+    }
+
+    Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Count a call, adding its share to the hedging budget.
+     */
+    synchronized void deposit() {
+        calls.increment();
+        savedHedges = Math.min(MAXIMUM_SAVED_HEDGES, savedHedges + budget);
+    }
+
+    /**
+     * Take a hedge from the budget, if there is one.
+     *
+     * @return whether the call may be hedged.
+     */
+    synchronized boolean withdraw() {
+        if (savedHedges < 1) {
+            return false;
+        }
+        savedHedges -= 1;
+        hedges.increment();
+        return true;
+    }
+
+    private static final class Holder {
+
+        static final Executor EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("bitbucket-hedging-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    public static class Builder {
+
+        private double percentile = DEFAULT_PERCENTILE;
+        private double budget = DEFAULT_BUDGET;
+        private Duration minimumDelay = DEFAULT_MINIMUM_DELAY;
+        private Set<String> operations = ImmutableSet.of();
+        private Executor executor;
+
+        /**
+         * Percentile of the recent latencies of an operation past which its
+         * calls are hedged. Defaults to 0.95.
+         *
+         * @param percentile percentile between 0 and 1, exclusive.
+         * @return this Builder.
+         */
+        public Builder percentile(final double percentile) {
+            checkArgument(percentile > 0 && percentile < 1, "percentile must be between 0 and 1");
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Number of hedged calls allowed per call made. Defaults to 0.05,
+         * i.e. at most one in twenty calls is hedged.
+         *
+         * @param budget hedges per call, between 0 and 1.
+         * @return this Builder.
+         */
+        public Builder budget(final double budget) {
+            checkArgument(budget > 0 && budget <= 1, "budget must be greater than 0 and at most 1");
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Shortest delay ever waited before hedging a call, however fast
+         * the operation usually is. Defaults to 10ms.
+         *
+         * @param minimumDelay the minimum hedging delay.
+         * @return this Builder.
+         */
+        public Builder minimumDelay(final Duration minimumDelay) {
+            checkArgument(!minimumDelay.isNegative(), "minimumDelay must not be negative");
+            this.minimumDelay = minimumDelay;
+            return this;
+        }
+
+        /**
+         * Ids, as in the `@Named` annotation, of the GET operations to hedge
+         * (e.g. `pull-request:get` or `file:raw-content`). Defaults to every
+         * GET operation.
+         *
+         * @param operations ids of the operations to hedge.
+         * @return this Builder.
+         */
+        public Builder operations(final String... operations) {
+            this.operations = ImmutableSet.copyOf(operations);
+            return this;
+        }
+
+        /**
+         * Executor hedged calls, the original as well as the hedge, are made
+         * on. Defaults to a shared pool of daemon threads.
+         *
+         * @param executor the Executor to make calls on.
+         * @return this Builder.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Build an instance of HedgingPolicy.
+         *
+         * @return HedgingPolicy
+         */
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.hedging;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the most recent calls of a single operation, from which the
+ * delay to hedge calls of it after is derived. The percentile is only
+ * recomputed every `RECOMPUTE_EVERY` samples, and not at all until
+ * `MINIMUM_SAMPLES` were taken, as there is nothing to go by before.
+ */
+final class LatencyTracker {
+
+    static final int MINIMUM_SAMPLES = 20;
+    static final int WINDOW = 1000;
+    static final int RECOMPUTE_EVERY = 50;
+
+    private final double percentile;
+    private final long minimumDelay;
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+    private long threshold = -1;
+
+    LatencyTracker(final double percentile, final long minimumDelay) {
+        this.percentile = percentile;
+        this.minimumDelay = minimumDelay;
+    }
+
+    synchronized void record(final long latency) {
+        samples[next] = latency;
+        next = (next + 1) % WINDOW;
+        count++;
+        if (count >= MINIMUM_SAMPLES && (threshold < 0 || count % RECOMPUTE_EVERY == 0)) {
+            final long[] sorted = Arrays.copyOf(samples, Math.min(count, WINDOW));
+            Arrays.sort(sorted);
+            final int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+            threshold = Math.max(minimumDelay, sorted[index]);
+        }
+    }
+
+    /**
+     * Delay in nanoseconds after which a call is hedged, or -1 if too few
+     * calls were seen yet.
+     *
+     * @return the hedging delay.
+     */
+    synchronized long threshold() {
+        return threshold;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.http;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Caps the requests in flight per host, handing out a permit per request
+ * which is held until its response has been dealt with. A single instance
+ * may be shared by several clients, e.g. those of a
+ * {@link com.cdancy.bitbucket.rest.BitbucketClientPool}, for the cap to
+ * hold across all of them.
+ */
+public final class HostPermits {
+
+    private final int maximumPerHost;
+    private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Create permits capping the requests in flight per host.
+     *
+     * @param maximumPerHost most requests in flight per host, 0 or less
+     *     meaning unlimited.
+     */
+    public HostPermits(final int maximumPerHost) {
+        this.maximumPerHost = maximumPerHost;
+    }
+
+    /**
+     * Most requests in flight per host.
+     *
+     * @return the cap, 0 or less meaning unlimited.
+     */
+    public int maximumPerHost() {
+        return maximumPerHost;
+    }
+
+    /**
+     * Wait for a permit to send a request to the host of the passed URI.
+     *
+     * @param uri where the request is sent to.
+     * @return the permit, or null if requests are not capped.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Nullable
+    Permit acquire(final URI uri) throws InterruptedException {
+        if (maximumPerHost <= 0) {
+            return null;
+        }
+        final Semaphore semaphore = permits.computeIfAbsent(uri.getHost() + ":" + uri.getPort(),
+            key -> new Semaphore(maximumPerHost, true));
+        semaphore.acquire();
+        return new Permit(semaphore);
+    }
+
+    /**
+     * Permit to have a request in flight, released at most once however
+     * many times {@link #release()} is called.
+     */
+    static final class Permit {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(final Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.http;
+
+import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.net.HttpHeaders;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.BaseHttpCommandExecutorService;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * HttpCommandExecutorService backed by the JDK's {@link HttpClient}. Unlike
+ * the default URLConnection based executor this one is able to speak HTTP/2,
+ * multiplexing concurrent requests over a single connection per host.
+ *
+ * <p>The number of in-flight requests per host can be capped through the
+ * standard jclouds property `jclouds.max-connections-per-host` where the
+ * default of 0 means unlimited. A request holds its permit until its
+ * response body has been closed, or straight away hands it back when the
+ * response has no body at all, as parsers like RequestStatusParser never
+ * open it.
+ */
+@Singleton
+public class JavaHttpClientCommandExecutorService extends BaseHttpCommandExecutorService<java.net.http.HttpRequest> {
+
+    // headers the HttpClient manages itself and refuses to have set explicitly
+    private static final Set<String> RESTRICTED_HEADERS = ImmutableSet.of("connection", "content-length",
+            "date", "expect", "from", "host", "upgrade", "via", "warning");
+
+    private final HttpClient httpClient;
+    private final String userAgent;
+    private final Duration requestTimeout;
+    private final HostPermits hostPermits;
+
+    @Inject
+    JavaHttpClientCommandExecutorService(final HttpUtils utils,
+            final ContentMetadataCodec contentMetadataCodec,
+            final DelegatingRetryHandler retryHandler,
+            final IOExceptionRetryHandler ioRetryHandler,
+            final DelegatingErrorHandler errorHandler,
+            final HttpWire wire,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) final String idempotentMethods,
+            final HttpClient httpClient,
+            @Named(PROPERTY_USER_AGENT) final String userAgent,
+            @Named(PROPERTY_SO_TIMEOUT) final int soTimeout,
+            final HostPermits hostPermits) {
+        super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+        this.httpClient = httpClient;
+        this.userAgent = userAgent;
+        this.requestTimeout = soTimeout > 0 ? Duration.ofMillis(soTimeout) : null;
+        this.hostPermits = hostPermits;
+    }
+
+    @Override
+    protected java.net.http.HttpRequest convert(final HttpRequest request) throws IOException, InterruptedException {
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(request.getEndpoint());
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+
+        for (final Map.Entry<String, String> header : request.getHeaders().entries()) {
+            addHeader(builder, header.getKey(), header.getValue());
+        }
+        if (!request.getHeaders().containsKey(HttpHeaders.USER_AGENT)) {
+            builder.header(HttpHeaders.USER_AGENT, userAgent);
+        }
+
+        final Payload payload = request.getPayload();
+        if (payload == null) {
+            return builder.method(request.getMethod(), BodyPublishers.noBody()).build();
+        }
+
+        for (final Map.Entry<String, String> header : contentMetadataCodec.toHeaders(payload.getContentMetadata()).entries()) {
+            addHeader(builder, header.getKey(), header.getValue());
+        }
+        final Long contentLength = payload.getContentMetadata().getContentLength();
+        final BodyPublisher streamPublisher = BodyPublishers.ofInputStream(() -> {
+            try {
+                return payload.openStream();
+            } catch (final IOException e) {
+                throw new IllegalStateException("Failed to open payload of " + request.getRequestLine(), e);
+            }
+        });
+        return builder.method(request.getMethod(), contentLength != null
+                ? BodyPublishers.fromPublisher(streamPublisher, contentLength)
+                : streamPublisher).build();
+    }
+
+    @Override
+    protected HttpResponse invoke(final java.net.http.HttpRequest request) throws IOException, InterruptedException {
+        final HostPermits.Permit permit = hostPermits.acquire(request.uri());
+        final java.net.http.HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, BodyHandlers.ofInputStream());
+        } catch (final IOException | InterruptedException | RuntimeException e) {
+            release(permit);
+            throw e;
+        }
+
+        final ImmutableMultimap.Builder<String, String> headers = ImmutableMultimap.builder();
+        for (final Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+
+            // skip HTTP/2 pseudo headers (e.g. `:status`)
+            if (header.getKey().charAt(0) != ':') {
+                headers.putAll(header.getKey(), header.getValue());
+            }
+        }
+        final Multimap<String, String> allHeaders = headers.build();
+        final HttpResponse.Builder<?> builder = HttpResponse.builder()
+                .statusCode(response.statusCode())
+                .message("")
+                .headers(HttpUtils.filterOutContentHeaders(allHeaders));
+
+        // nobody is bound to ever close the body of a response without one
+        if (hasNoBody(request, response)) {
+            try {
+                response.body().close();
+            } finally {
+                release(permit);
+            }
+            return builder.build();
+        }
+
+        final Payload payload = Payloads.newInputStreamPayload(permit != null
+                ? new ReleasingInputStream(response.body(), permit)
+                : response.body());
+        contentMetadataCodec.fromHeaders(payload.getContentMetadata(), allHeaders);
+        return builder.payload(payload).build();
+    }
+
+    @Override
+    protected void cleanup(final java.net.http.HttpRequest request) {
+        // jclouds nulls the request before calling this once a response is in, hence
+        // permits are released by invoke itself, or once the payload gets closed
+    }
+
+    private static boolean hasNoBody(final java.net.http.HttpRequest request,
+            final java.net.http.HttpResponse<InputStream> response) {
+        final int statusCode = response.statusCode();
+        return statusCode == 204 || statusCode == 304
+                || "HEAD".equals(request.method())
+                || response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1) == 0;
+    }
+
+    private static void release(@Nullable final HostPermits.Permit permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    private static void addHeader(final java.net.http.HttpRequest.Builder builder, final String name, final String value) {
+        if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) {
+            builder.header(name, value);
+        }
+    }
+
+    /**
+     * Hands the per-host permit back once the response body has been closed.
+     */
+    private static final class ReleasingInputStream extends FilterInputStream {
+
+        private final HostPermits.Permit permit;
+
+        ReleasingInputStream(final InputStream delegate, final HostPermits.Permit permit) {
+            super(delegate);
+            this.permit = permit;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.interning;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.cdancy.bitbucket.rest.domain.common.Links;
+import com.cdancy.bitbucket.rest.domain.pullrequest.MinimalRepository;
+import com.cdancy.bitbucket.rest.domain.pullrequest.Person;
+import com.cdancy.bitbucket.rest.domain.pullrequest.ProjectKey;
+import com.cdancy.bitbucket.rest.domain.pullrequest.User;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Canonicalizes the entities repeated all over listings, such that the
+ * author of a thousand pull requests is held in memory once rather than a
+ * thousand times. By default users, reviewers and participants, minimal
+ * repositories, project keys and links are interned; further types are
+ * added through {@link Builder#intern(Class, Function)}.
+ *
+ * <pre>
+ * Interner interner = Interner.builder().maximumSize(50_000).build();
+ * BitbucketClient.builder().modules(new InterningModule(interner)).build();
+ * </pre>
+ *
+ * <p>Entities are looked up by their id or slug, and an entity read is
+ * only swapped for the one already held if both are equal: an entity which
+ * changed on the server, or was read under a {@link
+ * com.cdancy.bitbucket.rest.projection.Projection}, replaces the one held
+ * rather than being hidden by it. Entities are held weakly, such that
+ * interning never keeps alive what the caller dropped, and at most
+ * `maximumSize` of them: once full the Interner starts over empty rather
+ * than tracking which entities were used last. An Interner may be shared
+ * by several clients.
+ */
+public final class Interner {
+
+    static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    private final Map<Class<?>, Function<Object, Object>> keys;
+    private final long maximumSize;
+    private final ConcurrentMap<List<Object>, Canonical> canonical = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+
+    private Interner(final Builder builder) {
+        this.keys = ImmutableMap.copyOf(builder.keys);
+        this.maximumSize = builder.maximumSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether entities of the passed type are interned.
+     *
+     * @param type the domain class, e.g. User.class.
+     * @return true if entities of the type are interned.
+     */
+    public boolean interns(final Class<?> type) {
+        return keys.containsKey(type);
+    }
+
+    /**
+     * Hand back the entity held which is equal to the passed one, holding
+     * the passed one instead if there is none.
+     *
+     * @param <T> the type of entity.
+     * @param type the domain class the entity was read as.
+     * @param entity the entity to canonicalize, may be null.
+     * @return the canonical entity, or the passed one if the type is not
+     *     interned or the entity has no id.
+     */
+    @Nullable
+    public <T> T intern(final Class<T> type, @Nullable final T entity) {
+        final Function<Object, Object> key = keys.get(type);
+        if (entity == null || key == null) {
+            return entity;
+        }
+        final Object id = key.apply(entity);
+        if (id == null) {
+            return entity;
+        }
+
+        final List<Object> cacheKey = Arrays.asList(type, id);
+        final Canonical held = canonical.get(cacheKey);
+        final Object heldEntity = held != null
+                ? held.get()
+                : null;
+        if (entity.equals(heldEntity)) {
+            hits.increment();
+            return type.cast(heldEntity);
+        }
+
+        expunge();
+        if (held == null && canonical.size() >= maximumSize) {
+            canonical.clear();
+        }
+        canonical.put(cacheKey, new Canonical(cacheKey, entity, collected));
+        return entity;
+    }
+
+    /**
+     * Remove the entries of the entities collected since last called.
+     */
+    private void expunge() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            final Canonical stale = (Canonical) reference;
+            canonical.remove(stale.key, stale);
+        }
+    }
+
+    /**
+     * Number of entities read which were swapped for one already held.
+     *
+     * @return the number of interned entities.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of entities currently held, including ones already collected
+     * but not yet cleaned up.
+     *
+     * @return the number of entities held.
+     */
+    public long size() {
+        return canonical.size();
+    }
+
+    /**
+     * Weak reference to a canonical entity, remembering its key for the
+     * entry to be removed once the entity is collected.
+     */
+    private static final class Canonical extends WeakReference<Object> {
+
+        final List<Object> key;
+
+        Canonical(final List<Object> key, final Object entity, final ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.key = key;
+        }
+    }
+
+    @Nullable
+    static Object userKey(final User user) {
+        if (user.id() != null && user.id() != 0) {
+            return user.id();
+        }
+        return user.slug() != null
+                ? user.slug()
+                : user.name();
+    }
+
+    @Nullable
+    static Object personKey(final Person person) {
+        final Object user = person.user() != null
+                ? userKey(person.user())
+                : null;
+        return user != null
+                ? Arrays.asList(user, person.role(), person.approved(), person.status())
+                : null;
+    }
+
+    static Object repositoryKey(final MinimalRepository repository) {
+        return Arrays.asList(repository.project() != null ? repository.project().key() : null,
+                repository.slug());
+    }
+
+    @Nullable
+    static Object linksKey(final Links links) {
+        return links.self().isEmpty()
+                ? null
+                : links.self();
+    }
+
+    public static class Builder {
+
+        private final Map<Class<?>, Function<Object, Object>> keys = new HashMap<>();
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+        Builder() {
+            intern(User.class, Interner::userKey);
+            intern(Person.class, Interner::personKey);
+            intern(MinimalRepository.class, Interner::repositoryKey);
+            intern(ProjectKey.class, ProjectKey::key);
+            intern(Links.class, Interner::linksKey);
+        }
+
+        /**
+         * Most entities held at once, across every type. Defaults to 100000.
+         *
+         * @param maximumSize the maximum number of entities held.
+         * @return this Builder.
+         */
+        public Builder maximumSize(final long maximumSize) {
+            checkArgument(maximumSize > 0, "maximumSize must be greater than 0");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Intern entities of the passed type, or change how those of an
+         * interned type are looked up. The key must identify the entity,
+         * e.g. its id, and returning null leaves the entity as read.
+         *
+         * @param <T> the type of entity.
+         * @param type the domain class, e.g. Project.class.
+         * @param key function handing back the key of an entity.
+         * @return this Builder.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Builder intern(final Class<T> type, final Function<? super T, ?> key) {
+            keys.put(Objects.requireNonNull(type), (Function<Object, Object>) Objects.requireNonNull(key));
+            return this;
+        }
+
+        /**
+         * Build an instance of Interner.
+         *
+         * @return Interner
+         */
+        public Interner build() {
+            return new Interner(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.interning;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.OptionalBinder;
+
+import java.util.Objects;
+
+/**
+ * Opt-in module interning the entities read by a client through the
+ * passed {@link Interner}, such that equal users, repositories, project
+ * keys and links share a single instance across pages and calls.
+ *
+ * <pre>
+ * BitbucketClient.builder().modules(new InterningModule(Interner.builder().build())).build();
+ * </pre>
+ */
+public class InterningModule extends AbstractModule {
+
+    private final Interner interner;
+
+    /**
+     * Create a module interning entities through the passed interner.
+     *
+     * @param interner the interner to canonicalize entities with.
+     */
+    public InterningModule(final Interner interner) {
+        this.interner = Objects.requireNonNull(interner);
+    }
+
+    @Override
+    protected void configure() {
+        OptionalBinder.newOptionalBinder(binder(), Interner.class).setBinding().toInstance(interner);
+    }
+}
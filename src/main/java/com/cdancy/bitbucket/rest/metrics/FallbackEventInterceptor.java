@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.Fallback;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.util.Throwables2;
+
+/**
+ * Intercepts `InvocationConfig.getFallback(Invocation)` on behalf of the
+ * {@link FlightRecorderModule}, handing back the fallback wrapped such that
+ * a {@link FallbackEvent} is committed whenever it is invoked. Fallbacks are
+ * handed back as they are while the event is not enabled.
+ */
+final class FallbackEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Fallback<?> fallback = (Fallback<?>) invocation.proceed();
+        if (fallback == null || !new FallbackEvent().isEnabled()) {
+            return fallback;
+        }
+        final Invocation call = (Invocation) invocation.getArguments()[0];
+        return new RecordedFallback(fallback, BitbucketUtils.operationId(call.getInvokable()));
+    }
+
+    /**
+     * Fallback committing an event around every invocation of its delegate,
+     * and passing on the request to fallbacks which need it.
+     */
+    private static final class RecordedFallback implements Fallback<Object>, InvocationContext<RecordedFallback> {
+
+        private final Fallback<?> delegate;
+        private final String operation;
+
+        RecordedFallback(final Fallback<?> delegate, final String operation) {
+            this.delegate = delegate;
+            this.operation = operation;
+        }
+
+        @Override
+        public Object createOrPropagate(final Throwable throwable) throws Exception {
+            final FallbackEvent event = new FallbackEvent();
+            event.operation = operation;
+            event.fallback = delegate.getClass();
+            final HttpResponseException failure = Throwables2.getFirstThrowableOfType(throwable,
+                    HttpResponseException.class);
+            if (failure != null && failure.getResponse() != null) {
+                event.statusCode = failure.getResponse().getStatusCode();
+            }
+            event.begin();
+            try {
+                return delegate.createOrPropagate(throwable);
+            } finally {
+                event.commit();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public RecordedFallback setContext(final HttpRequest request) {
+            if (delegate instanceof InvocationContext) {
+                ((InvocationContext<?>) delegate).setContext(request);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.Fallback;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.InvocationContext;
+
+/**
+ * Intercepts `InvocationConfig.getFallback(Invocation)`, which jclouds asks
+ * for the fallback of every call up front, on behalf of the
+ * {@link MetricsModule}, handing back the fallback wrapped such that its
+ * invocations are recorded.
+ */
+final class FallbackMetricsInterceptor implements MethodInterceptor {
+
+    private final MetricsRegistry registry;
+
+    FallbackMetricsInterceptor(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Fallback<?> fallback = (Fallback<?>) invocation.proceed();
+        if (fallback == null) {
+            return null;
+        }
+        final Invocation call = (Invocation) invocation.getArguments()[0];
+        return new MeteredFallback(fallback, BitbucketUtils.operationId(call.getInvokable()), registry);
+    }
+
+    /**
+     * Fallback recording every invocation before delegating, and passing on
+     * the request to fallbacks which need it.
+     */
+    private static final class MeteredFallback implements Fallback<Object>, InvocationContext<MeteredFallback> {
+
+        private final Fallback<?> delegate;
+        private final String operation;
+        private final MetricsRegistry registry;
+
+        MeteredFallback(final Fallback<?> delegate, final String operation, final MetricsRegistry registry) {
+            this.delegate = delegate;
+            this.operation = operation;
+            this.registry = registry;
+        }
+
+        @Override
+        public Object createOrPropagate(final Throwable throwable) throws Exception {
+            registry.recordFallback(operation, delegate.getClass().getSimpleName());
+            return delegate.createOrPropagate(throwable);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public MeteredFallback setContext(final HttpRequest request) {
+            if (delegate instanceof InvocationContext) {
+                ((InvocationContext<?>) delegate).setContext(request);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpRequest;
+
+/**
+ * Intercepts `HttpRequestFilter.filter(HttpRequest)` of the client's own
+ * filters on behalf of the {@link FlightRecorderModule}, committing a
+ * {@link FilterEvent} per filter run.
+ */
+final class FilterEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final FilterEvent event = new FilterEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.operation = RequestMetricsInterceptor.operation((HttpRequest) invocation.getArguments()[0]);
+        event.filter = invocation.getMethod().getDeclaringClass();
+        event.begin();
+        try {
+            return invocation.proceed();
+        } finally {
+            event.commit();
+        }
+    }
+}
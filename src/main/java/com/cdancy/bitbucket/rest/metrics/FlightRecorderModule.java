@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.config.InvocationConfig;
+
+/**
+ * Opt-in module emitting JDK Flight Recorder events, under the `Bitbucket`
+ * category, such that time spent in a client can be told apart from the
+ * rest of an application in JDK Mission Control:
+ *
+ * <ul>
+ * <li>`com.cdancy.bitbucket.HttpRequest` per request, tagged with its
+ * operation's `@Named` id and the response status.</li>
+ * <li>`com.cdancy.bitbucket.Parse` per response deserialized, along with
+ * its size.</li>
+ * <li>`com.cdancy.bitbucket.Fallback` per failed request handed to a
+ * fallback, e.g. one of the `BitbucketFallbacks`, to parse its errors.</li>
+ * <li>`com.cdancy.bitbucket.Filter` per run of the client's request filters,
+ * e.g. the `BitbucketAuthenticationFilter`.</li>
+ * </ul>
+ *
+ * <pre>
+ * BitbucketClient.builder().modules(new FlightRecorderModule()).build();
+ * </pre>
+ *
+ * <p>Events are enabled by default once a recording is started, e.g. with
+ * `-XX:StartFlightRecording`. While no recording is, or the events are
+ * disabled in its settings, nothing but that check is done.
+ */
+public class FlightRecorderModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                new RequestEventInterceptor());
+        bindInterceptor(Matchers.subclassesOf(ParseJson.class)
+                        .or(Matchers.inSubpackage("com.cdancy.bitbucket.rest.parsers")),
+                methodMatcher("apply", HttpResponse.class),
+                new ParseEventInterceptor());
+        bindInterceptor(Matchers.subclassesOf(InvocationConfig.class),
+                methodMatcher("getFallback", Invocation.class),
+                new FallbackEventInterceptor());
+        bindInterceptor(Matchers.subclassesOf(HttpRequestFilter.class)
+                        .and(Matchers.inSubpackage("com.cdancy.bitbucket.rest.filters")),
+                methodMatcher("filter", HttpRequest.class),
+                new FilterEventInterceptor());
+    }
+}
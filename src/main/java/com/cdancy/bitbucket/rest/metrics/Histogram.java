@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative values with HDR-style log-linear
+ * buckets: values below 64 are counted exactly while larger ones fall into
+ * one of 32 equally wide buckets per power of two, bounding the error of
+ * any percentile to about 3% of its value at a fixed few kilobytes. Values
+ * beyond 2^40 (about 18 minutes in nanoseconds, or a terabyte) are counted
+ * in the last bucket.
+ */
+public final class Histogram {
+
+    private static final int LINEAR_BITS = 6;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int MAXIMUM_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAXIMUM_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value, negative values being recorded as 0.
+     *
+     * @param value the value to record.
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(0, value);
+        counts.incrementAndGet(bucket(recorded));
+        count.increment();
+        total.add(recorded);
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * Number of values recorded.
+     *
+     * @return the number of values.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Largest value recorded.
+     *
+     * @return the largest value, 0 if none was recorded.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Mean of the values recorded.
+     *
+     * @return the mean, 0 if none was recorded.
+     */
+    public double mean() {
+        final long values = count.sum();
+        return values > 0 ? total.sum() / (double) values : 0;
+    }
+
+    /**
+     * Value at or below which the passed percentage of the recorded values
+     * fall, e.g. `valueAtPercentile(99)` for the 99th percentile.
+     *
+     * @param percentile percentile between 0 and 100.
+     * @return the highest value of the bucket holding the percentile, never
+     *     more than the largest value recorded, or 0 if none was recorded.
+     */
+    public long valueAtPercentile(final double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            recorded += counts.get(i);
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucket(final long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Math.min(MAXIMUM_EXPONENT, 63 - Long.numberOfLeadingZeros(value));
+        final long subBucket = value >>> (exponent - SUB_BUCKET_BITS);
+        return LINEAR_BUCKETS
+                + (exponent - LINEAR_BITS) * SUB_BUCKETS
+                + (int) Math.min(SUB_BUCKETS - 1, subBucket - SUB_BUCKETS);
+    }
+
+    static long highestValue(final int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        final long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * MetricsRegistry keeping counts and {@link Histogram}s per operation in
+ * memory, for inspecting where a client spends its time:
+ *
+ * <pre>
+ * InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+ * BitbucketClient client = BitbucketClient.builder()
+ *     .modules(new MetricsModule(metrics))
+ *     .build();
+ * ...
+ * metrics.operations().forEach((operation, measured) -&gt; System.out.println(operation
+ *     + " p99=" + measured.networkLatency().valueAtPercentile(99)));
+ * </pre>
+ */
+public final class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Live view of the measurements of every operation measured so far.
+     *
+     * @return measurements keyed by operation id.
+     */
+    public Map<String, OperationMetrics> operations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * Measurements of the passed operation.
+     *
+     * @param operation id of the operation.
+     * @return measurements of the operation, null if it was not measured yet.
+     */
+    @Nullable
+    public OperationMetrics operation(final String operation) {
+        return operations.get(operation);
+    }
+
+    @Override
+    public void recordRequest(final String operation, final int statusCode, final long networkNanos) {
+        metrics(operation).recordRequest(statusCode, networkNanos);
+    }
+
+    @Override
+    public void recordParse(final String operation, final long parseNanos, final long responseBytes) {
+        metrics(operation).recordParse(parseNanos, responseBytes);
+    }
+
+    @Override
+    public void recordFallback(final String operation, final String fallback) {
+        metrics(operation).recordFallback();
+    }
+
+    private OperationMetrics metrics(final String operation) {
+        final OperationMetrics metrics = operations.get(operation);
+        return metrics != null
+                ? metrics
+                : operations.computeIfAbsent(operation, key -> new OperationMetrics());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.google.common.io.CountingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.DelegatingPayload;
+
+/**
+ * Response payload counting the bytes read from it, tagged with the
+ * operation the response belongs to such that parsing can be attributed.
+ */
+final class MeteredPayload extends DelegatingPayload {
+
+    private final String operation;
+    private CountingInputStream stream;
+
+    MeteredPayload(final Payload delegate, final String operation) {
+        super(delegate);
+        this.operation = operation;
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    long bytesRead() {
+        return stream != null ? stream.getCount() : 0;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        stream = new CountingInputStream(super.openStream());
+        return stream;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public InputStream getInput() {
+        try {
+            return openStream();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import java.util.Objects;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.config.InvocationConfig;
+
+/**
+ * Opt-in module measuring every operation of a client, keyed by its `@Named`
+ * id, into the passed {@link MetricsRegistry}: number of requests, network
+ * time, status codes, time spent parsing and size of responses, and
+ * invocations of fallbacks.
+ *
+ * <pre>
+ * BitbucketClient.builder().modules(new MetricsModule(new InMemoryMetricsRegistry())).build();
+ * </pre>
+ *
+ * <p>Network time runs until response headers arrive, the body being read
+ * while it is parsed. Pass this module ahead of other modules intercepting
+ * requests, e.g. the {@link com.cdancy.bitbucket.rest.cache.ConditionalCacheModule},
+ * for it to measure what they hand back rather than what they were handed.
+ * Responses the ConditionalCacheModule serves from its cache are not
+ * measured as parsed, their domain object being parsed at most once.
+ */
+public class MetricsModule extends AbstractModule {
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Create a module recording measurements into the passed registry.
+     *
+     * @param registry the registry to record measurements into.
+     */
+    public MetricsModule(final MetricsRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                new RequestMetricsInterceptor(registry));
+        bindInterceptor(Matchers.subclassesOf(ParseJson.class)
+                        .or(Matchers.inSubpackage("com.cdancy.bitbucket.rest.parsers")),
+                methodMatcher("apply", HttpResponse.class),
+                new ParseMetricsInterceptor(registry));
+        bindInterceptor(Matchers.subclassesOf(InvocationConfig.class),
+                methodMatcher("getFallback", Invocation.class),
+                new FallbackMetricsInterceptor(registry));
+    }
+}
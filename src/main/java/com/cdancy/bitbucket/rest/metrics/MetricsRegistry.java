@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+/**
+ * Receiver of the measurements the {@link MetricsModule} takes of every
+ * operation, keyed by the operation's `@Named` id (e.g. `pull-request:list`).
+ * Implement it to hand measurements to the metrics library of your choice,
+ * or use the {@link InMemoryMetricsRegistry}. Methods are called on the
+ * threads making requests and so should return quickly. Every method does
+ * nothing by default.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Registry dropping every measurement.
+     */
+    MetricsRegistry NOOP = new MetricsRegistry() {
+    };
+
+    /**
+     * A request was made.
+     *
+     * @param operation id of the operation.
+     * @param statusCode status code of the response, or -1 if none was received.
+     * @param networkNanos time from sending the request until its response
+     *     headers arrived, retries included.
+     */
+    default void recordRequest(final String operation, final int statusCode, final long networkNanos) {
+    }
+
+    /**
+     * A response was read and parsed into the object the operation returns.
+     *
+     * @param operation id of the operation.
+     * @param parseNanos time spent reading and parsing the response body.
+     * @param responseBytes number of bytes of the response body read.
+     */
+    default void recordParse(final String operation, final long parseNanos, final long responseBytes) {
+    }
+
+    /**
+     * A failed request was handed to the fallback of the operation, e.g.
+     * one of the `BitbucketFallbacks`.
+     *
+     * @param operation id of the operation.
+     * @param fallback simple name of the fallback class.
+     */
+    default void recordFallback(final String operation, final String fallback) {
+    }
+}
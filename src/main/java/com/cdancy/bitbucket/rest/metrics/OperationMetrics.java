@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of a single operation held by the {@link InMemoryMetricsRegistry}.
+ */
+public final class OperationMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final Histogram networkLatency = new Histogram();
+    private final Histogram parseLatency = new Histogram();
+    private final Histogram responseSizes = new Histogram();
+    private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    OperationMetrics() {
+    }
+
+    /**
+     * Number of requests made.
+     *
+     * @return the number of requests.
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Number of failed requests handed to the operation's fallback.
+     *
+     * @return the number of fallback invocations.
+     */
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * Nanoseconds from sending a request until its response headers arrived.
+     *
+     * @return histogram of network latencies.
+     */
+    public Histogram networkLatency() {
+        return networkLatency;
+    }
+
+    /**
+     * Nanoseconds spent reading and parsing response bodies.
+     *
+     * @return histogram of parse latencies.
+     */
+    public Histogram parseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * Bytes of response bodies read.
+     *
+     * @return histogram of response sizes.
+     */
+    public Histogram responseSizes() {
+        return responseSizes;
+    }
+
+    /**
+     * Number of responses per status code, -1 counting requests which
+     * failed without a response.
+     *
+     * @return snapshot of the number of responses per status code.
+     */
+    public Map<Integer, Long> statusCodes() {
+        final ImmutableSortedMap.Builder<Integer, Long> snapshot = ImmutableSortedMap.naturalOrder();
+        statusCodes.forEach((statusCode, responses) -> snapshot.put(statusCode, responses.sum()));
+        return snapshot.build();
+    }
+
+    void recordRequest(final int statusCode, final long networkNanos) {
+        requests.increment();
+        networkLatency.record(networkNanos);
+        statusCodes.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+    }
+
+    void recordParse(final long parseNanos, final long responseBytes) {
+        parseLatency.record(parseNanos);
+        responseSizes.record(responseBytes);
+    }
+
+    void recordFallback() {
+        fallbacks.increment();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Response body read and deserialized into the object an operation returns.
+ */
+@Name("com.cdancy.bitbucket.Parse")
+@Label("Bitbucket Response Parse")
+@Category({"Bitbucket", "Client"})
+@Description("Response body read and deserialized into the object an operation returns.")
+final class ParseEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Parser")
+    Class<?> parser;
+
+    @Label("Response Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpResponse;
+
+/**
+ * Intercepts the `apply(HttpResponse)` of response parsers on behalf of
+ * the {@link MetricsModule}, recording the time spent reading and parsing
+ * the response as well as its size. Only responses whose payload the
+ * {@link RequestMetricsInterceptor} tagged are measured.
+ */
+final class ParseMetricsInterceptor implements MethodInterceptor {
+
+    private final MetricsRegistry registry;
+
+    ParseMetricsInterceptor(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpResponse response = (HttpResponse) invocation.getArguments()[0];
+        if (response == null || !(response.getPayload() instanceof MeteredPayload)) {
+            return invocation.proceed();
+        }
+
+        final MeteredPayload payload = (MeteredPayload) response.getPayload();
+        final long startedAt = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            registry.recordParse(payload.operation(), System.nanoTime() - startedAt, payload.bytesRead());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.cdancy.bitbucket.rest.cache.ConditionalCacheModule;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link FlightRecorderModule}, committing an {@link HttpRequestEvent}
+ * per request and tagging the payload of its response for the
+ * {@link ParseEventInterceptor} to pick up, unless replayed by the
+ * {@link ConditionalCacheModule} which parses it at most once. Does nothing
+ * but check whether the event is enabled while it is not.
+ */
+final class RequestEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        final HttpRequest request = ((HttpCommand) invocation.getArguments()[0]).getCurrentRequest();
+        event.operation = RequestMetricsInterceptor.operation(request);
+        event.method = request.getMethod();
+        event.uri = request.getEndpoint().toString();
+        event.begin();
+        try {
+            final HttpResponse response = (HttpResponse) invocation.proceed();
+            event.statusCode = response.getStatusCode();
+            // setPayload would release the payload being wrapped
+            return response.getPayload() != null && !ConditionalCacheModule.isCached(response.getPayload())
+                    ? response.toBuilder().payload(new MeteredPayload(response.getPayload(), event.operation)).build()
+                    : response;
+        } catch (final HttpResponseException e) {
+            if (e.getResponse() != null) {
+                event.statusCode = e.getResponse().getStatusCode();
+            }
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+}
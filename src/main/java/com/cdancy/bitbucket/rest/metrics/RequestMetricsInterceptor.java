@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.metrics;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.cdancy.bitbucket.rest.cache.ConditionalCacheModule;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link MetricsModule}, recording status and network time of every
+ * request and tagging the payload of its response with the operation for
+ * the {@link ParseMetricsInterceptor} to pick up. Error responses surface
+ * as HttpResponseExceptions carrying the response. Responses replayed by
+ * the {@link ConditionalCacheModule} are left untagged, as their body is
+ * parsed at most once, whichever module is passed first.
+ */
+final class RequestMetricsInterceptor implements MethodInterceptor {
+
+    private static final int NO_RESPONSE = -1;
+
+    private final MetricsRegistry registry;
+
+    RequestMetricsInterceptor(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final String operation = operation(((HttpCommand) invocation.getArguments()[0]).getCurrentRequest());
+
+        final long startedAt = System.nanoTime();
+        int statusCode = NO_RESPONSE;
+        try {
+            final HttpResponse response = (HttpResponse) invocation.proceed();
+            statusCode = response.getStatusCode();
+            // setPayload would release the payload being wrapped
+            return response.getPayload() != null && !ConditionalCacheModule.isCached(response.getPayload())
+                    ? response.toBuilder().payload(new MeteredPayload(response.getPayload(), operation)).build()
+                    : response;
+        } catch (final HttpResponseException e) {
+            if (e.getResponse() != null) {
+                statusCode = e.getResponse().getStatusCode();
+            }
+            throw e;
+        } finally {
+            registry.recordRequest(operation, statusCode, System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Id of the operation the passed request was generated for, or its
+     * method and path should it not have been generated from an api method.
+     */
+    static String operation(final HttpRequest request) {
+        return request instanceof GeneratedHttpRequest
+                ? BitbucketUtils.operationId(((GeneratedHttpRequest) request).getInvocation().getInvokable())
+                : request.getMethod() + " " + request.getEndpoint().getPath();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import com.cdancy.bitbucket.rest.domain.common.Page;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Fetches a single Page of some listing. Typically a lambda forwarding the
+ * `start` and `limit` to one of the list endpoints, e.g.:
+ *
+ * <pre>
+ * (start, limit) -&gt; api.branchApi().list("PRJ", "my-repo", null, null, null, null, start, limit)
+ * </pre>
+ *
+ * @param <T> the type of value held by the Page.
+ */
+@FunctionalInterface
+public interface PageFetcher<T> {
+
+    /**
+     * Fetch the Page beginning at the passed offset.
+     *
+     * @param start offset of the first value to fetch.
+     * @param limit maximum number of values to fetch, or null for the server default.
+     * @return the fetched Page.
+     */
+    Page<T> fetch(int start, @Nullable Integer limit);
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Iterable over every value of a paged listing, e.g. all branches of a
+ * repository, following `nextPageStart` until the page marked as
+ * `isLastPage` has been consumed. Pages are only fetched once iteration
+ * reaches them, with the next page, or several pages concurrently when
+ * configured with a {@link Builder#parallelism(int)}, being fetched in the
+ * background while the current one is consumed. Each call to
+ * {@link #iterator()}, or {@link #stream()}, starts over from the first page.
+ *
+ * <pre>
+ * PagedIterable&lt;Branch&gt; branches = PagedIterable.builder((start, limit) -&gt;
+ *         api.branchApi().list("PRJ", "my-repo", null, null, null, null, start, limit))
+ *     .limit(100)
+ *     .build();
+ * </pre>
+ *
+ * <p>Should a page come back holding errors iteration stops by throwing
+ * a {@link com.cdancy.bitbucket.rest.exception.PageFetchException}.
+ *
+ * @param <T> the type of value held by the pages.
+ */
+public final class PagedIterable<T> implements Iterable<T> {
+
+    private final PageFetcher<T> fetcher;
+    private final int start;
+    private final Integer limit;
+    private final Executor executor;
+    private final int parallelism;
+
+    private PagedIterable(final Builder<T> builder) {
+        this.fetcher = Pages.projected(builder.fetcher, builder.projection);
+        this.start = builder.start;
+        this.limit = builder.limit;
+        this.executor = builder.prefetch
+                ? (builder.executor != null ? builder.executor : PagingExecutors.defaultExecutor())
+                : null;
+        this.parallelism = builder.parallelism;
+    }
+
+    /**
+     * Create a builder of PagedIterable over the pages handed back by the
+     * passed PageFetcher.
+     *
+     * @param <T> the type of value held by the pages.
+     * @param fetcher fetches a single page.
+     * @return instance of Builder.
+     */
+    public static <T> Builder<T> builder(final PageFetcher<T> fetcher) {
+        return new Builder<>(fetcher);
+    }
+
+    /**
+     * Create a PagedIterable, using the defaults, over the pages handed
+     * back by the passed PageFetcher.
+     *
+     * @param <T> the type of value held by the pages.
+     * @param fetcher fetches a single page.
+     * @return instance of PagedIterable.
+     */
+    public static <T> PagedIterable<T> of(final PageFetcher<T> fetcher) {
+        return builder(fetcher).build();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PagedIterator<>(fetcher, start, limit, executor, parallelism);
+    }
+
+    /**
+     * Sequential, and ordered, Stream over every value of the listing.
+     * Closing the Stream abandons any page still being prefetched.
+     *
+     * @return Stream of values.
+     */
+    public Stream<T> stream() {
+        final PagedIterator<T> iterator = new PagedIterator<>(fetcher, start, limit, executor, parallelism);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public static class Builder<T> {
+
+        private final PageFetcher<T> fetcher;
+        private int start;
+        private Integer limit;
+        private boolean prefetch = true;
+        private Executor executor;
+        private int parallelism = 1;
+        private Projection projection;
+
+        Builder(final PageFetcher<T> fetcher) {
+            this.fetcher = Objects.requireNonNull(fetcher);
+        }
+
+        /**
+         * Offset of the first value to fetch. Defaults to 0.
+         *
+         * @param start offset of the first value.
+         * @return this Builder.
+         */
+        public Builder<T> start(final int start) {
+            this.start = start;
+            return this;
+        }
+
+        /**
+         * Number of values to ask for per page. Defaults to the server
+         * default which, for most endpoints, is 25.
+         *
+         * @param limit page size.
+         * @return this Builder.
+         */
+        public Builder<T> limit(@Nullable final Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Whether to fetch the next page in the background while the current
+         * one is being consumed. Defaults to true. When false every page is
+         * fetched on the iterating thread once the previous is exhausted.
+         *
+         * @param prefetch whether to prefetch the next page.
+         * @return this Builder.
+         */
+        public Builder<T> prefetch(final boolean prefetch) {
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        /**
+         * Executor pages are prefetched on. Defaults to a shared pool of
+         * daemon threads.
+         *
+         * @param executor the Executor to prefetch on.
+         * @return this Builder.
+         */
+        public Builder<T> executor(final Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Number of pages to fetch concurrently ahead of the one being
+         * consumed. Defaults to 1. Once the first page reveals how far apart
+         * pages start the following ones are requested speculatively, as
+         * Bitbucket pages by offset, which turns walking huge listings (e.g.
+         * all repositories of an instance) from latency bound into
+         * throughput bound. Values are still handed out in order, and any
+         * page requested beyond the last one is discarded. Requires
+         * prefetching to be enabled.
+         *
+         * @param parallelism number of pages to fetch concurrently.
+         * @return this Builder.
+         */
+        public Builder<T> parallelism(final int parallelism) {
+            checkArgument(parallelism > 0, "parallelism must be greater than 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Projection every page is fetched under, e.g. to only read the
+         * fields of the values which are needed. Defaults to none.
+         *
+         * @param projection the Projection to fetch under.
+         * @return this Builder.
+         */
+        public Builder<T> projection(final Projection projection) {
+            this.projection = Objects.requireNonNull(projection);
+            return this;
+        }
+
+        /**
+         * Build an instance of PagedIterable.
+         *
+         * @return PagedIterable
+         */
+        public PagedIterable<T> build() {
+            checkState(prefetch || parallelism == 1, "parallelism requires prefetching to be enabled");
+            return new PagedIterable<>(this);
+        }
+    }
+}
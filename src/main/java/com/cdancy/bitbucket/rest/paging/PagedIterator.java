@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import com.cdancy.bitbucket.rest.domain.common.Page;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Iterator walking the pages of a listing on behalf of {@link PagedIterable}.
+ * When given an Executor up to `parallelism` pages following the one being
+ * consumed are fetched on it in the background, otherwise pages are fetched
+ * on the iterating thread as needed.
+ *
+ * <p>Bitbucket pages by offset, so once a page reveals how far apart pages
+ * start the following windows can be requested speculatively, and
+ * concurrently, at `nextPageStart + n * stride`. Values are still handed
+ * out in order and should a page not start where speculated, e.g. because
+ * the listing changed underneath us, the outstanding windows are abandoned
+ * and fetching resumes from the reported `nextPageStart`. Windows beyond
+ * the page marked as `isLastPage` are abandoned as well.
+ */
+final class PagedIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final PageFetcher<T> fetcher;
+    private final Integer limit;
+    private final Executor executor;
+    private final int parallelism;
+    private final Deque<Window<T>> windows = new ArrayDeque<>();
+
+    private Iterator<T> values = Collections.emptyIterator();
+    private int nextStart;
+    private int stride;
+    private boolean lastPage;
+
+    PagedIterator(final PageFetcher<T> fetcher,
+            final int start,
+            @Nullable final Integer limit,
+            @Nullable final Executor executor,
+            final int parallelism) {
+        this.fetcher = fetcher;
+        this.nextStart = start;
+        this.limit = limit;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!values.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            advance();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return values.next();
+    }
+
+    /**
+     * Abandon any page still being fetched in the background.
+     */
+    @Override
+    public void close() {
+        lastPage = true;
+        values = Collections.emptyIterator();
+        abandonWindows();
+    }
+
+    private void advance() {
+        final Window<T> window = windows.poll();
+        final int start = window != null ? window.start : nextStart;
+        final Page<T> page;
+        try {
+            page = Pages.checkErrors(start, window != null
+                    ? join(window.page)
+                    : fetcher.fetch(start, limit));
+        } catch (final RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        if (page == null) {
+            close();
+            return;
+        }
+
+        values = page.values().iterator();
+        if (Pages.isLastPage(start, page)) {
+            lastPage = true;
+            abandonWindows();
+            return;
+        }
+
+        final Window<T> speculated = windows.peek();
+        if (speculated == null || speculated.start != page.nextPageStart()) {
+            abandonWindows();
+            nextStart = page.nextPageStart();
+        }
+        stride = page.nextPageStart() - start;
+        schedule();
+    }
+
+    private void schedule() {
+        if (executor == null) {
+            return;
+        }
+        while (windows.size() < parallelism) {
+            final int windowStart = nextStart;
+            windows.add(new Window<>(windowStart,
+                    CompletableFuture.supplyAsync(() -> fetcher.fetch(windowStart, limit), executor)));
+            nextStart += stride;
+        }
+    }
+
+    private void abandonWindows() {
+        for (final Window<T> window : windows) {
+            window.page.cancel(false);
+        }
+        windows.clear();
+    }
+
+    private static <T> Page<T> join(final CompletableFuture<Page<T>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A page being fetched along with the offset it was asked for at.
+     */
+    private static final class Window<T> {
+
+        final int start;
+        final CompletableFuture<Page<T>> page;
+
+        Window(final int start, final CompletableFuture<Page<T>> page) {
+            this.start = start;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import com.cdancy.bitbucket.rest.domain.common.Page;
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Flow.Publisher of every value of a paged listing which only fetches a
+ * page once its subscriber has asked for more values than are left of the
+ * current one. At most a single page is held in memory per subscription no
+ * matter how large the listing, or how slow the subscriber, is.
+ *
+ * <pre>
+ * Flow.Publisher&lt;Commit&gt; commits = PagedPublisher.builder((start, limit) -&gt;
+ *         api.commitsApi().list("PRJ", "my-repo", null, null, null, null, null, null, null, start, limit))
+ *     .limit(100)
+ *     .build();
+ * </pre>
+ *
+ * <p>Pages are fetched, and all signals delivered, on the configured
+ * Executor. Every subscription starts over from the first page. A page
+ * holding errors ends the subscription with a
+ * {@link com.cdancy.bitbucket.rest.exception.PageFetchException}.
+ *
+ * @param <T> the type of value held by the pages.
+ */
+public final class PagedPublisher<T> implements Flow.Publisher<T> {
+
+    private final PageFetcher<T> fetcher;
+    private final int start;
+    private final Integer limit;
+    private final Executor executor;
+
+    private PagedPublisher(final Builder<T> builder) {
+        this.fetcher = Pages.projected(builder.fetcher, builder.projection);
+        this.start = builder.start;
+        this.limit = builder.limit;
+        this.executor = builder.executor != null
+                ? builder.executor
+                : PagingExecutors.defaultExecutor();
+    }
+
+    /**
+     * Create a builder of PagedPublisher over the pages handed back by the
+     * passed PageFetcher.
+     *
+     * @param <T> the type of value held by the pages.
+     * @param fetcher fetches a single page.
+     * @return instance of Builder.
+     */
+    public static <T> Builder<T> builder(final PageFetcher<T> fetcher) {
+        return new Builder<>(fetcher);
+    }
+
+    /**
+     * Create a PagedPublisher, using the defaults, over the pages handed
+     * back by the passed PageFetcher.
+     *
+     * @param <T> the type of value held by the pages.
+     * @param fetcher fetches a single page.
+     * @return instance of PagedPublisher.
+     */
+    public static <T> PagedPublisher<T> of(final PageFetcher<T> fetcher) {
+        return builder(fetcher).build();
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new PagedSubscription<>(subscriber, fetcher, start, limit, executor));
+    }
+
+    /**
+     * Subscription serializing all work, fetching as well as signalling, in
+     * a drain loop of which at most one runs on the Executor at any time.
+     */
+    private static final class PagedSubscription<T> implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final PageFetcher<T> fetcher;
+        private final Integer limit;
+        private final Executor executor;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        // only touched from within the drain loop
+        private Iterator<? extends T> values = Collections.emptyIterator();
+        private int nextStart;
+        private boolean lastPage;
+        private boolean done;
+        private Throwable invalidRequest;
+        private volatile boolean cancelled;
+
+        PagedSubscription(final Flow.Subscriber<? super T> subscriber,
+                final PageFetcher<T> fetcher,
+                final int start,
+                @Nullable final Integer limit,
+                final Executor executor) {
+            this.subscriber = subscriber;
+            this.fetcher = fetcher;
+            this.nextStart = start;
+            this.limit = limit;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("non-positive subscription request: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this::drainLoop);
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            while (!done) {
+                if (cancelled) {
+                    done = true;
+                    values = Collections.emptyIterator();
+                } else if (invalidRequest != null) {
+                    terminate(invalidRequest);
+                } else if (values.hasNext()) {
+                    if (demand.get() == 0) {
+                        return;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(values.next());
+                } else if (lastPage) {
+                    done = true;
+                    subscriber.onComplete();
+                } else if (demand.get() == 0) {
+                    return;
+                } else {
+                    fetchNextPage();
+                }
+            }
+        }
+
+        private void fetchNextPage() {
+            final int start = nextStart;
+            final Page<T> page;
+            try {
+                page = Pages.checkErrors(start, fetcher.fetch(start, limit));
+            } catch (final RuntimeException e) {
+                terminate(e);
+                return;
+            }
+
+            if (page == null) {
+                lastPage = true;
+                return;
+            }
+            values = page.values().iterator();
+            lastPage = Pages.isLastPage(start, page);
+            nextStart = page.nextPageStart();
+        }
+
+        private void terminate(final Throwable throwable) {
+            done = true;
+            values = Collections.emptyIterator();
+            subscriber.onError(throwable);
+        }
+    }
+
+    public static class Builder<T> {
+
+        private final PageFetcher<T> fetcher;
+        private int start;
+        private Integer limit;
+        private Executor executor;
+        private Projection projection;
+
+        Builder(final PageFetcher<T> fetcher) {
+            this.fetcher = Objects.requireNonNull(fetcher);
+        }
+
+        /**
+         * Offset of the first value to fetch. Defaults to 0.
+         *
+         * @param start offset of the first value.
+         * @return this Builder.
+         */
+        public Builder<T> start(final int start) {
+            this.start = start;
+            return this;
+        }
+
+        /**
+         * Number of values to ask for per page, and so the most values held
+         * in memory per subscription. Defaults to the server default which,
+         * for most endpoints, is 25.
+         *
+         * @param limit page size.
+         * @return this Builder.
+         */
+        public Builder<T> limit(@Nullable final Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Executor pages are fetched, and signals delivered, on. Defaults to
+         * a shared pool of daemon threads.
+         *
+         * @param executor the Executor to publish on.
+         * @return this Builder.
+         */
+        public Builder<T> executor(final Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Projection every page is fetched under, e.g. to only read the
+         * fields of the values which are needed. Defaults to none.
+         *
+         * @param projection the Projection to fetch under.
+         * @return this Builder.
+         */
+        public Builder<T> projection(final Projection projection) {
+            this.projection = Objects.requireNonNull(projection);
+            return this;
+        }
+
+        /**
+         * Build an instance of PagedPublisher.
+         *
+         * @return PagedPublisher
+         */
+        public PagedPublisher<T> build() {
+            return new PagedPublisher<>(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import com.cdancy.bitbucket.rest.domain.common.ErrorsHolder;
+import com.cdancy.bitbucket.rest.domain.common.Page;
+import com.cdancy.bitbucket.rest.exception.PageFetchException;
+import com.cdancy.bitbucket.rest.projection.Projection;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Checks, and helpers, shared by everything walking the pages of a listing.
+ */
+final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * Hand back the passed page unless it holds errors.
+     *
+     * @param <T> the type of value held by the page.
+     * @param start offset the page was asked for at.
+     * @param page the fetched page.
+     * @return the passed page.
+     * @throws PageFetchException if the page holds errors.
+     */
+    static <T> Page<T> checkErrors(final int start, final Page<T> page) {
+        if (page instanceof ErrorsHolder && !((ErrorsHolder) page).errors().isEmpty()) {
+            throw new PageFetchException(start, ((ErrorsHolder) page).errors());
+        }
+        return page;
+    }
+
+    /**
+     * Have the passed PageFetcher fetch every page under a projection.
+     *
+     * @param <T> the type of value held by the pages.
+     * @param fetcher fetches a single page.
+     * @param projection projection to fetch under, or null for none.
+     * @return the projecting PageFetcher.
+     */
+    static <T> PageFetcher<T> projected(final PageFetcher<T> fetcher, @Nullable final Projection projection) {
+        return projection != null
+                ? (start, limit) -> projection.apply(() -> fetcher.fetch(start, limit))
+                : fetcher;
+    }
+
+    /**
+     * Whether no page follows the passed one, also guarding against a
+     * server handing back a page pointing at itself.
+     *
+     * @param start offset the page was asked for at.
+     * @param page the fetched page.
+     * @return true if this is the last page.
+     */
+    static boolean isLastPage(final int start, final Page<?> page) {
+        return page.isLastPage() || page.nextPageStart() <= start;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.paging;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holder of the Executor pages are prefetched on when none was configured.
+ */
+final class PagingExecutors {
+
+    private PagingExecutors() {
+    }
+
+    /**
+     * Shared, lazily created, pool of daemon threads which are reaped once
+     * idle and so never keep the JVM alive.
+     *
+     * @return the default paging Executor.
+     */
+    static ExecutorService defaultExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("bitbucket-paging-%d")
+                .setDaemon(true)
+                .build());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.projection;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable List of a field read lazily, decoded once first accessed.
+ *
+ * @param <T> the type of value held.
+ */
+final class LazyList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final LazyValue<List<T>> values;
+
+    LazyList(final LazyValue<List<T>> values) {
+        this.values = values;
+    }
+
+    @Override
+    public T get(final int index) {
+        return values.get().get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.get().size();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.projection;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable Map of a field read lazily, decoded once first accessed.
+ *
+ * @param <K> the type of key.
+ * @param <V> the type of value.
+ */
+final class LazyMap<K, V> extends AbstractMap<K, V> {
+
+    private final LazyValue<Map<K, V>> entries;
+
+    LazyMap(final LazyValue<Map<K, V>> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public V get(final Object key) {
+        return entries.get().get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return entries.get().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.get().size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entries.get().entrySet();
+    }
+}
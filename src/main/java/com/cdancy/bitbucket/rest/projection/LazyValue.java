@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.projection;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * JSON of a field read lazily, kept as compact UTF-8 until first accessed
+ * and then decoded, once, under the projection it was read under.
+ *
+ * <p>Gson's JsonReader does not tell where a value sits in the response,
+ * which jclouds streams rather than buffers, so the JSON cannot be sliced
+ * out of it. It is instead copied token by token, encoded straight into a
+ * buffer reused across captures, such that the bytes held are the only
+ * allocation beyond the tokens themselves.
+ *
+ * @param <T> the type of value decoded.
+ */
+final class LazyValue<T> {
+
+    // buffers grown beyond this are not kept for the next capture
+    private static final int MAXIMUM_BUFFER = 64 * 1024;
+    private static final ThreadLocal<Utf8Buffer> BUFFER = ThreadLocal.withInitial(Utf8Buffer::new);
+
+    private final TypeAdapter<T> adapter;
+    private final Projection projection;
+    private byte[] json;
+    private volatile T value;
+
+    LazyValue(final TypeAdapter<T> adapter, final byte[] json, @Nullable final Projection projection) {
+        this.adapter = adapter;
+        this.json = json;
+        this.projection = projection;
+    }
+
+    T get() {
+        T decoded = value;
+        if (decoded == null) {
+            synchronized (this) {
+                decoded = value;
+                if (decoded == null) {
+                    decoded = projection != null ? projection.apply(this::decode) : decode();
+                    value = decoded;
+                    json = null;
+                }
+            }
+        }
+        return decoded;
+    }
+
+    private T decode() {
+        try (JsonReader in = new JsonReader(new StringReader(new String(json, StandardCharsets.UTF_8)))) {
+            return adapter.read(in);
+        } catch (final IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * Copy the array or object the passed JsonReader is at, token by token,
+     * as compact UTF-8 encoded JSON.
+     *
+     * @return the JSON, or null if the array or object is empty.
+     */
+    @Nullable
+    static byte[] capture(final JsonReader in) throws IOException {
+        final JsonToken begin = in.peek();
+        if (begin == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+        } else {
+            in.beginObject();
+        }
+        if (!in.hasNext()) {
+            if (begin == JsonToken.BEGIN_ARRAY) {
+                in.endArray();
+            } else {
+                in.endObject();
+            }
+            return null;
+        }
+
+        final Utf8Buffer out = BUFFER.get();
+        out.size = 0;
+        out.write(begin == JsonToken.BEGIN_ARRAY ? '[' : '{');
+        // whether the next value or name follows another, and so a comma
+        boolean separate = false;
+        int depth = 1;
+        do {
+            final JsonToken token = in.peek();
+            switch (token) {
+                case END_ARRAY:
+                    in.endArray();
+                    out.write(']');
+                    depth--;
+                    separate = true;
+                    continue;
+                case END_OBJECT:
+                    in.endObject();
+                    out.write('}');
+                    depth--;
+                    separate = true;
+                    continue;
+                default:
+                    break;
+            }
+            if (separate) {
+                out.write(',');
+            }
+            separate = true;
+            switch (token) {
+                case BEGIN_ARRAY:
+                    in.beginArray();
+                    out.write('[');
+                    depth++;
+                    separate = false;
+                    break;
+                case BEGIN_OBJECT:
+                    in.beginObject();
+                    out.write('{');
+                    depth++;
+                    separate = false;
+                    break;
+                case NAME:
+                    out.string(in.nextName());
+                    out.write(':');
+                    separate = false;
+                    break;
+                case STRING:
+                    out.string(in.nextString());
+                    break;
+                case NUMBER:
+                    // as written, such that no precision is lost
+                    out.ascii(in.nextString());
+                    break;
+                case BOOLEAN:
+                    out.ascii(in.nextBoolean() ? "true" : "false");
+                    break;
+                case NULL:
+                    in.nextNull();
+                    out.ascii("null");
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected " + token + " at " + in.getPath());
+            }
+        } while (depth > 0);
+
+        final byte[] json = Arrays.copyOf(out.bytes, out.size);
+        if (out.bytes.length > MAXIMUM_BUFFER) {
+            BUFFER.remove();
+        }
+        return json;
+    }
+
+    /**
+     * Growable byte array JSON is encoded into, reused across captures.
+     */
+    private static final class Utf8Buffer {
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        byte[] bytes = new byte[1024];
+        int size;
+
+        void write(final int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void ascii(final String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        /**
+         * Write the passed value as a quoted JSON string, escaping quotes,
+         * backslashes, control characters and unpaired surrogates.
+         */
+        void string(final String value) {
+            // a character takes at most 6 bytes, as an escape
+            ensure(value.length() * 6 + 2);
+            bytes[size++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[size++] = '\\';
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x20) {
+                    escape(c);
+                } else if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xc0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[size++] = (byte) (0xf0 | codePoint >> 18);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    escape(c);
+                } else {
+                    bytes[size++] = (byte) (0xe0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            bytes[size++] = '"';
+        }
+
+        private void escape(final char c) {
+            bytes[size++] = '\\';
+            bytes[size++] = 'u';
+            bytes[size++] = HEX[c >> 12];
+            bytes[size++] = HEX[c >> 8 & 0xf];
+            bytes[size++] = HEX[c >> 4 & 0xf];
+            bytes[size++] = HEX[c & 0xf];
+        }
+
+        private void ensure(final int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.projection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Restricts which fields of a domain class are read from responses, e.g.
+ * for a dashboard only needing a few fields of every pull request of a
+ * listing:
+ *
+ * <pre>
+ * Projection projection = Projection.builder()
+ *     .include(PullRequest.class, "id", "title", "state", "updatedDate")
+ *     .build();
+ * PullRequestPage page = projection.apply(() -&gt; client.api().pullRequestApi()
+ *     .list("PRJ", "my-repo", null, null, null, null, null, null, 0, 100));
+ * </pre>
+ *
+ * <p>The JSON subtrees of every other field are skipped without being
+ * parsed, leaving those fields null, empty or 0. Fields which must not be
+ * null, e.g. the `id` of a repository, are read regardless. Classes not
+ * included, like `PullRequestPage` above, are read in full.
+ *
+ * <p>Heavy fields which are rarely looked at, e.g. the replies, tasks and
+ * properties of comments, may instead be read lazily. Their JSON is then
+ * kept as compact UTF-8 and only decoded on first access:
+ *
+ * <pre>
+ * Projection projection = Projection.builder()
+ *     .lazy(Comments.class, "comments", "tasks", "properties")
+ *     .build();
+ * </pre>
+ *
+ * <p>Only fields holding a List or Map can be read lazily, any other is
+ * read as usual.
+ *
+ * <p>A projection is in effect for the calls made within
+ * {@link #apply(Supplier)} on the calling thread, and for their async or
+ * hedged counterparts. Pages are projected through
+ * `PagedIterable.Builder.projection(...)`. Projected results are never
+ * cached nor shared with calls made without the projection.
+ */
+public final class Projection {
+
+    private static final ThreadLocal<Projection> CURRENT = new ThreadLocal<>();
+
+    // number of calls in effect, sparing reads a ThreadLocal lookup when 0
+    private static final AtomicInteger APPLIED = new AtomicInteger();
+
+    private final Map<Class<?>, Set<String>> fields;
+    private final Map<Class<?>, Set<String>> lazyFields;
+
+    private Projection(final Builder builder) {
+        final ImmutableMap.Builder<Class<?>, Set<String>> included = ImmutableMap.builder();
+        builder.fields.forEach((type, names) -> included.put(type, builder.lazyFields.containsKey(type)
+                ? ImmutableSet.<String>builder().addAll(names).addAll(builder.lazyFields.get(type)).build()
+                : names));
+        this.fields = included.build();
+        this.lazyFields = ImmutableMap.copyOf(builder.lazyFields);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Projection in effect on the calling thread.
+     *
+     * @return the current projection, or null if there is none.
+     */
+    @Nullable
+    public static Projection current() {
+        return APPLIED.get() > 0 ? CURRENT.get() : null;
+    }
+
+    /**
+     * Names, as in the JSON, of the fields to read of the passed domain
+     * class under the projection in effect on the calling thread. Called by
+     * the TypeAdapters generated for the domain classes.
+     *
+     * @param type the domain class being read.
+     * @return the fields to read, or null to read every field.
+     */
+    @Nullable
+    public static Set<String> fieldsOf(final Class<?> type) {
+        final Projection projection = current();
+        return projection != null ? projection.fields.get(type) : null;
+    }
+
+    /**
+     * Names of the fields of the passed domain class to read lazily under
+     * the projection in effect on the calling thread. Called by the
+     * TypeAdapters generated for the domain classes.
+     *
+     * @param type the domain class being read.
+     * @return the fields to read lazily, or null to read every field eagerly.
+     */
+    @Nullable
+    public static Set<String> lazyFieldsOf(final Class<?> type) {
+        final Projection projection = current();
+        return projection != null ? projection.lazyFields.get(type) : null;
+    }
+
+    /**
+     * Read the List the passed JsonReader is at as compact JSON, decoded by
+     * the passed TypeAdapter once first accessed. Empty Lists are handed
+     * back as such. Called by the TypeAdapters
+     * generated for the domain classes.
+     *
+     * @param <T> the type of value held by the List.
+     * @param adapter TypeAdapter decoding the List.
+     * @param in the JsonReader to read from.
+     * @return the lazily decoded List.
+     * @throws IOException if reading fails.
+     */
+    public static <T> List<T> lazyList(final TypeAdapter<List<T>> adapter, final JsonReader in) throws IOException {
+        final byte[] json = LazyValue.capture(in);
+        return json != null ? new LazyList<>(new LazyValue<>(adapter, json, current())) : ImmutableList.of();
+    }
+
+    /**
+     * Read the Map the passed JsonReader is at as compact JSON, decoded by
+     * the passed TypeAdapter once first accessed. Empty Maps are handed
+     * back as such. Called by the TypeAdapters
+     * generated for the domain classes.
+     *
+     * @param <K> the type of key of the Map.
+     * @param <V> the type of value of the Map.
+     * @param adapter TypeAdapter decoding the Map.
+     * @param in the JsonReader to read from.
+     * @return the lazily decoded Map.
+     * @throws IOException if reading fails.
+     */
+    public static <K, V> Map<K, V> lazyMap(final TypeAdapter<Map<K, V>> adapter, final JsonReader in) throws IOException {
+        final byte[] json = LazyValue.capture(in);
+        return json != null ? new LazyMap<>(new LazyValue<>(adapter, json, current())) : ImmutableMap.of();
+    }
+
+    /**
+     * Whether the passed collection is read lazily, and so immutable, such
+     * that it needs not, and should not, be copied.
+     *
+     * @param collection a List or Map.
+     * @return true if the collection is read lazily.
+     */
+    public static boolean isLazy(final Object collection) {
+        return collection instanceof LazyList || collection instanceof LazyMap;
+    }
+
+    /**
+     * Wrap the passed Executor such that tasks run under the projection in
+     * effect on the thread handing them over.
+     *
+     * @param executor the Executor to run tasks on.
+     * @return Executor propagating the current projection.
+     */
+    public static Executor propagating(final Executor executor) {
+        Objects.requireNonNull(executor);
+        return task -> {
+            final Projection projection = current();
+            executor.execute(projection != null ? () -> projection.apply(() -> {
+                task.run();
+                return null;
+            }) : task);
+        };
+    }
+
+    /**
+     * Make the passed call, typically of a list endpoint, with this
+     * projection in effect.
+     *
+     * @param <T> the type of result.
+     * @param call the call to make.
+     * @return the result of the call.
+     */
+    public <T> T apply(final Supplier<T> call) {
+        final Projection outer = CURRENT.get();
+        CURRENT.set(this);
+        APPLIED.incrementAndGet();
+        try {
+            return call.get();
+        } finally {
+            APPLIED.decrementAndGet();
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Names of the fields read of the passed domain class.
+     *
+     * @param type the domain class.
+     * @return the fields read, or null if read in full.
+     */
+    @Nullable
+    public Set<String> fields(final Class<?> type) {
+        return fields.get(type);
+    }
+
+    @Override
+    public String toString() {
+        return "Projection{fields=" + fields + ", lazyFields=" + lazyFields + "}";
+    }
+
+    public static class Builder {
+
+        private final Map<Class<?>, Set<String>> fields = new LinkedHashMap<>();
+        private final Map<Class<?>, Set<String>> lazyFields = new LinkedHashMap<>();
+
+        /**
+         * Read only the passed fields of a domain class.
+         *
+         * @param type the domain class, e.g. PullRequest.class.
+         * @param fields names of the fields to read, as in the JSON.
+         * @return this Builder.
+         */
+        public Builder include(final Class<?> type, final String... fields) {
+            checkArgument(fields.length > 0, "at least one field must be included");
+            this.fields.put(Objects.requireNonNull(type), ImmutableSet.copyOf(fields));
+            return this;
+        }
+
+        /**
+         * Read the passed fields of a domain class lazily, i.e. keep their
+         * JSON and only decode it once first accessed. Fields which are not
+         * a List or Map are read as usual.
+         *
+         * @param type the domain class, e.g. Comments.class.
+         * @param fields names of the fields to read lazily, as in the JSON.
+         * @return this Builder.
+         */
+        public Builder lazy(final Class<?> type, final String... fields) {
+            checkArgument(fields.length > 0, "at least one field must be lazy");
+            this.lazyFields.put(Objects.requireNonNull(type), ImmutableSet.copyOf(fields));
+            return this;
+        }
+
+        /**
+         * Build an instance of Projection.
+         *
+         * @return Projection
+         */
+        public Projection build() {
+            checkArgument(!fields.isEmpty() || !lazyFields.isEmpty(), "at least one class must be included");
+            return new Projection(this);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * The rate limit related headers of a response. Bitbucket limits every user
+ * through a token bucket of `X-RateLimit-Limit` tokens, refilled with
+ * `X-RateLimit-FillRate` tokens every `X-RateLimit-Interval-Seconds`, of
+ * which `X-RateLimit-Remaining` are left, and answers requests finding it
+ * empty with `429 Too Many Requests` and a `Retry-After`.
+ */
+final class RateLimitHeaders {
+
+    static final String LIMIT = "X-RateLimit-Limit";
+    static final String REMAINING = "X-RateLimit-Remaining";
+    static final String FILL_RATE = "X-RateLimit-FillRate";
+    static final String INTERVAL_SECONDS = "X-RateLimit-Interval-Seconds";
+
+    final Integer limit;
+    final Integer remaining;
+    final Double permitsPerSecond;
+    final Duration retryAfter;
+
+    private RateLimitHeaders(@Nullable final Integer limit,
+            @Nullable final Integer remaining,
+            @Nullable final Double permitsPerSecond,
+            @Nullable final Duration retryAfter) {
+        this.limit = limit;
+        this.remaining = remaining;
+        this.permitsPerSecond = permitsPerSecond;
+        this.retryAfter = retryAfter;
+    }
+
+    static RateLimitHeaders parse(final HttpResponse response) {
+        final Integer fillRate = integer(response.getFirstHeaderOrNull(FILL_RATE));
+        final Integer interval = integer(response.getFirstHeaderOrNull(INTERVAL_SECONDS));
+        final Double permitsPerSecond = fillRate != null && fillRate > 0
+                ? Double.valueOf(fillRate / (double) (interval != null && interval > 0 ? interval : 1))
+                : null;
+        return new RateLimitHeaders(integer(response.getFirstHeaderOrNull(LIMIT)),
+                integer(response.getFirstHeaderOrNull(REMAINING)),
+                permitsPerSecond,
+                retryAfter(response.getFirstHeaderOrNull(HttpHeaders.RETRY_AFTER)));
+    }
+
+    /**
+     * Parse a `Retry-After` given as either delay in seconds or HTTP-date.
+     */
+    @Nullable
+    static Duration retryAfter(@Nullable final String value) {
+        if (value == null) {
+            return null;
+        }
+        final Double seconds = Doubles.tryParse(value.trim());
+        if (seconds != null) {
+            return seconds > 0 ? Duration.ofMillis((long) (seconds * 1000)) : Duration.ZERO;
+        }
+        try {
+            final Duration untilDate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Integer integer(@Nullable final String value) {
+        return value != null ? Ints.tryParse(value.trim()) : null;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import com.cdancy.bitbucket.rest.BitbucketAuthentication;
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+
+import jakarta.inject.Inject;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * the {@link RateLimitModule}. Every request first takes a token from the
+ * bucket of its endpoint and credential, and every response, whether
+ * successful or not, updates that bucket from its headers. jclouds surfaces
+ * a `429 Too Many Requests` as an HttpResponseException, upon which the
+ * request is sent again once `Retry-After` has passed.
+ */
+final class RateLimitInterceptor implements MethodInterceptor {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final RateLimiter limiter;
+    private volatile String credential;
+
+    RateLimitInterceptor(final RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Pick up the credential of the client this interceptor was created for.
+     *
+     * @param authentication the client's authentication.
+     */
+    @Inject
+    void credential(final BitbucketAuthentication authentication) {
+        credential = BitbucketUtils.credentialFingerprint(authentication);
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final HttpCommand command = (HttpCommand) invocation.getArguments()[0];
+        final URI uri = command.getCurrentRequest().getEndpoint();
+        final TokenBucket bucket = limiter.bucket(uri.getScheme() + "://" + uri.getRawAuthority(), credential);
+
+        for (int attempt = 0; ; attempt++) {
+            bucket.acquire();
+            try {
+                final HttpResponse response = (HttpResponse) invocation.proceed();
+                bucket.update(RateLimitHeaders.parse(response), System.nanoTime());
+                return response;
+            } catch (final HttpResponseException e) {
+                final HttpResponse response = e.getResponse();
+                if (response == null) {
+                    throw e;
+                }
+                final RateLimitHeaders headers = RateLimitHeaders.parse(response);
+                bucket.update(headers, System.nanoTime());
+                if (response.getStatusCode() != TOO_MANY_REQUESTS) {
+                    throw e;
+                }
+
+                final Duration retryAfter = headers.retryAfter != null
+                        ? headers.retryAfter
+                        : RateLimiter.DEFAULT_RETRY_AFTER;
+                bucket.throttle(retryAfter, System.nanoTime());
+                if (attempt >= limiter.maximumRetries()) {
+                    throw e;
+                }
+                command.setException(null);
+            }
+        }
+    }
+}
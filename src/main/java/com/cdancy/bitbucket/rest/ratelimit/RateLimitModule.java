@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import static com.cdancy.bitbucket.rest.BitbucketUtils.methodMatcher;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+
+import java.util.Objects;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+
+/**
+ * Opt-in module pacing the requests of a client through the passed
+ * {@link RateLimiter}. Tokens are taken right before a request is sent,
+ * after its filters have run, so the default executor and the
+ * {@link com.cdancy.bitbucket.rest.config.JavaHttpClientModule} are paced
+ * alike.
+ */
+public class RateLimitModule extends AbstractModule {
+
+    private final RateLimiter limiter;
+
+    /**
+     * Create a module pacing requests through the passed RateLimiter.
+     *
+     * @param limiter the limiter to pace requests through.
+     */
+    public RateLimitModule(final RateLimiter limiter) {
+        this.limiter = Objects.requireNonNull(limiter);
+    }
+
+    @Override
+    protected void configure() {
+        final RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter);
+        requestInjection(interceptor);
+        bindInterceptor(Matchers.subclassesOf(HttpCommandExecutorService.class),
+                methodMatcher("invoke", HttpCommand.class),
+                interceptor);
+    }
+}
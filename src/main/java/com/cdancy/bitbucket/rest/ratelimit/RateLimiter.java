@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Paces requests to stay within the rate limits of Bitbucket, rather than
+ * having them fail with `429 Too Many Requests`. A token bucket is kept per
+ * endpoint and credential, refilled at the rate the server reports through
+ * its `X-RateLimit-*` headers, from which every request takes a token and,
+ * when there are none left, waits its turn. Requests the server throttles
+ * nonetheless are retried once `Retry-After` has passed.
+ *
+ * <pre>
+ * RateLimiter limiter = RateLimiter.builder().build();
+ * BitbucketClient client = BitbucketClient.builder()
+ *     .modules(new RateLimitModule(limiter))
+ *     .build();
+ * </pre>
+ *
+ * <p>A limiter may be shared by any number of clients, e.g. those of a
+ * {@link com.cdancy.bitbucket.rest.BitbucketClientPool}, such that clients
+ * authenticating as the same user share a bucket.
+ */
+public final class RateLimiter {
+
+    static final int DEFAULT_MAXIMUM_RETRIES = 5;
+    static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maximumRetries;
+    private final ConcurrentMap<List<String>, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private RateLimiter(final Builder builder) {
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = builder.burst;
+        this.maximumRetries = builder.maximumRetries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Snapshot of the bucket of every endpoint and credential requests have
+     * been sent to.
+     *
+     * @return the state of every bucket.
+     */
+    public List<ThrottleState> state() {
+        final long now = System.nanoTime();
+        final ImmutableList.Builder<ThrottleState> states = ImmutableList.builder();
+        for (final TokenBucket bucket : buckets.values()) {
+            states.add(bucket.state(now));
+        }
+        return states.build();
+    }
+
+    int maximumRetries() {
+        return maximumRetries;
+    }
+
+    TokenBucket bucket(final String endpoint, final String credential) {
+        return buckets.computeIfAbsent(ImmutableList.of(endpoint, credential),
+                key -> new TokenBucket(endpoint, credential, permitsPerSecond, burst));
+    }
+
+    public static class Builder {
+
+        private double permitsPerSecond;
+        private int burst;
+        private int maximumRetries = DEFAULT_MAXIMUM_RETRIES;
+
+        /**
+         * Limits to pace requests by until the server reports its own, e.g.
+         * when the server does not send `X-RateLimit-*` headers. Defaults to
+         * not pacing requests until it does.
+         *
+         * @param permitsPerSecond rate at which requests may be sent.
+         * @param burst number of requests which may be sent at once.
+         * @return this Builder.
+         */
+        public Builder limit(final double permitsPerSecond, final int burst) {
+            checkArgument(permitsPerSecond > 0, "permitsPerSecond must be greater than 0");
+            checkArgument(burst > 0, "burst must be greater than 0");
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Number of times to retry a request answered with `429 Too Many
+         * Requests` before giving up on it. Defaults to 5.
+         *
+         * @param maximumRetries maximum number of retries.
+         * @return this Builder.
+         */
+        public Builder maximumRetries(final int maximumRetries) {
+            checkArgument(maximumRetries >= 0, "maximumRetries must not be negative");
+            this.maximumRetries = maximumRetries;
+            return this;
+        }
+
+        /**
+         * Build an instance of RateLimiter.
+         *
+         * @return RateLimiter
+         */
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+    }
+}
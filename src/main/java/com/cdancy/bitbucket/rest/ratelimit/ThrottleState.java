@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import com.google.auto.value.AutoValue;
+
+import java.time.Duration;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Snapshot of the client side token bucket of a single endpoint and
+ * credential, as handed out by {@link RateLimiter#state()}.
+ */
+@AutoValue
+public abstract class ThrottleState {
+
+    /**
+     * Scheme, host and port requests are sent to.
+     *
+     * @return the endpoint.
+     */
+    public abstract String endpoint();
+
+    /**
+     * Fingerprint of the credential requests are sent with, never the
+     * credential itself.
+     *
+     * @return the credential fingerprint.
+     */
+    public abstract String credential();
+
+    /**
+     * Capacity of the bucket, or null while not yet known.
+     *
+     * @return the number of tokens a full bucket holds.
+     */
+    @Nullable
+    public abstract Integer limit();
+
+    /**
+     * Tokens left in the bucket, negative when requests are waiting on it
+     * to refill, or null while not yet known.
+     *
+     * @return the number of tokens left.
+     */
+    @Nullable
+    public abstract Integer remaining();
+
+    /**
+     * Rate at which the bucket refills, 0 while not yet known.
+     *
+     * @return tokens added per second.
+     */
+    public abstract double permitsPerSecond();
+
+    /**
+     * Time left until the server is willing to take requests again after
+     * having answered `429 Too Many Requests`.
+     *
+     * @return time until throttling lifts, zero if not throttled.
+     */
+    public abstract Duration retryAfter();
+
+    /**
+     * Number of requests currently waiting for a token.
+     *
+     * @return the number of waiting requests.
+     */
+    public abstract int queued();
+
+    /**
+     * Number of `429 Too Many Requests` responses received.
+     *
+     * @return the number of times throttled by the server.
+     */
+    public abstract long throttled();
+
+    ThrottleState() {
+    }
+
+    public static ThrottleState create(final String endpoint,
+            final String credential,
+            @Nullable final Integer limit,
+            @Nullable final Integer remaining,
+            final double permitsPerSecond,
+            final Duration retryAfter,
+            final int queued,
+            final long throttled) {
+        return new AutoValue_ThrottleState(endpoint,
+                credential,
+                limit,
+                remaining,
+                permitsPerSecond,
+                retryAfter,
+                queued,
+                throttled);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client side mirror of the token bucket Bitbucket keeps for a user. Every
+ * request reserves a token, going into debt when there are none left, and
+ * waits until the bucket has refilled enough to cover its reservation. This
+ * paces concurrent requests one refill apart, in the order they arrived,
+ * rather than having them all go out and fail at once.
+ *
+ * <p>Until capacity and fill rate are known, either configured or learned
+ * from the headers of a response, requests are not paced at all. A `429`
+ * empties the bucket and has refilling only start once `Retry-After` has
+ * passed.
+ */
+final class TokenBucket {
+
+    private final String endpoint;
+    private final String credential;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private double capacity;
+    private double permitsPerNano;
+    private double tokens;
+    private long refilledAt;
+    private long throttled;
+
+    TokenBucket(final String endpoint, final String credential, final double permitsPerSecond, final int burst) {
+        this.endpoint = endpoint;
+        this.credential = credential;
+        this.capacity = burst > 0 ? burst : Double.POSITIVE_INFINITY;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Reserve a token, waiting until the bucket has refilled enough to hand
+     * it out.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        final long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            queued.incrementAndGet();
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    synchronized long reserve(final long now) {
+        refill(now);
+        final long blocked = Math.max(0, refilledAt - now);
+        if (permitsPerNano <= 0) {
+            return blocked;
+        }
+        tokens -= 1;
+        return tokens < 0 ? blocked + (long) Math.ceil(-tokens / permitsPerNano) : blocked;
+    }
+
+    /**
+     * Adopt the limits the server reported. The server having fewer tokens
+     * left than we think takes precedence, reservations in flight included.
+     */
+    synchronized void update(final RateLimitHeaders headers, final long now) {
+        refill(now);
+        if (headers.limit != null && headers.limit > 0) {
+            capacity = headers.limit;
+            tokens = Math.min(tokens, capacity);
+        }
+        if (headers.permitsPerSecond != null) {
+            permitsPerNano = headers.permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        }
+        if (headers.remaining != null) {
+            tokens = Math.min(tokens, headers.remaining);
+        }
+    }
+
+    synchronized void throttle(final Duration retryAfter, final long now) {
+        refill(now);
+        throttled++;
+        tokens = Math.min(tokens, 0);
+        refilledAt = Math.max(refilledAt, now + retryAfter.toNanos());
+    }
+
+    synchronized ThrottleState state(final long now) {
+        refill(now);
+        return ThrottleState.create(endpoint,
+                credential,
+                Double.isInfinite(capacity) ? null : (int) capacity,
+                Double.isInfinite(tokens) ? null : (int) Math.floor(tokens),
+                permitsPerNano * TimeUnit.SECONDS.toNanos(1),
+                Duration.ofNanos(Math.max(0, refilledAt - now)),
+                queued.get(),
+                throttled);
+    }
+
+    private void refill(final long now) {
+        final long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.retry;
+
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.http.IOExceptionRetryHandler;
+
+/**
+ * Retries idempotent requests which failed with a 502, 503 or 504, or with
+ * an IOException such as a reset connection, after an exponentially growing
+ * delay with full jitter: attempt `n` waits a random time of up to
+ * `min(maximumDelay, initialDelay * 2^n)`. Jitter keeps the clients of an
+ * overloaded server from retrying in lockstep. Every other failure is left
+ * to the error handling of the client.
+ */
+final class JitteredRetryHandler implements HttpRetryHandler, IOExceptionRetryHandler {
+
+    static final Set<String> IDEMPOTENT_METHODS = ImmutableSet.of("GET", "HEAD");
+    static final Set<Integer> RETRIED_STATUSES = ImmutableSet.of(502, 503, 504);
+
+    private final int maximumRetries;
+    private final long initialDelay;
+    private final long maximumDelay;
+
+    JitteredRetryHandler(final int maximumRetries, final long initialDelay, final long maximumDelay) {
+        this.maximumRetries = maximumRetries;
+        this.initialDelay = initialDelay;
+        this.maximumDelay = maximumDelay;
+    }
+
+    @Override
+    public boolean shouldRetryRequest(final HttpCommand command, final HttpResponse response) {
+        if (!RETRIED_STATUSES.contains(response.getStatusCode())) {
+            return false;
+        }
+        final boolean retry = backoff(command);
+        if (retry) {
+            closeQuietly(response.getPayload());
+        }
+        return retry;
+    }
+
+    @Override
+    public boolean shouldRetryRequest(final HttpCommand command, final IOException error) {
+        return backoff(command);
+    }
+
+    private boolean backoff(final HttpCommand command) {
+        if (!IDEMPOTENT_METHODS.contains(command.getCurrentRequest().getMethod())
+                || !command.isReplayable()
+                || command.incrementFailureCount() > maximumRetries) {
+            return false;
+        }
+
+        final int attempt = command.getFailureCount() - 1;
+        final long ceiling = Math.min(maximumDelay, initialDelay << Math.min(attempt, 30));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
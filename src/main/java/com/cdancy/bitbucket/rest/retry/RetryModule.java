@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.retry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.inject.AbstractModule;
+
+import java.time.Duration;
+
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.annotation.ServerError;
+
+/**
+ * Opt-in module replacing the retry handling of jclouds, which retries
+ * any request failing with a 5xx after a fixed exponential delay, with
+ * jittered exponential retries of only idempotent requests (GET and HEAD)
+ * failing with a reset connection, or a 502, 503 or 504. Pass it along when
+ * building a client:
+ *
+ * <pre>
+ * BitbucketClient.builder()
+ *     .modules(RetryModule.builder().maximumRetries(3).build())
+ *     .build();
+ * </pre>
+ */
+public class RetryModule extends AbstractModule {
+
+    static final int DEFAULT_MAXIMUM_RETRIES = 3;
+    static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(100);
+    static final Duration DEFAULT_MAXIMUM_DELAY = Duration.ofSeconds(5);
+
+    private final int maximumRetries;
+    private final Duration initialDelay;
+    private final Duration maximumDelay;
+
+    /**
+     * Create a module retrying up to 3 times, waiting up to 100ms before the
+     * first retry and up to 5 seconds before any retry.
+     */
+    public RetryModule() {
+        this(DEFAULT_MAXIMUM_RETRIES, DEFAULT_INITIAL_DELAY, DEFAULT_MAXIMUM_DELAY);
+    }
+
+    private RetryModule(final int maximumRetries, final Duration initialDelay, final Duration maximumDelay) {
+        this.maximumRetries = maximumRetries;
+        this.initialDelay = initialDelay;
+        this.maximumDelay = maximumDelay;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    protected void configure() {
+        final JitteredRetryHandler handler = new JitteredRetryHandler(maximumRetries,
+                initialDelay.toNanos(), maximumDelay.toNanos());
+        bind(HttpRetryHandler.class).annotatedWith(ServerError.class).toInstance(handler);
+        bind(IOExceptionRetryHandler.class).toInstance(handler);
+    }
+
+    public static class Builder {
+
+        private int maximumRetries = DEFAULT_MAXIMUM_RETRIES;
+        private Duration initialDelay = DEFAULT_INITIAL_DELAY;
+        private Duration maximumDelay = DEFAULT_MAXIMUM_DELAY;
+
+        /**
+         * Number of times to retry a request before giving up on it.
+         * Defaults to 3.
+         *
+         * @param maximumRetries maximum number of retries.
+         * @return this Builder.
+         */
+        public Builder maximumRetries(final int maximumRetries) {
+            checkArgument(maximumRetries >= 0, "maximumRetries must not be negative");
+            this.maximumRetries = maximumRetries;
+            return this;
+        }
+
+        /**
+         * Longest delay before the first retry, doubling with every retry
+         * after. Defaults to 100ms.
+         *
+         * @param initialDelay the initial delay.
+         * @return this Builder.
+         */
+        public Builder initialDelay(final Duration initialDelay) {
+            checkArgument(!initialDelay.isNegative(), "initialDelay must not be negative");
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Longest delay before any retry. Defaults to 5 seconds.
+         *
+         * @param maximumDelay the maximum delay.
+         * @return this Builder.
+         */
+        public Builder maximumDelay(final Duration maximumDelay) {
+            checkArgument(!maximumDelay.isNegative(), "maximumDelay must not be negative");
+            this.maximumDelay = maximumDelay;
+            return this;
+        }
+
+        /**
+         * Build an instance of RetryModule.
+         *
+         * @return RetryModule
+         */
+        public RetryModule build() {
+            return new RetryModule(maximumRetries, initialDelay, maximumDelay);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * SpanExporter holding on to every span exported, for tests or for
+ * inspecting a single run of a program.
+ */
+public final class InMemorySpanExporter implements SpanExporter {
+
+    private final ConcurrentLinkedQueue<SpanData> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void export(final SpanData span) {
+        spans.add(span);
+    }
+
+    /**
+     * Spans exported so far, in the order they ended.
+     *
+     * @return snapshot of the exported spans.
+     */
+    public List<SpanData> spans() {
+        return ImmutableList.copyOf(spans);
+    }
+
+    /**
+     * Drop every span exported so far.
+     */
+    public void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Unit of work being traced, started through {@link Tracing#startSpan(String)}
+ * and current on the starting thread until closed, such that spans started
+ * meanwhile, e.g. those of api calls, become its children:
+ *
+ * <pre>
+ * try (Span crawl = tracing.startSpan("crawl")) {
+ *     client.api().repositoryApi().list("PRJ", 0, 100); // exported as a child of crawl
+ * }
+ * </pre>
+ *
+ * <p>A span has to be closed on the thread which started it. Work handed
+ * to other threads stays within the span when run on an Executor wrapped
+ * by {@link #propagating(Executor)}. Attributes may be set from any thread.
+ */
+public final class Span implements AutoCloseable {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final SpanExporter exporter;
+    private final String name;
+    private final String traceId;
+    private final String spanId;
+    private final Span parent;
+    private final Instant startTime = Instant.now();
+    private final long startedAt = System.nanoTime();
+    private final ConcurrentMap<String, Object> attributes = new ConcurrentHashMap<>();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile String error;
+
+    Span(final SpanExporter exporter, final String name) {
+        this.exporter = exporter;
+        this.name = name;
+        this.parent = CURRENT.get();
+        this.traceId = parent != null ? parent.traceId : randomId(2);
+        this.spanId = randomId(1);
+        CURRENT.set(this);
+    }
+
+    /**
+     * Span current on the calling thread.
+     *
+     * @return the current span, or null if there is none.
+     */
+    @Nullable
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wrap the passed Executor such that tasks run within the span current
+     * on the thread handing them over, e.g. for the pages of a listing
+     * fetched concurrently to be traced as children of the listing.
+     *
+     * @param executor the Executor to run tasks on.
+     * @return Executor propagating the current span.
+     */
+    public static Executor propagating(final Executor executor) {
+        Objects.requireNonNull(executor);
+        return task -> {
+            final Span span = CURRENT.get();
+            executor.execute(span != null ? () -> span.runWithin(task) : task);
+        };
+    }
+
+    /**
+     * Name of the span.
+     *
+     * @return the name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * W3C trace id of the span.
+     *
+     * @return the trace id.
+     */
+    public String traceId() {
+        return traceId;
+    }
+
+    /**
+     * W3C span id of the span.
+     *
+     * @return the span id.
+     */
+    public String spanId() {
+        return spanId;
+    }
+
+    /**
+     * Set an attribute, replacing any value set for the key before.
+     *
+     * @param key key of the attribute.
+     * @param value value of the attribute, e.g. a String, Number or Boolean.
+     * @return this Span.
+     */
+    public Span attribute(final String key, final Object value) {
+        attributes.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+        return this;
+    }
+
+    /**
+     * End the span, exporting it, and make the span which was current when
+     * it started current again. Closing an ended span does nothing.
+     */
+    @Override
+    public void close() {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        if (CURRENT.get() == this) {
+            restore(parent);
+        }
+        exporter.export(SpanData.create(name,
+                traceId,
+                spanId,
+                parent != null ? parent.spanId : null,
+                startTime,
+                Duration.ofNanos(System.nanoTime() - startedAt),
+                attributes,
+                error));
+    }
+
+    void error(final String error) {
+        this.error = error;
+    }
+
+    void add(final String key, final long amount) {
+        attributes.merge(key, amount, (current, added) -> ((Number) current).longValue() + ((Number) added).longValue());
+    }
+
+    /**
+     * Value of the W3C `traceparent` header identifying this span as the
+     * parent of the server's work.
+     */
+    String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    private void runWithin(final Runnable task) {
+        final Span outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    private static void restore(@Nullable final Span span) {
+        if (span != null) {
+            CURRENT.set(span);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    private static String randomId(final int longs) {
+        final StringBuilder id = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            final String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            for (int pad = hex.length(); pad < 16; pad++) {
+                id.append('0');
+            }
+            id.append(hex);
+        }
+        return id.toString();
+    }
+}
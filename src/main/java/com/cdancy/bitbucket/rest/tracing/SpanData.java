@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Immutable record of an ended {@link Span}, as handed to a
+ * {@link SpanExporter}.
+ */
+@AutoValue
+public abstract class SpanData {
+
+    /**
+     * Name of the span, the `@Named` id of the operation for spans of api calls.
+     *
+     * @return the name of the span.
+     */
+    public abstract String name();
+
+    /**
+     * W3C trace id, 32 lowercase hex characters, shared by every span of a trace.
+     *
+     * @return the trace id.
+     */
+    public abstract String traceId();
+
+    /**
+     * W3C span id, 16 lowercase hex characters.
+     *
+     * @return the span id.
+     */
+    public abstract String spanId();
+
+    /**
+     * Id of the span this span was started within, null for root spans.
+     *
+     * @return the parent span id.
+     */
+    @Nullable
+    public abstract String parentSpanId();
+
+    /**
+     * Wall clock time the span was started at.
+     *
+     * @return the start time.
+     */
+    public abstract Instant startTime();
+
+    /**
+     * Time from starting until ending the span.
+     *
+     * @return the duration.
+     */
+    public abstract Duration duration();
+
+    /**
+     * Attributes set on the span, e.g. `project`, `repo` or `cache`.
+     *
+     * @return the attributes by key.
+     */
+    public abstract Map<String, Object> attributes();
+
+    /**
+     * Description of what went wrong, null if the span ended successfully.
+     *
+     * @return the error.
+     */
+    @Nullable
+    public abstract String error();
+
+    SpanData() {
+    }
+
+    public static SpanData create(final String name,
+            final String traceId,
+            final String spanId,
+            @Nullable final String parentSpanId,
+            final Instant startTime,
+            final Duration duration,
+            final Map<String, Object> attributes,
+            @Nullable final String error) {
+        return new AutoValue_SpanData(name,
+                traceId,
+                spanId,
+                parentSpanId,
+                startTime,
+                duration,
+                ImmutableMap.copyOf(attributes),
+                error);
+    }
+}
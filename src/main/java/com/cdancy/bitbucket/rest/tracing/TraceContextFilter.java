@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+
+/**
+ * Counts the attempts at sending a request within a span and, when asked
+ * to, sends the W3C `traceparent` header of the span along. Runs after
+ * the filters declared on the api, once per attempt.
+ */
+final class TraceContextFilter implements HttpRequestFilter {
+
+    static final String TRACEPARENT = "traceparent";
+
+    private final Span span;
+    private final boolean propagateContext;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    TraceContextFilter(final Span span, final boolean propagateContext) {
+        this.span = span;
+        this.propagateContext = propagateContext;
+    }
+
+    int attempts() {
+        return attempts.get();
+    }
+
+    @Override
+    public HttpRequest filter(final HttpRequest request) throws HttpException {
+        attempts.incrementAndGet();
+        return propagateContext
+                ? request.toBuilder().replaceHeader(TRACEPARENT, span.traceparent()).build()
+                : request;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import com.google.inject.Module;
+
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+
+/**
+ * Traces every call of a client's api, each in a span named after the
+ * call's `@Named` operation id and exported once the call returned:
+ *
+ * <pre>
+ * InMemorySpanExporter spans = new InMemorySpanExporter();
+ * BitbucketClient client = BitbucketClient.builder()
+ *     .tracing(Tracing.builder(spans).build())
+ *     .build();
+ * </pre>
+ *
+ * <p>Spans carry the `project` and `repo` the call targets and the `start`
+ * and `limit` of the page it asks for, the number of `requests` it sent
+ * (more than one when `hedged`) and of `retries` among those, the `status`
+ * of the last response, and whether the `cache` of the client had a `hit`
+ * or a `miss`. Each request is sent with the W3C `traceparent` header of
+ * its span for servers, or proxies, taking part in the trace. Calls made
+ * within a span of your own, see {@link #startSpan(String)}, become its
+ * children such that fan-out heavy work can be followed end to end.
+ */
+public final class Tracing {
+
+    private final SpanExporter exporter;
+    private final boolean propagateContext;
+
+    private Tracing(final Builder builder) {
+        this.exporter = builder.exporter;
+        this.propagateContext = builder.propagateContext;
+    }
+
+    /**
+     * Create a builder of Tracing exporting to the passed SpanExporter.
+     *
+     * @param exporter receives every span once ended.
+     * @return instance of Builder.
+     */
+    public static Builder builder(final SpanExporter exporter) {
+        return new Builder(exporter);
+    }
+
+    /**
+     * Start a span, which is current on the calling thread until closed,
+     * as a child of the span current so far, if any.
+     *
+     * @param name name of the span.
+     * @return the started span.
+     */
+    public Span startSpan(final String name) {
+        return new Span(exporter, Objects.requireNonNull(name));
+    }
+
+    /**
+     * Front the passed feature api (e.g. the `BranchApi`) such that each of
+     * its calls is traced. Used by the BitbucketClient, along with
+     * {@link #module()}, when configured with this Tracing.
+     *
+     * @param <T> the type of the feature api.
+     * @param apiType the interface of the feature api.
+     * @param api the feature api to trace calls of.
+     * @return the traced feature api.
+     */
+    public <T> T wrap(final Class<T> apiType, final T api) {
+        return apiType.cast(Proxy.newProxyInstance(apiType.getClassLoader(),
+                new Class<?>[]{apiType},
+                new TracingInvocationHandler(this, api)));
+    }
+
+    /**
+     * Module counting, and propagating the context of, the requests sent
+     * within a span.
+     *
+     * @return the Module to configure the client with.
+     */
+    public Module module() {
+        return new TracingModule(propagateContext);
+    }
+
+    public static class Builder {
+
+        private final SpanExporter exporter;
+        private boolean propagateContext = true;
+
+        Builder(final SpanExporter exporter) {
+            this.exporter = Objects.requireNonNull(exporter);
+        }
+
+        /**
+         * Whether to send each request with the W3C `traceparent` header of
+         * its span. Defaults to true.
+         *
+         * @param propagateContext whether to send trace context headers.
+         * @return this Builder.
+         */
+        public Builder propagateContext(final boolean propagateContext) {
+            this.propagateContext = propagateContext;
+            return this;
+        }
+
+        /**
+         * Build an instance of Tracing.
+         *
+         * @return Tracing
+         */
+        public Tracing build() {
+            return new Tracing(this);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+
+/**
+ * Intercepts `HttpCommandExecutorService.invoke(HttpCommand)` on behalf of
+ * {@link Tracing}, appending a {@link TraceContextFilter} to requests sent
+ * within a span and recording on the span the request, its retries and
+ * the status it ended with.
+ */
+final class TracingInterceptor implements MethodInterceptor {
+
+    private final boolean propagateContext;
+
+    TracingInterceptor(final boolean propagateContext) {
+        this.propagateContext = propagateContext;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Span span = Span.current();
+        if (span == null) {
+            return invocation.proceed();
+        }
+
+        final HttpCommand command = (HttpCommand) invocation.getArguments()[0];
+        final HttpRequest request = command.getCurrentRequest();
+        final TraceContextFilter filter = new TraceContextFilter(span, propagateContext);
+        command.setCurrentRequest(request.toBuilder().filter(filter).build());
+        span.add("requests", 1);
+        try {
+            final HttpResponse response = (HttpResponse) invocation.proceed();
+            span.attribute("status", response.getStatusCode());
+            return response;
+        } catch (final HttpResponseException e) {
+            if (e.getResponse() != null) {
+                span.attribute("status", e.getResponse().getStatusCode());
+            }
+            throw e;
+        } finally {
+            if (filter.attempts() > 1) {
+                span.add("retries", filter.attempts() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.tracing;
+
+import com.cdancy.bitbucket.rest.BitbucketUtils;
+import com.cdancy.bitbucket.rest.ForwardingInvocationHandler;
+import com.cdancy.bitbucket.rest.domain.common.ErrorsHolder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+
+/**
+ * Fronts a feature api on behalf of {@link Tracing}, running each call in
+ * a span tagged with the project, repository and page it targets.
+ */
+final class TracingInvocationHandler extends ForwardingInvocationHandler {
+
+    private static final ConcurrentMap<Method, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final Tracing tracing;
+
+    TracingInvocationHandler(final Tracing tracing, final Object api) {
+        super(api);
+        this.tracing = tracing;
+    }
+
+    @Override
+    protected Object handleInvocation(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final Operation operation = OPERATIONS.computeIfAbsent(method, Operation::new);
+        try (Span span = tracing.startSpan(operation.id)) {
+            operation.tag(span, args);
+            final Object result;
+            try {
+                result = invokeDelegate(method, args);
+            } catch (final Throwable e) {
+                span.error(e.toString());
+                throw e;
+            }
+            if (result instanceof ErrorsHolder) {
+                final List<com.cdancy.bitbucket.rest.domain.common.Error> errors = ((ErrorsHolder) result).errors();
+                if (!errors.isEmpty()) {
+                    span.error(errors.get(0).message());
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * What a span needs to know about an api method: its id, and which of
+     * its arguments are the project, repository and page.
+     */
+    private static final class Operation {
+
+        final String id;
+        final int projectIndex;
+        final int repoIndex;
+        final int startIndex;
+        final int limitIndex;
+
+        Operation(final Method method) {
+            this.id = BitbucketUtils.operationId(method);
+            this.projectIndex = parameterIndex(method, PathParam.class, "project");
+            this.repoIndex = parameterIndex(method, PathParam.class, "repo");
+            this.startIndex = parameterIndex(method, QueryParam.class, "start");
+            this.limitIndex = parameterIndex(method, QueryParam.class, "limit");
+        }
+
+        void tag(final Span span, final Object[] args) {
+            tag(span, "project", args, projectIndex);
+            tag(span, "repo", args, repoIndex);
+            tag(span, "start", args, startIndex);
+            tag(span, "limit", args, limitIndex);
+        }
+
+        private static void tag(final Span span, final String key, final Object[] args, final int index) {
+            if (index >= 0 && args[index] != null) {
+                span.attribute(key, args[index]);
+            }
+        }
+
+        private static int parameterIndex(final Method method,
+                final Class<? extends Annotation> type,
+                final String name) {
+            final Annotation[][] annotations = method.getParameterAnnotations();
+            for (int i = 0; i < annotations.length; i++) {
+                for (final Annotation annotation : annotations[i]) {
+                    if (type.isInstance(annotation) && name.equals(value(annotation))) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static String value(final Annotation annotation) {
+            return annotation instanceof PathParam
+                    ? ((PathParam) annotation).value()
+                    : ((QueryParam) annotation).value();
+        }
+    }
+}
@@ -79,6 +79,21 @@ public class BaseBitbucketMockTest {
                 .buildApi(BitbucketApi.class);
     }
 
+    /**
+     * Create a BitbucketClient.Builder pointed at the passed URL and configured
+     * the same way as {@link #api(URL)}.
+     *
+     * @param url endpoint of instance.
+     * @return instance of BitbucketClient.Builder.
+     */
+    public BitbucketClient.Builder clientBuilder(final URL url) {
+        return BitbucketClient.builder()
+                .endPoint(url.toString())
+                .credentials("hello:world")
+                .overrides(setupProperties())
+                .modules(new SLF4JLoggingModule());
+    }
+
     protected Properties setupProperties() {
         final Properties properties = new Properties();
         properties.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
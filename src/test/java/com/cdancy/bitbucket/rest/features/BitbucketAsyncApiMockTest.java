@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.jclouds.rest.annotations.Delegate;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.BitbucketApiMetadata;
+import com.cdancy.bitbucket.rest.BitbucketAsyncApi;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.google.common.collect.Lists;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link BitbucketAsyncApi} class.
+ */
+@Test(groups = "unit", testName = "BitbucketAsyncApiMockTest")
+public class BitbucketAsyncApiMockTest extends BaseBitbucketMockTest {
+
+    private final String getMethod = "GET";
+    private final String restApiPath = "/rest/api/";
+
+    public void testAsyncApiMirrorsEveryOperation() throws Exception {
+        for (final Method delegate : BitbucketApi.class.getMethods()) {
+            if (delegate.getAnnotation(Delegate.class) == null) {
+                continue;
+            }
+
+            final Method asyncDelegate = BitbucketAsyncApi.class.getMethod(delegate.getName());
+            for (final Method method : delegate.getReturnType().getMethods()) {
+                final Method asyncMethod = asyncDelegate.getReturnType().getMethod(method.getName(), method.getParameterTypes());
+                assertThat(asyncMethod.getReturnType()).isEqualTo(CompletableFuture.class);
+                assertThat(operationName(asyncMethod)).isEqualTo(operationName(method));
+                assertThat(asyncMethod.isAnnotationPresent(jakarta.inject.Named.class))
+                        .isEqualTo(method.isAnnotationPresent(jakarta.inject.Named.class));
+            }
+            assertThat(asyncDelegate.getReturnType().getMethods()).hasSameSizeAs(delegate.getReturnType().getMethods());
+        }
+    }
+
+    public void testGetPullRequest() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/pull-request.json")).setResponseCode(200));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).build()) {
+
+            final CompletableFuture<PullRequest> future = client.asyncApi().pullRequestApi().get("PRJ", "my-repo", 101);
+            final PullRequest pr = future.get();
+            assertThat(pr).isNotNull();
+            assertThat(pr.errors()).isEmpty();
+            assertThat(pr.id()).isEqualTo(101);
+            assertSent(server, getMethod, restApiPath + BitbucketApiMetadata.API_VERSION
+                    + "/projects/PRJ/repos/my-repo/pull-requests/101");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testGetPullRequestOnError() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/pull-request-not-exist.json")).setResponseCode(404));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).build()) {
+
+            final PullRequest pr = client.asyncApi().pullRequestApi().get("PRJ", "my-repo", 101).get();
+            assertThat(pr).isNotNull();
+            assertThat(pr.errors()).isNotEmpty();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testConcurrentCalls() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final int calls = 10;
+        final MockResponse response = new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+        for (int i = 0; i < calls; i++) {
+            server.enqueue(response);
+        }
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).build()) {
+
+            final List<CompletableFuture<Version>> futures = Lists.newArrayList();
+            for (int i = 0; i < calls; i++) {
+                futures.add(client.asyncApi().systemApi().version());
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+            for (final CompletableFuture<Version> future : futures) {
+                assertThat(future.get().version()).isNotNull();
+            }
+            assertThat(server.getRequestCount()).isEqualTo(calls);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static String operationName(final Method method) {
+        final jakarta.inject.Named jakartaNamed = method.getAnnotation(jakarta.inject.Named.class);
+        if (jakartaNamed != null) {
+            return jakartaNamed.value();
+        }
+        return method.getAnnotation(com.google.inject.name.Named.class).value();
+    }
+}
@@ -18,11 +18,28 @@
 package com.cdancy.bitbucket.rest.features;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.Constants;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
 import com.cdancy.bitbucket.rest.BitbucketClient;
 import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
 
 @Test(groups = "unit", testName = "BitbucketClientMockTest")
 public class BitbucketClientMockTest extends BaseBitbucketMockTest {
@@ -32,4 +49,120 @@ public class BitbucketClientMockTest extends BaseBitbucketMockTest {
         final BitbucketClient client = BitbucketClient.builder().build();
         assertThat(client).isNotNull();
     }
+
+    @Test
+    public void testDelegatesResolvedOnce() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).build()) {
+            final SystemApi systemApi = client.api().systemApi();
+            assertThat(client.api().systemApi()).isSameAs(systemApi);
+            assertThat(client.api().branchApi()).isSameAs(client.api().branchApi());
+
+            final Version version = systemApi.version();
+            assertThat(version.version()).isNotNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testPreload() throws Exception {
+        BitbucketClient.preload().get(1, TimeUnit.MINUTES);
+        final BitbucketClient client = BitbucketClient.builder().build();
+        assertThat(client.api().pullRequestApi()).isNotNull();
+    }
+
+    @Test
+    public void testCoalesceRequests() throws Exception {
+        final int calls = 8;
+        final MockWebServer server = mockWebServer();
+
+        final MockResponse slowVersion = new MockResponse()
+                .setBody(payloadFromResource("/version.json"))
+                .setBodyDelay(1, TimeUnit.SECONDS)
+                .setResponseCode(200);
+        server.enqueue(slowVersion);
+        server.enqueue(slowVersion);
+        final ExecutorService callers = Executors.newFixedThreadPool(calls);
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).coalesceRequests(true).build()) {
+
+            final CyclicBarrier barrier = new CyclicBarrier(calls);
+            final List<Future<Version>> futures = Lists.newArrayList();
+            for (int i = 0; i < calls; i++) {
+                futures.add(callers.submit(() -> {
+                    barrier.await();
+                    return client.api().systemApi().version();
+                }));
+            }
+            final Version version = futures.get(0).get(1, TimeUnit.MINUTES);
+            for (final Future<Version> future : futures) {
+                assertThat(future.get(1, TimeUnit.MINUTES)).isSameAs(version);
+            }
+            assertThat(server.getRequestCount()).isEqualTo(1);
+
+            // nothing in flight anymore, so the next call goes out on its own
+            assertThat(client.api().systemApi().version()).isNotSameAs(version);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            callers.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsUnsupported() {
+        if (Runtime.version().feature() >= 21) {
+            throw new SkipException("virtual threads are supported on this JVM");
+        }
+
+        assertThatThrownBy(() -> BitbucketClient.builder().virtualThreads(true).build())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testVirtualThreadsThroughput() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new SkipException("virtual threads require Java 21 or later");
+        }
+
+        final int calls = 64;
+        final long delayMillis = 250;
+        final MockWebServer server = mockWebServer();
+        final MockResponse response = new MockResponse()
+                .setBody(payloadFromResource("/version.json"))
+                .setBodyDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .setResponseCode(200);
+        for (int i = 0; i < calls * 2; i++) {
+            server.enqueue(response);
+        }
+
+        // same small pool size for both clients: only the virtual thread
+        // client is able to ignore it and have every call in flight at once.
+        final Properties properties = setupProperties();
+        properties.setProperty(Constants.PROPERTY_USER_THREADS, "4");
+        try (final BitbucketClient platformClient = clientBuilder(server.getUrl("/")).overrides(properties).build();
+                final BitbucketClient virtualClient = clientBuilder(server.getUrl("/")).overrides(properties).virtualThreads(true).build()) {
+
+            final long platformMillis = timeConcurrentVersionCalls(platformClient, calls);
+            final long virtualMillis = timeConcurrentVersionCalls(virtualClient, calls);
+
+            assertThat(platformMillis).isGreaterThanOrEqualTo(delayMillis * calls / 4);
+            assertThat(virtualMillis).isLessThan(platformMillis / 2);
+            assertThat(server.getRequestCount()).isEqualTo(calls * 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static long timeConcurrentVersionCalls(final BitbucketClient client, final int calls) throws Exception {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final List<CompletableFuture<Version>> futures = Lists.newArrayList();
+        for (int i = 0; i < calls; i++) {
+            futures.add(client.asyncApi().systemApi().version());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        return stopwatch.elapsed(TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.jclouds.Constants;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApiMetadata;
+import com.cdancy.bitbucket.rest.BitbucketAuthentication;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.BitbucketClientPool;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.inject.AbstractModule;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link BitbucketClientPool} class.
+ */
+@Test(groups = "unit", testName = "BitbucketClientPoolMockTest")
+public class BitbucketClientPoolMockTest extends BaseBitbucketMockTest {
+
+    private final String localEndpoint = "http://127.0.0.1:7990";
+    private final String otherEndpoint = "http://127.0.0.1:7991";
+    private final String basicCredentials = "hello:world";
+
+    public void testClientsAreKeyedByEndpointAndAuthentication() throws Exception {
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder().overrides(setupProperties()).build()) {
+
+            final BitbucketClient client = pool.client(localEndpoint, credentials(basicCredentials));
+            assertThat(pool.client(localEndpoint, credentials(basicCredentials))).isSameAs(client);
+            assertThat(pool.client(localEndpoint, BitbucketAuthentication.builder().token(basicCredentials).build())).isNotSameAs(client);
+            assertThat(pool.client(localEndpoint, credentials("other:user"))).isNotSameAs(client);
+            assertThat(pool.client(otherEndpoint, credentials(basicCredentials))).isNotSameAs(client);
+            assertThat(pool.size()).isEqualTo(4);
+        }
+    }
+
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder()
+                .overrides(setupProperties())
+                .maximumSize(1)
+                .build()) {
+
+            final BitbucketClient client = pool.client(localEndpoint, credentials(basicCredentials));
+            pool.client(otherEndpoint, credentials(basicCredentials));
+            assertThat(pool.size()).isEqualTo(1);
+            assertThat(pool.client(localEndpoint, credentials(basicCredentials))).isNotSameAs(client);
+        }
+    }
+
+    public void testEvictsIdleClients() throws Exception {
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder()
+                .overrides(setupProperties())
+                .idleTimeout(Duration.ofMillis(50))
+                .build()) {
+
+            pool.client(localEndpoint, credentials(basicCredentials));
+            Thread.sleep(200);
+            assertThat(pool.size()).isZero();
+        }
+    }
+
+    public void testTenantsShareUserExecutor() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final MockResponse response = new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+        final int tenants = 10;
+        for (int i = 0; i < tenants; i++) {
+            server.enqueue(response);
+        }
+        final long userThreadsBefore = userThreadCount();
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder().overrides(setupProperties()).build()) {
+
+            for (int i = 0; i < tenants; i++) {
+                final BitbucketAuthentication authentication = BitbucketAuthentication.builder().token("token-" + i).build();
+                final Version version = pool.asyncApi(server.getUrl("/").toString(), authentication)
+                        .systemApi().version().get();
+                assertThat(version.version()).isNotNull();
+
+                final RecordedRequest request = assertSent(server, "GET", restBasePath + BitbucketApiMetadata.API_VERSION
+                        + "/application-properties");
+                assertThat(request.getHeader("Authorization")).isEqualTo("Bearer token-" + i);
+            }
+            assertThat(pool.size()).isEqualTo(tenants);
+            assertThat(userThreadCount()).isEqualTo(userThreadsBefore);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testTenantsShareHostPermits() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final int tenants = 4;
+        final long delayMillis = 200;
+        final MockResponse response = new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+                return response;
+            }
+        });
+
+        final Properties properties = setupProperties();
+        properties.setProperty(Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST, "1");
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder().overrides(properties).build()) {
+
+            final Stopwatch stopwatch = Stopwatch.createStarted();
+            final List<CompletableFuture<Version>> futures = Lists.newArrayList();
+            for (int i = 0; i < tenants; i++) {
+                final BitbucketAuthentication authentication = BitbucketAuthentication.builder().token("token-" + i).build();
+                futures.add(pool.asyncApi(server.getUrl("/").toString(), authentication).systemApi().version());
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+            // a single permit across all tenants means their calls wait for the responses of each other
+            assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(delayMillis * tenants);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testEvictedClientIsClosedOnceItsCallsAreDone() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final CountDownLatch responding = new CountDownLatch(1);
+        final CountDownLatch respond = new CountDownLatch(1);
+        final MockResponse response = new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                responding.countDown();
+                respond.await();
+                return response;
+            }
+        });
+
+        final AtomicInteger closes = new AtomicInteger();
+        try (final BitbucketClientPool pool = BitbucketClientPool.builder()
+                .overrides(setupProperties())
+                .maximumSize(1)
+                .modules(new ClosesCounter(closes))
+                .build()) {
+
+            final CompletableFuture<Version> version = pool.asyncApi(server.getUrl("/").toString(),
+                    credentials(basicCredentials)).systemApi().version();
+            assertThat(responding.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // evict the client whose call is in flight
+            pool.client(otherEndpoint, credentials(basicCredentials));
+            assertThat(pool.size()).isEqualTo(1);
+            assertThat(closes.get()).isZero();
+
+            respond.countDown();
+            assertThat(version.get(10, TimeUnit.SECONDS).version()).isNotNull();
+            assertThat(closes.get()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static BitbucketAuthentication credentials(final String credentials) {
+        return BitbucketAuthentication.builder().credentials(credentials).build();
+    }
+
+    // threads jclouds would have created had each client gotten its own user executor
+    private static long userThreadCount() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("user thread"))
+                .count();
+    }
+
+    /**
+     * Counts the clients closed by having each register with its Closer.
+     */
+    private static final class ClosesCounter extends AbstractModule {
+
+        private final AtomicInteger closes;
+
+        ClosesCounter(final AtomicInteger closes) {
+            this.closes = closes;
+        }
+
+        @Override
+        protected void configure() {
+            requestInjection(this);
+        }
+
+        @Inject
+        void register(final Closer closer) {
+            closer.addToClose(closes::incrementAndGet);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.domain.common.Error;
+import com.cdancy.bitbucket.rest.domain.repository.Repository;
+import com.cdancy.bitbucket.rest.fallbacks.BitbucketFallbacks;
+import com.google.common.base.Strings;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link BitbucketFallbacks} class.
+ */
+@Test(groups = "unit", testName = "BitbucketFallbacksMockTest")
+public class BitbucketFallbacksMockTest extends BaseBitbucketMockTest {
+
+    private final String errorsResource = "/errors.json";
+    private final String htmlPage = "<html><body><h1>502 Bad Gateway</h1>" + Strings.repeat("<p>padding</p>", 1000)
+            + "</body></html>";
+
+    public void testReadsErrorsAsTheirJsonTree() {
+        assertReadsAsTree(payloadFromResource(errorsResource));
+        assertReadsAsTree(payloadFromResource("/branch-list-error.json"));
+        assertReadsAsTree(payloadFromResource("/repository-not-exist.json"));
+
+        final List<Error> errors = BitbucketFallbacks.getErrors(payloadFromResource("/branch-list-error.json"));
+        assertThat(errors.get(0).vetoes()).hasSize(1);
+        assertThat(errors.get(0).vetoes().get(0).summaryMessage()).isEqualTo("some short message");
+    }
+
+    public void testReadsSingularError() {
+        final String output = payloadFromResource("/accesskeys-get-wrong-id.json");
+        final List<Error> errors = BitbucketFallbacks.getErrors(output);
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).context()).isNull();
+        assertThat(errors.get(0).message()).startsWith("SSH key with ID 2");
+        assertThat(errors.get(0).exceptionName()).isNull();
+    }
+
+    public void testReadsErrorOfJsonObject() {
+        final String output = payloadFromResource("/branch-list-error.json");
+        final JsonObject tree = JsonParser.parseString(output).getAsJsonObject()
+                .getAsJsonArray("errors").get(0).getAsJsonObject();
+
+        assertThat(BitbucketFallbacks.getErrorFromJsonObject(tree)).isEqualTo(BitbucketFallbacks.getErrors(output).get(0));
+
+        // nulls, primitives of other types and vetoes are mapped alike
+        final String loose = "{\"context\": null, \"message\": 42, \"exceptionName\": true, \"conflicted\": \"true\","
+                + " \"vetoes\": [{\"summaryMessage\": \"blocked\", \"detailedMessage\": null}]}";
+        final Error looseError = BitbucketFallbacks.getErrorFromJsonObject(JsonParser.parseString(loose).getAsJsonObject());
+        assertThat(looseError).isEqualTo(BitbucketFallbacks.getErrors(loose).get(0));
+        assertThat(looseError.message()).isEqualTo("42");
+        assertThat(looseError.conflicted()).isTrue();
+        assertThat(looseError.vetoes()).hasSize(1);
+    }
+
+    public void testCapsContextOfNonJsonOutput() {
+        final List<Error> errors = BitbucketFallbacks.getErrors(htmlPage);
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).context()).startsWith("<html><body><h1>502 Bad Gateway</h1>");
+        assertThat(errors.get(0).context()).hasSize(BitbucketFallbacks.MAXIMUM_CONTEXT_LENGTH + 3);
+        assertThat(errors.get(0).message()).startsWith("Failed to parse output");
+        assertThat(errors.get(0).exceptionName()).isEqualTo(JsonSyntaxException.class.getName());
+
+        final String plain = "timeouts can't be negative";
+        assertThat(BitbucketFallbacks.getErrors(plain).get(0).context()).isEqualTo(plain);
+        assertThat(BitbucketFallbacks.getErrors(null).get(0).context()).isNull();
+    }
+
+    public void testDoesNotParseOversizedOutput() {
+        final String output = "{\"context\": \"" + Strings.repeat("x", BitbucketFallbacks.MAXIMUM_PARSED_LENGTH) + "\"}";
+        final List<Error> errors = BitbucketFallbacks.getErrors(output);
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).message()).startsWith("Failed to parse output");
+        assertThat(errors.get(0).context()).hasSize(BitbucketFallbacks.MAXIMUM_CONTEXT_LENGTH + 3);
+    }
+
+    public void testFailsOnMalformedJson() {
+        final String truncated = "{\"errors\": [{\"context\": \"name\"";
+        final String trailing = payloadFromResource(errorsResource) + " <html>";
+        final String unknown = "{\"status\": 500}";
+
+        for (final String output : new String[]{truncated, trailing, unknown}) {
+            final List<Error> errors = BitbucketFallbacks.getErrors(output);
+            assertThat(errors).hasSize(1);
+            assertThat(errors.get(0).context()).isEqualTo(output);
+            assertThat(errors.get(0).message()).startsWith("Failed to parse output");
+        }
+    }
+
+    public void testMapsHtmlErrorPageOntoErrors() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(htmlPage).setResponseCode(404));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final Repository repository = baseApi.repositoryApi().get("PRJ", "myrepo");
+
+            assertThat(repository.errors()).hasSize(1);
+            assertThat(repository.errors().get(0).context()).hasSize(BitbucketFallbacks.MAXIMUM_CONTEXT_LENGTH + 3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private void assertReadsAsTree(final String output) {
+        final JsonArray tree = JsonParser.parseString(output).getAsJsonObject().getAsJsonArray("errors");
+        final List<Error> errors = BitbucketFallbacks.getErrors(output);
+
+        assertThat(errors).hasSize(tree.size());
+        for (int i = 0; i < tree.size(); i++) {
+            final JsonObject expected = tree.get(i).getAsJsonObject();
+            assertThat(errors.get(i).context()).isEqualTo(stringOrNull(expected, "context"));
+            assertThat(errors.get(i).message()).isEqualTo(stringOrNull(expected, "message"));
+            assertThat(errors.get(i).exceptionName()).isEqualTo(stringOrNull(expected, "exceptionName"));
+        }
+    }
+
+    private static String stringOrNull(final JsonObject obj, final String name) {
+        final JsonElement element = obj.get(name);
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.config.BitbucketJsonModule;
+import com.cdancy.bitbucket.rest.domain.activities.ActivitiesPage;
+import com.cdancy.bitbucket.rest.domain.commit.Commit;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequestPage;
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link BitbucketJsonModule} class.
+ */
+@Test(groups = "unit", testName = "BitbucketJsonModuleMockTest")
+public class BitbucketJsonModuleMockTest extends BaseBitbucketMockTest {
+
+    private final Gson reflective = Guice.createInjector(new GsonModule()).getInstance(Gson.class);
+    private final Gson generated = Guice.createInjector(new GsonModule(), new BitbucketJsonModule())
+            .getInstance(Gson.class);
+
+    public void testRegistersGeneratedAdapters() {
+        assertThat(generated.getAdapter(Commit.class).getClass().getSimpleName()).isEqualTo("TypeAdapter_Commit");
+        assertThat(generated.getAdapter(PullRequestPage.class).getClass().getSimpleName())
+                .isEqualTo("TypeAdapter_PullRequestPage");
+        assertThat(reflective.getAdapter(Commit.class).getClass().getSimpleName()).isNotEqualTo("TypeAdapter_Commit");
+    }
+
+    public void testReadsAsJclouds() {
+        assertReadsAsJclouds("/commit.json", Commit.class);
+        assertReadsAsJclouds("/pull-request-page.json", PullRequestPage.class);
+        assertReadsAsJclouds("/pull-request-page-error.json", PullRequestPage.class);
+        assertReadsAsJclouds("/pull-request-activities.json", ActivitiesPage.class);
+        assertReadsAsJclouds("/pull-request-activities-error.json", ActivitiesPage.class);
+    }
+
+    public void testWritesAsJclouds() {
+        final PullRequest pullRequest = reflective.fromJson(payloadFromResource("/pull-request.json"), PullRequest.class);
+        assertThat(generated.toJson(pullRequest, PullRequest.class)).isEqualTo(reflective.toJson(pullRequest, PullRequest.class));
+    }
+
+    public void testClientReadsThroughGeneratedAdapters() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/commit.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final Commit commit = baseApi.commitsApi().get("PRJ", "myrepo", "abcdef0123abcdef4567abcdef8987abcdef6543", null);
+            assertThat(commit).isEqualTo(reflective.fromJson(body, Commit.class));
+            assertThat(commit.errors()).isEmpty();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private void assertReadsAsJclouds(final String resource, final Class<?> type) {
+        final String json = payloadFromResource(resource);
+        assertThat(generated.fromJson(json, type)).isEqualTo(reflective.fromJson(json, type));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.concurrency.ConcurrencyLimitModule;
+import com.cdancy.bitbucket.rest.concurrency.ConcurrencyLimiter;
+import com.cdancy.bitbucket.rest.concurrency.ConcurrencyState;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link ConcurrencyLimiter} class.
+ */
+@Test(groups = "unit", testName = "ConcurrencyLimiterMockTest")
+public class ConcurrencyLimiterMockTest extends BaseBitbucketMockTest {
+
+    public void testLimitsRequestsInFlight() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger mostInFlight = new AtomicInteger();
+        final String body = payloadFromResource("/version.json");
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                    return new MockResponse().setBody(body).setResponseCode(200);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(2)
+                .maximumLimit(2)
+                .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(6);
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            final List<Future<Version>> versions = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                versions.add(executor.submit(() -> client.api().systemApi().version()));
+            }
+            for (final Future<Version> version : versions) {
+                assertThat(version.get(10, TimeUnit.SECONDS).version()).isNotNull();
+            }
+            assertThat(mostInFlight.get()).isEqualTo(2);
+
+            final ConcurrencyState state = limiter.state().get(0);
+            assertThat(state.limit()).isEqualTo(2);
+            assertThat(state.inFlight()).isZero();
+            assertThat(state.queued()).isZero();
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    public void testRaisesLimitWhileHealthy() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        for (int i = 0; i < 20; i++) {
+            server.enqueue(version());
+        }
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maximumLimit(5)
+                .latencyTolerance(1000)
+                .build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            for (int i = 0; i < 20; i++) {
+                client.api().systemApi().version();
+            }
+            final ConcurrencyState state = limiter.state().get(0);
+            assertThat(state.limit()).isEqualTo(5);
+            assertThat(state.drops()).isZero();
+            assertThat(state.minimumLatency()).isPositive();
+            assertThat(state.endpoint()).isEqualTo("http://" + server.getHostName() + ":" + server.getPort());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLowersLimitWhenThrottled() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .backoffRatio(0.5)
+                .build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            assertThatThrownBy(() -> client.api().systemApi().version()).isNotNull();
+            assertThat(limiter.state().get(0).limit()).isEqualTo(5);
+            assertThatThrownBy(() -> client.api().systemApi().version()).isNotNull();
+            assertThat(limiter.state().get(0).limit()).isEqualTo(2);
+            assertThat(limiter.state().get(0).drops()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testHeavyOperationsDoNotLowerLimit() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        // getting a project takes ten times as long as getting the version, every time
+        final String versionBody = payloadFromResource("/version.json");
+        final String projectBody = payloadFromResource("/project.json");
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                final boolean project = request.getPath().contains("/projects/");
+                TimeUnit.MILLISECONDS.sleep(project ? 200 : 20);
+                return new MockResponse().setBody(project ? projectBody : versionBody).setResponseCode(200);
+            }
+        });
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maximumLimit(5)
+                .latencyTolerance(3)
+                .build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(client.api().systemApi().version().version()).isNotNull();
+                assertThat(client.api().projectApi().get("PRJ").key()).isNotNull();
+            }
+            final ConcurrencyState state = limiter.state().get(0);
+            assertThat(state.drops()).isZero();
+            assertThat(state.limit()).isEqualTo(5);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server, final ConcurrencyLimiter limiter) {
+        return clientBuilder(server.getUrl("/")).modules(new ConcurrencyLimitModule(limiter)).build();
+    }
+
+    private MockResponse version() {
+        return new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+    }
+}
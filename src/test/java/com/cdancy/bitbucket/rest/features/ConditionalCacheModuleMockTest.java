@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ConditionalCacheModule;
+import com.cdancy.bitbucket.rest.config.JavaHttpClientModule;
+import com.cdancy.bitbucket.rest.domain.repository.Repository;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.google.common.net.HttpHeaders;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link ConditionalCacheModule} class.
+ */
+@Test(groups = "unit", testName = "ConditionalCacheModuleMockTest")
+public class ConditionalCacheModuleMockTest extends BaseBitbucketMockTest {
+
+    private final String etag = "\"5d41402abc4b2a76\"";
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+
+    public void testNotModifiedServesCachedObject() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version().setHeader(HttpHeaders.ETAG, etag));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, etag));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new ConditionalCacheModule()).build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(version.version()).isNotNull();
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+
+            assertThat(client.api().systemApi().version()).isSameAs(version);
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo(etag);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLastModified() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/repository.json"))
+                .setResponseCode(200)
+                .setHeader(HttpHeaders.LAST_MODIFIED, lastModified));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new ConditionalCacheModule()).build()) {
+
+            final Repository repository = client.api().repositoryApi().get(projectKey, repoKey);
+            assertThat(repository.errors()).isEmpty();
+            server.takeRequest();
+
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey)).isSameAs(repository);
+            final RecordedRequest request = server.takeRequest();
+            assertThat(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE)).isEqualTo(lastModified);
+            assertThat(request.getHeader(HttpHeaders.AUTHORIZATION)).isNotNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testModifiedReplacesCachedObject() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String changedEtag = "\"7d793037a0760186\"";
+        server.enqueue(version().setHeader(HttpHeaders.ETAG, etag));
+        server.enqueue(version().setHeader(HttpHeaders.ETAG, changedEtag));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new ConditionalCacheModule()).build()) {
+
+            final Version version = client.api().systemApi().version();
+            final Version changed = client.api().systemApi().version();
+            assertThat(changed).isNotSameAs(version);
+            assertThat(client.api().systemApi().version()).isSameAs(changed);
+
+            server.takeRequest();
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo(etag);
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo(changedEtag);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testResponsesWithoutValidatorsNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version());
+        server.enqueue(version());
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new ConditionalCacheModule()).build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(client.api().systemApi().version()).isNotSameAs(version);
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testWithJavaHttpClientModule() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version().setHeader(HttpHeaders.ETAG, etag));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .modules(new JavaHttpClientModule(), new ConditionalCacheModule())
+                .build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(client.api().systemApi().version()).isSameAs(version);
+            server.takeRequest();
+            assertThat(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo(etag);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private MockResponse version() {
+        return new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.DiskCacheModule;
+import com.cdancy.bitbucket.rest.domain.commit.Commit;
+import com.cdancy.bitbucket.rest.domain.file.RawContent;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link DiskCacheModule} class.
+ */
+@Test(groups = "unit", testName = "DiskCacheModuleMockTest", singleThreaded = true)
+public class DiskCacheModuleMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+    private final String commitId = "abcdef0123abcdef4567abcdef8987abcdef6543";
+    private final String filePath = "README.md";
+    private final String commitContent = "Hello, Commit!";
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory("bitbucket-disk-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    public void testSurvivesRestart() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/commit.json")).setResponseCode(200));
+        try {
+            try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+                final Commit commit = client.api().commitsApi().get(projectKey, repoKey, commitId, null);
+                assertThat(commit.errors()).isEmpty();
+                assertThat(commit.id()).isEqualTo(commitId);
+            }
+
+            try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+                final Commit commit = client.api().commitsApi().get(projectKey, repoKey, commitId, null);
+                assertThat(commit.errors()).isEmpty();
+                assertThat(commit.id()).isEqualTo(commitId);
+                assertThat(commit.author().name()).isEqualTo("charlie");
+            }
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testSurvivesLostIndex() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("Hello, World!").setResponseCode(200));
+        try {
+            try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+                assertThat(client.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value())
+                        .isEqualTo("Hello, World!");
+            }
+            Files.delete(directory.resolve("index.dat"));
+
+            try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+                final RawContent content = client.api().fileApi().raw(projectKey, repoKey, filePath, commitId);
+                assertThat(content.errors()).isEmpty();
+                assertThat(content.value()).isEqualTo("Hello, World!");
+            }
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMutableRefsNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("first").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("second").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("third").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("fourth").setResponseCode(200));
+        try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+
+            final FileApi api = client.api().fileApi();
+            assertThat(api.raw(projectKey, repoKey, filePath, "master").value()).isEqualTo("first");
+            assertThat(api.raw(projectKey, repoKey, filePath, "master").value()).isEqualTo("second");
+            assertThat(api.raw(projectKey, repoKey, filePath, commitId.substring(0, 11)).value()).isEqualTo("third");
+            assertThat(api.raw(projectKey, repoKey, filePath, commitId.substring(0, 11)).value()).isEqualTo("fourth");
+            assertThat(server.getRequestCount()).isEqualTo(4);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testErrorsNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/commit-error.json")).setResponseCode(404));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/commit.json")).setResponseCode(200));
+        try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+
+            assertThat(client.api().commitsApi().get(projectKey, repoKey, commitId, null).errors()).isNotEmpty();
+            assertThat(client.api().commitsApi().get(projectKey, repoKey, commitId, null).errors()).isEmpty();
+            assertThat(client.api().commitsApi().get(projectKey, repoKey, commitId, null).errors()).isEmpty();
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        // 1MB segments, so every response fills one of the four that fit
+        final String body = new String(new char[900 * 1024]).replace('\0', 'x');
+        for (int i = 0; i < 6; i++) {
+            server.enqueue(content(body));
+        }
+        final DiskCacheModule module = DiskCacheModule.builder()
+                .directory(directory)
+                .maximumBytes(4L * 1024 * 1024)
+                .build();
+        try (final BitbucketClient client = client(server, module)) {
+
+            final FileApi api = client.api().fileApi();
+            for (int i = 0; i < 5; i++) {
+                api.raw(projectKey, repoKey, filePath, sha(i));
+                if (i > 0) {
+                    // keep the first response recently used
+                    api.raw(projectKey, repoKey, filePath, sha(0));
+                }
+            }
+            assertThat(server.getRequestCount()).isEqualTo(5);
+
+            api.raw(projectKey, repoKey, filePath, sha(0));
+            assertThat(server.getRequestCount()).isEqualTo(5);
+            api.raw(projectKey, repoKey, filePath, sha(1));
+            assertThat(server.getRequestCount()).isEqualTo(6);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testObjectIdsOutsideRevisionArgumentsNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(content("before"));
+        server.enqueue(content("after"));
+        try (final BitbucketClient client = client(server, DiskCacheModule.builder().directory(directory).build())) {
+
+            // a file path naming an object id says nothing about the revision it is read at
+            final String objectPath = "objects/" + commitId + "/data";
+            final FileApi api = client.api().fileApi();
+            assertThat(api.raw(projectKey, repoKey, objectPath, "develop").value()).isEqualTo("before");
+            assertThat(api.raw(projectKey, repoKey, objectPath, "develop").value()).isEqualTo("after");
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testCachedPerCredential() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(content(commitContent));
+        server.enqueue(content("Hello, Other!"));
+        final DiskCacheModule module = DiskCacheModule.builder().directory(directory).build();
+        try (final BitbucketClient client = client(server, module);
+                final BitbucketClient other = clientBuilder(server.getUrl("/"))
+                        .credentials("other:user")
+                        .modules(module)
+                        .build()) {
+
+            assertThat(client.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value()).isEqualTo(commitContent);
+            assertThat(other.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value()).isEqualTo("Hello, Other!");
+            assertThat(other.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value()).isEqualTo("Hello, Other!");
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testClientsShareDirectory() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(content(commitContent));
+        final DiskCacheModule module = DiskCacheModule.builder().directory(directory).build();
+        try (final BitbucketClient client = client(server, module)) {
+            assertThat(client.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value()).isEqualTo(commitContent);
+
+            // e.g. the clients of a pool, all built from the same modules
+            final BitbucketClient other = client(server, module);
+            other.close();
+            try (final BitbucketClient another = client(server, module)) {
+                assertThat(another.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value())
+                        .isEqualTo(commitContent);
+            }
+            assertThat(client.api().fileApi().raw(projectKey, repoKey, filePath, commitId).value()).isEqualTo(commitContent);
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server, final DiskCacheModule module) {
+        return clientBuilder(server.getUrl("/")).modules(module).build();
+    }
+
+    private static MockResponse content(final String body) {
+        return new MockResponse().setBody(body).setResponseCode(200);
+    }
+
+    private static String sha(final int index) {
+        return String.format("%040x", index + 1);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ConditionalCacheModule;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.cdancy.bitbucket.rest.filters.BitbucketAuthenticationFilter;
+import com.cdancy.bitbucket.rest.filters.ScrubNullFromPathFilter;
+import com.cdancy.bitbucket.rest.metrics.FlightRecorderModule;
+import com.google.common.net.HttpHeaders;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link FlightRecorderModule} class.
+ */
+@Test(groups = "unit", testName = "FlightRecorderModuleMockTest")
+public class FlightRecorderModuleMockTest extends BaseBitbucketMockTest {
+
+    private static final String REQUEST_EVENT = "com.cdancy.bitbucket.HttpRequest";
+    private static final String PARSE_EVENT = "com.cdancy.bitbucket.Parse";
+    private static final String FALLBACK_EVENT = "com.cdancy.bitbucket.Fallback";
+    private static final String FILTER_EVENT = "com.cdancy.bitbucket.Filter";
+
+    private final String projectKey = "PRJ";
+    private final String getOperation = "project:get";
+    private final String etag = "\"5d41402abc4b2a76\"";
+
+    public void testRecordsEvents() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/project.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project-not-exist.json")).setResponseCode(404));
+        final Path dump = Files.createTempFile("bitbucket", ".jfr");
+        try (final BitbucketClient client = client(server);
+                final Recording recording = new Recording()) {
+            recording.enable(REQUEST_EVENT).withoutThreshold();
+            recording.enable(PARSE_EVENT).withoutThreshold();
+            recording.enable(FALLBACK_EVENT).withoutThreshold();
+            recording.enable(FILTER_EVENT).withoutThreshold();
+            recording.start();
+
+            assertThat(client.api().projectApi().get(projectKey).errors()).isEmpty();
+            assertThat(client.api().projectApi().get(projectKey).errors()).isNotEmpty();
+
+            recording.stop();
+            recording.dump(dump);
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+            final List<RecordedEvent> requests = events(events, REQUEST_EVENT);
+            assertThat(requests).hasSize(2);
+            assertThat(requests).allSatisfy(event -> assertThat(event.getString("operation")).isEqualTo(getOperation));
+            assertThat(requests.stream().map(event -> event.getInt("statusCode")).collect(Collectors.toList()))
+                    .containsExactlyInAnyOrder(200, 404);
+
+            final List<RecordedEvent> parses = events(events, PARSE_EVENT);
+            assertThat(parses).hasSize(1);
+            assertThat(parses.get(0).getLong("bytes")).isEqualTo(body.length());
+
+            final List<RecordedEvent> fallbacks = events(events, FALLBACK_EVENT);
+            assertThat(fallbacks).hasSize(1);
+            assertThat(fallbacks.get(0).getInt("statusCode")).isEqualTo(404);
+            assertThat(fallbacks.get(0).getClass("fallback").getName()).endsWith("ProjectOnError");
+        } finally {
+            Files.deleteIfExists(dump);
+            server.shutdown();
+        }
+    }
+
+    public void testRecordsFilters() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/files-page.json")).setResponseCode(200));
+        final Path dump = Files.createTempFile("bitbucket", ".jfr");
+        try (final BitbucketClient client = client(server);
+                final Recording recording = new Recording()) {
+            recording.enable(FILTER_EVENT).withoutThreshold();
+            recording.start();
+
+            assertThat(client.api().fileApi().listFiles(projectKey, "myrepo", null, null, null, null).errors()).isEmpty();
+
+            recording.stop();
+            recording.dump(dump);
+            final List<RecordedEvent> filters = events(RecordingFile.readAllEvents(dump), FILTER_EVENT);
+            assertThat(filters).allSatisfy(event -> assertThat(event.getString("operation")).isEqualTo("file:list-files"));
+            assertThat(filters.stream().map(event -> event.getClass("filter").getName()).collect(Collectors.toList()))
+                    .containsExactly(BitbucketAuthenticationFilter.class.getName(), ScrubNullFromPathFilter.class.getName());
+        } finally {
+            Files.deleteIfExists(dump);
+            server.shutdown();
+        }
+    }
+
+    public void testNothingRecordedWhileDisabled() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project.json")).setResponseCode(200));
+        final Path dump = Files.createTempFile("bitbucket", ".jfr");
+        try (final BitbucketClient client = client(server);
+                final Recording recording = new Recording()) {
+            recording.disable(REQUEST_EVENT);
+            recording.start();
+
+            assertThat(client.api().projectApi().get(projectKey).errors()).isEmpty();
+
+            recording.stop();
+            recording.dump(dump);
+            assertThat(events(RecordingFile.readAllEvents(dump), REQUEST_EVENT)).isEmpty();
+        } finally {
+            Files.deleteIfExists(dump);
+            server.shutdown();
+        }
+    }
+
+    public void testNotModifiedIsNotParsedAgain() throws Exception {
+        // either module may be passed first
+        assertNotModifiedIsNotParsedAgain(true);
+        assertNotModifiedIsNotParsedAgain(false);
+    }
+
+    private void assertNotModifiedIsNotParsedAgain(final boolean recorderFirst) throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200)
+                .setHeader(HttpHeaders.ETAG, etag));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, etag));
+        final FlightRecorderModule recorded = new FlightRecorderModule();
+        final ConditionalCacheModule cached = new ConditionalCacheModule();
+        final Path dump = Files.createTempFile("conditional", null);
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .modules(recorderFirst ? recorded : cached, recorderFirst ? cached : recorded)
+                .build();
+                final Recording recording = new Recording()) {
+            recording.enable(REQUEST_EVENT).withoutThreshold();
+            recording.enable(PARSE_EVENT).withoutThreshold();
+            recording.start();
+
+            final Version version = client.api().systemApi().version();
+            assertThat(client.api().systemApi().version()).isSameAs(version);
+
+            recording.stop();
+            recording.dump(dump);
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertThat(events(events, REQUEST_EVENT)).hasSize(2);
+            assertThat(events(events, PARSE_EVENT)).isEmpty();
+        } finally {
+            Files.deleteIfExists(dump);
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server) {
+        return clientBuilder(server.getUrl("/")).modules(new FlightRecorderModule()).build();
+    }
+
+    private static List<RecordedEvent> events(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.hedging.HedgingPolicy;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link HedgingPolicy} class.
+ */
+@Test(groups = "unit", testName = "HedgingPolicyMockTest")
+public class HedgingPolicyMockTest extends BaseBitbucketMockTest {
+
+    private static final int WARM_UP_CALLS = 20;
+
+    public void testHedgesStalledCall() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.setDispatcher(stallingAt(WARM_UP_CALLS));
+        final HedgingPolicy hedging = HedgingPolicy.builder()
+                .budget(0.5)
+                .minimumDelay(Duration.ofMillis(50))
+                .build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).hedgingPolicy(hedging).build()) {
+
+            for (int i = 0; i < WARM_UP_CALLS; i++) {
+                client.api().systemApi().version();
+            }
+            assertThat(hedging.hedges()).isZero();
+
+            final long started = System.nanoTime();
+            assertThat(client.api().systemApi().version().version()).isNotNull();
+            assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(2));
+            assertThat(hedging.hedges()).isEqualTo(1);
+            assertThat(hedging.calls()).isEqualTo(WARM_UP_CALLS + 1);
+            assertThat(server.getRequestCount()).isEqualTo(WARM_UP_CALLS + 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testErrorsOfHedgeDoNotBeatStalledCall() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/pull-request.json");
+        final String errors = payloadFromResource("/errors.json");
+        final AtomicInteger requests = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                final int index = requests.getAndIncrement();
+                if (index > WARM_UP_CALLS) {
+                    return new MockResponse().setBody(errors).setResponseCode(503);
+                }
+                if (index == WARM_UP_CALLS) {
+                    TimeUnit.MILLISECONDS.sleep(500);
+                }
+                return new MockResponse().setBody(body).setResponseCode(200);
+            }
+        });
+        final HedgingPolicy hedging = HedgingPolicy.builder()
+                .budget(0.5)
+                .minimumDelay(Duration.ofMillis(50))
+                .build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).hedgingPolicy(hedging).build()) {
+
+            for (int i = 0; i < WARM_UP_CALLS; i++) {
+                client.api().pullRequestApi().get("PRJ", "myrepo", 101);
+            }
+
+            final PullRequest pullRequest = client.api().pullRequestApi().get("PRJ", "myrepo", 101);
+            assertThat(hedging.hedges()).isEqualTo(1);
+            assertThat(server.getRequestCount()).isEqualTo(WARM_UP_CALLS + 2);
+            assertThat(pullRequest.errors()).isEmpty();
+            assertThat(pullRequest.id()).isEqualTo(101);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testNotHedgedWithoutBudget() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.setDispatcher(stallingAt(WARM_UP_CALLS));
+        final HedgingPolicy hedging = HedgingPolicy.builder()
+                .budget(0.01)
+                .minimumDelay(Duration.ofMillis(50))
+                .build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).hedgingPolicy(hedging).build()) {
+
+            for (int i = 0; i <= WARM_UP_CALLS; i++) {
+                client.api().systemApi().version();
+            }
+            assertThat(hedging.hedges()).isZero();
+            assertThat(server.getRequestCount()).isEqualTo(WARM_UP_CALLS + 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testOnlyConfiguredOperationsHedged() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.setDispatcher(stallingAt(WARM_UP_CALLS));
+        final HedgingPolicy hedging = HedgingPolicy.builder()
+                .budget(1)
+                .operations("pull-request:get")
+                .build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).hedgingPolicy(hedging).build()) {
+
+            for (int i = 0; i <= WARM_UP_CALLS; i++) {
+                client.api().systemApi().version();
+            }
+            assertThat(hedging.calls()).isZero();
+            assertThat(server.getRequestCount()).isEqualTo(WARM_UP_CALLS + 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Serve versions right away, but for the request with the passed index
+     * which stalls for a few seconds.
+     */
+    private Dispatcher stallingAt(final int stalled) {
+        final String body = payloadFromResource("/version.json");
+        final AtomicInteger requests = new AtomicInteger();
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                if (requests.getAndIncrement() == stalled) {
+                    TimeUnit.SECONDS.sleep(3);
+                }
+                return new MockResponse().setBody(body).setResponseCode(200);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.config.BitbucketJsonModule;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequestPage;
+import com.cdancy.bitbucket.rest.domain.pullrequest.User;
+import com.cdancy.bitbucket.rest.interning.Interner;
+import com.cdancy.bitbucket.rest.interning.InterningModule;
+import com.cdancy.bitbucket.rest.projection.Projection;
+import com.google.inject.Guice;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link Interner} class.
+ */
+@Test(groups = "unit", testName = "InterningMockTest")
+public class InterningMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+    private final String pageResource = "/pull-request-page.json";
+
+    public void testSharesEqualEntitiesAcrossCalls() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource(pageResource);
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final Interner interner = Interner.builder().build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .modules(new InterningModule(interner))
+                .build()) {
+            final PullRequest first = list(client.api()).values().get(0);
+            final PullRequest second = list(client.api()).values().get(0);
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second).isEqualTo(first);
+            assertThat(second.author()).isSameAs(first.author());
+            assertThat(second.reviewers().get(0)).isSameAs(first.reviewers().get(0));
+            assertThat(second.toRef().repository()).isSameAs(first.toRef().repository());
+            assertThat(second.toRef().repository().project()).isSameAs(first.toRef().repository().project());
+            assertThat(second.links()).isSameAs(first.links());
+
+            // the repository pull requests are made from and to is shared within a page too
+            assertThat(first.fromRef().repository()).isSameAs(first.toRef().repository());
+            assertThat(interner.hits()).isPositive();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testReplacesEntitiesWhichChanged() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource(pageResource);
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final Interner interner = Interner.builder().build();
+        final Projection projection = Projection.builder()
+                .include(User.class, "id", "slug")
+                .build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .modules(new InterningModule(interner))
+                .build()) {
+            final User full = list(client.api()).values().get(0).author().user();
+            final User projected = projection.apply(() -> list(client.api())).values().get(0).author().user();
+
+            assertThat(projected).isNotSameAs(full);
+            assertThat(projected.id()).isEqualTo(full.id());
+            assertThat(projected.displayName()).isNull();
+            assertThat(full.displayName()).isNotNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testInternsWhateverTheOrderOfModules() {
+        final Interner interner = Interner.builder().build();
+        final Json json = Guice.createInjector(new InterningModule(interner), new GsonModule(), new BitbucketJsonModule())
+                .getInstance(Json.class);
+        final String body = payloadFromResource(pageResource);
+
+        final PullRequest first = json.fromJson(body, PullRequestPage.class).values().get(0);
+        final PullRequest second = json.fromJson(body, PullRequestPage.class).values().get(0);
+
+        assertThat(second.author()).isSameAs(first.author());
+        assertThat(interner.size()).isPositive();
+    }
+
+    public void testLeavesEntitiesAloneByDefault() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource(pageResource);
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final PullRequest first = list(baseApi).values().get(0);
+            final PullRequest second = list(baseApi).values().get(0);
+
+            assertThat(second.author()).isEqualTo(first.author());
+            assertThat(second.author()).isNotSameAs(first.author());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private PullRequestPage list(final BitbucketApi api) {
+        return api.pullRequestApi().list(projectKey, repoKey, null, null, null, null, null, null, 0, 25);
+    }
+}
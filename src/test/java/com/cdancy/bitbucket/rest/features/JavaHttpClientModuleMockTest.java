@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.Constants;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApiMetadata;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.config.JavaHttpClientModule;
+import com.cdancy.bitbucket.rest.domain.branch.Branch;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.cdancy.bitbucket.rest.options.CreateBranch;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link JavaHttpClientModule} class.
+ */
+@Test(groups = "unit", testName = "JavaHttpClientModuleMockTest")
+public class JavaHttpClientModuleMockTest extends BaseBitbucketMockTest {
+
+    private final String restApiPath = "/rest/api/";
+
+    public void testGetVersion() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new JavaHttpClientModule()).build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(version).isNotNull();
+            assertThat(version.version()).isNotNull();
+            final RecordedRequest request = assertSent(server, "GET", restApiPath + BitbucketApiMetadata.API_VERSION
+                    + "/application-properties");
+            assertThat(request.getHeader("Authorization")).isEqualTo("Basic aGVsbG86d29ybGQ=");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testCreateBranch() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/branch.json")).setResponseCode(200));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new JavaHttpClientModule()).build()) {
+
+            final String commitHash = "8d351a10fb428c0c1239530256e21cf24f136e73";
+            final Branch branch = client.api().branchApi().create("PRJ", "myrepo",
+                    CreateBranch.create("dev-branch", commitHash, null));
+            assertThat(branch).isNotNull();
+            assertThat(branch.errors()).isEmpty();
+            assertSent(server, "POST", "/rest/branch-utils/" + BitbucketApiMetadata.API_VERSION
+                    + "/projects/PRJ/repos/myrepo/branches",
+                    "{\"name\":\"dev-branch\",\"startPoint\":\"" + commitHash + "\",\"message\":\"dev-branch\"}");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testGetPullRequestOnError() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/pull-request-not-exist.json")).setResponseCode(404));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).modules(new JavaHttpClientModule()).build()) {
+
+            final PullRequest pr = client.api().pullRequestApi().get("PRJ", "my-repo", 101);
+            assertThat(pr).isNotNull();
+            assertThat(pr.errors()).isNotEmpty();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMaxRequestsPerHost() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final int calls = 4;
+        final long delayMillis = 200;
+        final MockResponse response = new MockResponse()
+                .setBody(payloadFromResource("/version.json"))
+                .setResponseCode(200);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+                return response;
+            }
+        });
+
+        final Properties properties = setupProperties();
+        properties.setProperty(Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST, "1");
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .overrides(properties)
+                .modules(new JavaHttpClientModule())
+                .build()) {
+
+            final Stopwatch stopwatch = Stopwatch.createStarted();
+            final List<CompletableFuture<Version>> futures = Lists.newArrayList();
+            for (int i = 0; i < calls; i++) {
+                futures.add(client.asyncApi().systemApi().version());
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+            // a single permit means the calls wait for the responses of each other
+            assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(delayMillis * calls);
+            for (final CompletableFuture<Version> future : futures) {
+                assertThat(future.get().version()).isNotNull();
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testReleasesPermitsOfResponsesWithoutBody() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final int maxRequestsPerHost = 2;
+        final int calls = maxRequestsPerHost * 3;
+        final MockResponse noContent = new MockResponse().setResponseCode(204);
+        for (int i = 0; i < calls; i++) {
+            server.enqueue(noContent);
+        }
+
+        final Properties properties = setupProperties();
+        properties.setProperty(Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST, String.valueOf(maxRequestsPerHost));
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .overrides(properties)
+                .modules(new JavaHttpClientModule())
+                .build()) {
+
+            // the parser of a delete never opens the body, which used to keep its permit forever
+            final CompletableFuture<Void> deletes = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < calls; i++) {
+                    assertThat(client.api().branchApi().delete("PRJ", "myrepo", "refs/heads/some-branch").value())
+                            .isTrue();
+                }
+            });
+            deletes.get(10, TimeUnit.SECONDS);
+            assertThat(server.getRequestCount()).isEqualTo(calls);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
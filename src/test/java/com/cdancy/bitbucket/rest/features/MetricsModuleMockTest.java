@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ConditionalCacheModule;
+import com.cdancy.bitbucket.rest.domain.project.Project;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.cdancy.bitbucket.rest.metrics.Histogram;
+import com.cdancy.bitbucket.rest.metrics.InMemoryMetricsRegistry;
+import com.cdancy.bitbucket.rest.metrics.MetricsModule;
+import com.cdancy.bitbucket.rest.metrics.OperationMetrics;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link MetricsModule} class.
+ */
+@Test(groups = "unit", testName = "MetricsModuleMockTest")
+public class MetricsModuleMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String etag = "\"5d41402abc4b2a76\"";
+
+    public void testMeasuresSuccessfulRequests() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/project.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        try (final BitbucketClient client = client(server, metrics)) {
+
+            assertThat(client.api().projectApi().get(projectKey).errors()).isEmpty();
+            assertThat(client.api().projectApi().get(projectKey).errors()).isEmpty();
+
+            final OperationMetrics measured = metrics.operation("project:get");
+            assertThat(measured).isNotNull();
+            assertThat(measured.requests()).isEqualTo(2);
+            assertThat(measured.statusCodes()).isEqualTo(ImmutableMap.of(200, 2L));
+            assertThat(measured.networkLatency().count()).isEqualTo(2);
+            assertThat(measured.networkLatency().max()).isPositive();
+            assertThat(measured.parseLatency().count()).isEqualTo(2);
+            assertThat(measured.responseSizes().max()).isEqualTo(body.length());
+            assertThat(measured.fallbacks()).isZero();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMeasuresFallbacks() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project-not-exist.json")).setResponseCode(404));
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        try (final BitbucketClient client = client(server, metrics)) {
+
+            assertThat(client.api().projectApi().get(projectKey).errors()).isEmpty();
+            final Project missing = client.api().projectApi().get(projectKey);
+            assertThat(missing.errors()).isNotEmpty();
+
+            final OperationMetrics measured = metrics.operation("project:get");
+            assertThat(measured.requests()).isEqualTo(2);
+            assertThat(measured.statusCodes()).isEqualTo(ImmutableMap.of(200, 1L, 404, 1L));
+            assertThat(measured.fallbacks()).isEqualTo(1);
+            assertThat(metrics.operations()).containsOnlyKeys("project:get");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testNotModifiedIsNotParsedAgain() throws Exception {
+        // either module may be passed first
+        assertNotModifiedIsNotParsedAgain(true);
+        assertNotModifiedIsNotParsedAgain(false);
+    }
+
+    public void testHistogramPercentiles() {
+        final Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.max()).isEqualTo(1000);
+        assertThat(histogram.mean()).isEqualTo(500.5);
+        assertThat(histogram.valueAtPercentile(50)).isBetween(500L, 516L);
+        assertThat(histogram.valueAtPercentile(99)).isBetween(990L, 1023L);
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(1000);
+    }
+
+    private void assertNotModifiedIsNotParsedAgain(final boolean metricsFirst) throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200)
+                .setHeader(HttpHeaders.ETAG, etag));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, etag));
+        final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        final MetricsModule metered = new MetricsModule(metrics);
+        final ConditionalCacheModule cached = new ConditionalCacheModule();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .modules(metricsFirst ? metered : cached, metricsFirst ? cached : metered)
+                .build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(client.api().systemApi().version()).isSameAs(version);
+
+            final OperationMetrics measured = metrics.operation("system:version");
+            assertThat(measured.requests()).isEqualTo(2);
+            assertThat(measured.parseLatency().count()).isZero();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server, final InMemoryMetricsRegistry metrics) {
+        return clientBuilder(server.getUrl("/")).modules(new MetricsModule(metrics)).build();
+    }
+}
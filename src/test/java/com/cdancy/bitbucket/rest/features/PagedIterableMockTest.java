@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.BitbucketApiMetadata;
+import com.cdancy.bitbucket.rest.domain.project.Project;
+import com.cdancy.bitbucket.rest.exception.PageFetchException;
+import com.cdancy.bitbucket.rest.paging.PageFetcher;
+import com.cdancy.bitbucket.rest.paging.PagedIterable;
+import com.google.common.collect.ImmutableMap;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link PagedIterable} class.
+ */
+@Test(groups = "unit", testName = "PagedIterableMockTest")
+public class PagedIterableMockTest extends BaseBitbucketMockTest {
+
+    private final String projectsPath = restBasePath + BitbucketApiMetadata.API_VERSION + "/projects";
+    private final String getMethod = "GET";
+
+    public void testIteratesAllPages() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, false));
+        server.enqueue(projectPage(4, 2, 1, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final List<String> keys = PagedIterable.builder(projects(baseApi))
+                    .limit(2)
+                    .build()
+                    .stream()
+                    .map(Project::key)
+                    .collect(Collectors.toList());
+            assertThat(keys).containsExactly(key(0), key(1), key(2), key(3), key(4));
+
+            assertSent(server, getMethod, projectsPath, pageParams(0, 2));
+            assertSent(server, getMethod, projectsPath, pageParams(2, 2));
+            assertSent(server, getMethod, projectsPath, pageParams(4, 2));
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testFetchesLazily() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final PagedIterable<Project> projects = PagedIterable.builder(projects(baseApi))
+                    .limit(2)
+                    .prefetch(false)
+                    .build();
+            assertThat(server.getRequestCount()).isZero();
+
+            final Iterator<Project> iterator = projects.iterator();
+            assertThat(iterator.next().key()).isEqualTo(key(0));
+            assertThat(iterator.next().key()).isEqualTo(key(1));
+            assertThat(server.getRequestCount()).isEqualTo(1);
+
+            assertThat(iterator.next().key()).isEqualTo(key(2));
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testPrefetchesNextPage() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final Iterator<Project> iterator = PagedIterable.builder(projects(baseApi))
+                    .limit(2)
+                    .build()
+                    .iterator();
+            assertThat(iterator.next().key()).isEqualTo(key(0));
+
+            // the second page is asked for while the first is still being consumed
+            assertSent(server, getMethod, projectsPath, pageParams(0, 2));
+            final RecordedRequest prefetched = server.takeRequest(10, TimeUnit.SECONDS);
+            assertThat(prefetched).isNotNull();
+            assertThat(prefetched.getPath()).contains("start=2");
+
+            assertThat(iterator.next().key()).isEqualTo(key(1));
+            assertThat(iterator.next().key()).isEqualTo(key(2));
+            assertThat(iterator.next().key()).isEqualTo(key(3));
+            assertThat(iterator.hasNext()).isFalse();
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testPageWithErrorsThrows() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project-not-exist.json")).setResponseCode(404));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"));
+                final Stream<Project> projects = PagedIterable.builder(projects(baseApi)).limit(2).build().stream()) {
+
+            assertThatThrownBy(() -> projects.collect(Collectors.toList()))
+                    .isInstanceOf(PageFetchException.class)
+                    .satisfies(e -> assertThat(((PageFetchException) e).errors()).isNotEmpty());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testParallelPagesInOrder() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final List<Integer> starts = new CopyOnWriteArrayList<>();
+        server.setDispatcher(projectListing(starts, 2, 10, start -> start + 2));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final List<String> keys = PagedIterable.builder(projects(baseApi))
+                    .limit(2)
+                    .parallelism(3)
+                    .build()
+                    .stream()
+                    .map(Project::key)
+                    .collect(Collectors.toList());
+            assertThat(keys).containsExactly(key(0), key(1), key(2), key(3), key(4),
+                    key(5), key(6), key(7), key(8), key(9));
+
+            // every window is asked for once, with at most parallelism - 1 beyond the last page
+            assertThat(starts).doesNotHaveDuplicates();
+            assertThat(starts).contains(0, 2, 4, 6, 8);
+            assertThat(starts.size()).isBetween(5, 7);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testParallelPagesResumeFromReportedStart() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        // the page at 2 skips a value, so the windows speculated at 4 and 6 are off
+        final List<Integer> starts = new CopyOnWriteArrayList<>();
+        server.setDispatcher(projectListing(starts, 2, 9, start -> start == 2 ? 5 : start + 2));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final List<String> keys = PagedIterable.builder(projects(baseApi))
+                    .limit(2)
+                    .parallelism(2)
+                    .build()
+                    .stream()
+                    .map(Project::key)
+                    .collect(Collectors.toList());
+            assertThat(keys).containsExactly(key(0), key(1), key(2), key(3), key(5), key(6), key(7), key(8));
+            assertThat(starts).contains(0, 2, 5, 7);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testParallelismRequiresPrefetch() {
+        assertThatThrownBy(() -> PagedIterable.builder((start, limit) -> null).prefetch(false).parallelism(2).build())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PageFetcher<Project> projects(final BitbucketApi baseApi) {
+        return (start, limit) -> baseApi.projectApi().list(null, null, start, limit);
+    }
+
+    private static String key(final int index) {
+        return "PRJ" + index;
+    }
+
+    private static Map<String, ?> pageParams(final int start, final int limit) {
+        return ImmutableMap.of("start", start, "limit", limit);
+    }
+
+    /**
+     * Serve a listing of `total` projects from whichever offset is asked for,
+     * recording the offsets, with pages responding at different speeds such
+     * that concurrently fetched pages complete out of order.
+     */
+    private static Dispatcher projectListing(final List<Integer> starts,
+            final int limit,
+            final int total,
+            final IntUnaryOperator nextPageStart) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                final String path = request.getPath();
+                final int start = Integer.parseInt(path.replaceAll(".*[?&]start=(\\d+).*", "$1"));
+                starts.add(start);
+
+                final int end = Math.min(start + limit, total);
+                final int next = nextPageStart.applyAsInt(start);
+                return projectPage(start, Math.max(end - start, 0), limit, next, next >= total)
+                        .setBodyDelay((3 - start % 3) * 20L, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    /**
+     * Page of projects keyed `PRJ{start}` through `PRJ{start + size - 1}`.
+     */
+    static MockResponse projectPage(final int start, final int limit, final int size, final boolean isLastPage) {
+        return projectPage(start, size, limit, start + size, isLastPage);
+    }
+
+    private static MockResponse projectPage(final int start,
+            final int size,
+            final int limit,
+            final int nextPageStart,
+            final boolean isLastPage) {
+        final String values = IntStream.range(start, start + size)
+                .mapToObj(i -> "{\"key\":\"PRJ" + i + "\",\"id\":" + i
+                        + ",\"name\":\"Project " + i + "\",\"public\":false,\"type\":\"NORMAL\"}")
+                .collect(Collectors.joining(","));
+        return new MockResponse().setResponseCode(200).setBody("{\"start\":" + start
+                + ",\"limit\":" + limit
+                + ",\"size\":" + size
+                + ",\"nextPageStart\":" + nextPageStart
+                + ",\"isLastPage\":" + isLastPage
+                + ",\"values\":[" + values + "]}");
+    }
+}
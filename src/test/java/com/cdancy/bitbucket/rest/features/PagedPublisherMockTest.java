@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static com.cdancy.bitbucket.rest.features.PagedIterableMockTest.projectPage;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.domain.project.Project;
+import com.cdancy.bitbucket.rest.exception.PageFetchException;
+import com.cdancy.bitbucket.rest.paging.PageFetcher;
+import com.cdancy.bitbucket.rest.paging.PagedPublisher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link PagedPublisher} class.
+ */
+@Test(groups = "unit", testName = "PagedPublisherMockTest")
+public class PagedPublisherMockTest extends BaseBitbucketMockTest {
+
+    private static final Object COMPLETE = new Object();
+
+    public void testPublishesAllPages() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, false));
+        server.enqueue(projectPage(4, 2, 1, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            PagedPublisher.builder(projects(baseApi)).limit(2).build().subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ" + i);
+            }
+            assertThat(subscriber.take()).isSameAs(COMPLETE);
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testFetchesOnDemand() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            PagedPublisher.builder(projects(baseApi)).limit(2).build().subscribe(subscriber);
+            assertThat(subscriber.poll()).isNull();
+            assertThat(server.getRequestCount()).isZero();
+
+            // the first page satisfies demand of up to 2 values
+            subscriber.subscription.request(2);
+            assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ0");
+            assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ1");
+            assertThat(subscriber.poll()).isNull();
+            assertThat(server.getRequestCount()).isEqualTo(1);
+
+            subscriber.subscription.request(1);
+            assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ2");
+            assertThat(server.getRequestCount()).isEqualTo(2);
+
+            subscriber.subscription.request(2);
+            assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ3");
+            assertThat(subscriber.take()).isSameAs(COMPLETE);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testPageWithErrorsSignalsError() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/project-not-exist.json")).setResponseCode(404));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            PagedPublisher.builder(projects(baseApi)).limit(2).build().subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+
+            assertThat(subscriber.take()).isInstanceOf(Project.class);
+            assertThat(subscriber.take()).isInstanceOf(Project.class);
+            final Object error = subscriber.take();
+            assertThat(error).isInstanceOf(PageFetchException.class);
+            assertThat(((PageFetchException) error).errors()).isNotEmpty();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testCancelStopsFetching() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(projectPage(0, 2, 2, false));
+        server.enqueue(projectPage(2, 2, 2, true));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+
+            final RecordingSubscriber subscriber = new RecordingSubscriber();
+            PagedPublisher.builder(projects(baseApi)).limit(2).build().subscribe(subscriber);
+            subscriber.subscription.request(1);
+            assertThat(((Project) subscriber.take()).key()).isEqualTo("PRJ0");
+
+            subscriber.subscription.cancel();
+            subscriber.subscription.request(3);
+            assertThat(subscriber.poll()).isNull();
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testNonPositiveRequestSignalsError() throws Exception {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        PagedPublisher.<Project>of((start, limit) -> null).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.take()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PageFetcher<Project> projects(final BitbucketApi baseApi) {
+        return (start, limit) -> baseApi.projectApi().list(null, null, start, limit);
+    }
+
+    /**
+     * Subscriber queueing every signal received, values as they are,
+     * errors as the Throwable and completion as {@link #COMPLETE}.
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<Project> {
+
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final Project item) {
+            signals.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            signals.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        Object take() throws InterruptedException {
+            final Object signal = signals.poll(10, TimeUnit.SECONDS);
+            assertThat(signal).isNotNull();
+            return signal;
+        }
+
+        Object poll() throws InterruptedException {
+            return signals.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketApi;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ResponseCache;
+import com.cdancy.bitbucket.rest.domain.comment.Comments;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequest;
+import com.cdancy.bitbucket.rest.domain.pullrequest.PullRequestPage;
+import com.cdancy.bitbucket.rest.paging.PagedIterable;
+import com.cdancy.bitbucket.rest.projection.Projection;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link Projection} class.
+ */
+@Test(groups = "unit", testName = "ProjectionMockTest")
+public class ProjectionMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+    private final Projection projection = Projection.builder()
+            .include(PullRequest.class, "id", "title", "state", "updatedDate")
+            .build();
+
+    public void testSkipsFieldsLeftOut() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/pull-request-page.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final PullRequestPage projected = projection.apply(() -> list(baseApi));
+            final PullRequestPage full = list(baseApi);
+
+            assertThat(projected.size()).isEqualTo(full.size());
+            assertThat(projected.isLastPage()).isEqualTo(full.isLastPage());
+            final PullRequest projectedValue = projected.values().get(0);
+            final PullRequest fullValue = full.values().get(0);
+            assertThat(projectedValue.id()).isEqualTo(fullValue.id());
+            assertThat(projectedValue.title()).isEqualTo(fullValue.title());
+            assertThat(projectedValue.state()).isEqualTo(fullValue.state());
+            assertThat(projectedValue.updatedDate()).isEqualTo(fullValue.updatedDate());
+
+            assertThat(projectedValue.description()).isNull();
+            assertThat(projectedValue.fromRef()).isNull();
+            assertThat(projectedValue.author()).isNull();
+            assertThat(projectedValue.links()).isNull();
+            assertThat(projectedValue.reviewers()).isEmpty();
+            assertThat(projectedValue.version()).isZero();
+            assertThat(projectedValue.createdDate()).isZero();
+
+            assertThat(fullValue.fromRef()).isNotNull();
+            assertThat(fullValue.author()).isNotNull();
+            assertThat(fullValue.reviewers()).isNotEmpty();
+            assertThat(Projection.current()).isNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testReadsFieldsLazily() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/comments.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final Projection lazy = Projection.builder()
+                .lazy(Comments.class, "comments", "tasks", "properties")
+                .build();
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final Comments lazyComments = lazy.apply(() -> baseApi.commentsApi().get(projectKey, repoKey, 101, 1));
+            final Comments fullComments = baseApi.commentsApi().get(projectKey, repoKey, 101, 1);
+
+            assertThat(Projection.isLazy(lazyComments.comments())).isTrue();
+            assertThat(Projection.isLazy(lazyComments.tasks())).isFalse();
+            assertThat(lazyComments.tasks()).isEmpty();
+            assertThat(Projection.isLazy(lazyComments.properties())).isTrue();
+            assertThat(Projection.isLazy(fullComments.comments())).isFalse();
+
+            // replies are decoded under the projection they were read under
+            assertThat(Projection.isLazy(lazyComments.comments().get(0).properties())).isTrue();
+            assertThat(lazyComments).isEqualTo(fullComments);
+            assertThat(lazyComments.properties()).isEqualTo(fullComments.properties());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLazyFieldsKeepEscapedAndNonAsciiText() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        // quotes, backslashes, control characters, 2, 3 and 4 byte UTF-8 and an unpaired surrogate
+        final String body = payloadFromResource("/comments.json")
+                .replace("An insightful comment.", "\\\"q\\\" \\\\ \\n\\t\\u0001 caf\u00e9 \u4e2d \ud83d\ude00 \\ud800");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final Projection lazy = Projection.builder()
+                .lazy(Comments.class, "comments")
+                .build();
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final Comments lazyComments = lazy.apply(() -> baseApi.commentsApi().get(projectKey, repoKey, 101, 1));
+            final Comments fullComments = baseApi.commentsApi().get(projectKey, repoKey, 101, 1);
+
+            assertThat(Projection.isLazy(lazyComments.comments())).isTrue();
+            assertThat(lazyComments.comments().get(0).text())
+                    .isEqualTo("\"q\" \\ \n\t\u0001 caf\u00e9 \u4e2d \ud83d\ude00 \ud800")
+                    .isEqualTo(fullComments.comments().get(0).text());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testProjectsPages() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/pull-request-page.json")).setResponseCode(200));
+        try (final BitbucketApi baseApi = api(server.getUrl("/"))) {
+            final List<PullRequest> values = PagedIterable.<PullRequest>builder((start, limit) -> baseApi.pullRequestApi()
+                    .list(projectKey, repoKey, null, null, null, null, null, null, start, limit))
+                    .projection(projection)
+                    .build()
+                    .stream()
+                    .collect(Collectors.toList());
+
+            assertThat(values).isNotEmpty();
+            assertThat(values.get(0).title()).isNotNull();
+            assertThat(values.get(0).author()).isNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testDoesNotCacheProjectedResults() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String body = payloadFromResource("/pull-request-page.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        final ResponseCache cache = ResponseCache.builder().ttl("pull-request:list", Duration.ofMinutes(1)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+            final PullRequestPage projected = projection.apply(() -> list(client.api()));
+            final PullRequestPage full = list(client.api());
+            final PullRequestPage cached = projection.apply(() -> list(client.api()));
+
+            assertThat(projected.values().get(0).author()).isNull();
+            assertThat(full.values().get(0).author()).isNotNull();
+            assertThat(cached).isSameAs(full);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private PullRequestPage list(final BitbucketApi api) {
+        return api.pullRequestApi().list(projectKey, repoKey, null, null, null, null, null, null, 0, 25);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponseException;
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.ratelimit.RateLimitModule;
+import com.cdancy.bitbucket.rest.ratelimit.RateLimiter;
+import com.cdancy.bitbucket.rest.ratelimit.ThrottleState;
+import com.google.common.net.HttpHeaders;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link RateLimiter} class.
+ */
+@Test(groups = "unit", testName = "RateLimiterMockTest")
+public class RateLimiterMockTest extends BaseBitbucketMockTest {
+
+    public void testRetriesAfterTooManyRequests() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "1"));
+        server.enqueue(version());
+        final RateLimiter limiter = RateLimiter.builder().build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            final long started = System.nanoTime();
+            assertThat(client.api().systemApi().version().version()).isNotNull();
+            assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+            assertThat(server.getRequestCount()).isEqualTo(2);
+
+            assertThat(limiter.state()).hasSize(1);
+            final ThrottleState state = limiter.state().get(0);
+            assertThat(state.throttled()).isEqualTo(1);
+            assertThat(state.endpoint()).isEqualTo("http://" + server.getHostName() + ":" + server.getPort());
+            assertThat(state.credential()).startsWith("Basic:").doesNotContain(client.authValue());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testGivesUpAfterMaximumRetries() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0"));
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0"));
+        final RateLimiter limiter = RateLimiter.builder().maximumRetries(1).build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            assertThatThrownBy(() -> client.api().systemApi().version())
+                    .isInstanceOf(HttpResponseException.class);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+            assertThat(limiter.state().get(0).throttled()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLearnsLimitsFromHeaders() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version()
+                .setHeader("X-RateLimit-Limit", "2")
+                .setHeader("X-RateLimit-Remaining", "0")
+                .setHeader("X-RateLimit-FillRate", "5")
+                .setHeader("X-RateLimit-Interval-Seconds", "1"));
+        server.enqueue(version());
+        final RateLimiter limiter = RateLimiter.builder().build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            client.api().systemApi().version();
+            final ThrottleState state = limiter.state().get(0);
+            assertThat(state.limit()).isEqualTo(2);
+            assertThat(state.remaining()).isZero();
+            assertThat(state.permitsPerSecond()).isEqualTo(5.0);
+
+            // the bucket being empty the next request waits for it to refill
+            final long started = System.nanoTime();
+            client.api().systemApi().version();
+            assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testPacesRequests() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(version());
+        }
+        final RateLimiter limiter = RateLimiter.builder().limit(10, 1).build();
+        try (final BitbucketClient client = client(server, limiter)) {
+
+            final long started = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                client.api().systemApi().version();
+            }
+            assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(350));
+            assertThat(limiter.state().get(0).throttled()).isZero();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server, final RateLimiter limiter) {
+        return clientBuilder(server.getUrl("/")).modules(new RateLimitModule(limiter)).build();
+    }
+
+    private MockResponse version() {
+        return new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ResponseCache;
+import com.cdancy.bitbucket.rest.domain.repository.Repository;
+import com.cdancy.bitbucket.rest.domain.system.Version;
+import com.cdancy.bitbucket.rest.options.CreateBranch;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link ResponseCache} class.
+ */
+@Test(groups = "unit", testName = "ResponseCacheMockTest")
+public class ResponseCacheMockTest extends BaseBitbucketMockTest {
+
+    private final String repositoryGet = "repository:get";
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+
+    public void testCachesForTtl() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(repository());
+        final ResponseCache cache = ResponseCache.builder().ttl(repositoryGet, Duration.ofMinutes(1)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+
+            final Repository repository = client.api().repositoryApi().get(projectKey, repoKey);
+            assertThat(repository.errors()).isEmpty();
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey)).isSameAs(repository);
+            assertThat(client.asyncApi().repositoryApi().get(projectKey, repoKey).get()).isSameAs(repository);
+
+            assertThat(server.getRequestCount()).isEqualTo(1);
+            assertThat(cache.stats().hitCount()).isEqualTo(2);
+            assertThat(cache.stats().missCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testOperationsWithoutTtlNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version());
+        server.enqueue(version());
+        final ResponseCache cache = ResponseCache.builder().ttl(repositoryGet, Duration.ofMinutes(1)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+
+            final Version version = client.api().systemApi().version();
+            assertThat(client.api().systemApi().version()).isNotSameAs(version);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+            assertThat(cache.stats().requestCount()).isZero();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testExpiresAfterTtl() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(version());
+        server.enqueue(version());
+        final ResponseCache cache = ResponseCache.builder().ttl("system:version", Duration.ofMillis(200)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+
+            final Version version = client.api().systemApi().version();
+            Thread.sleep(300);
+            assertThat(client.api().systemApi().version()).isNotSameAs(version);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+            assertThat(cache.stats().evictionCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMutationInvalidatesScopedReads() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        final String otherRepoKey = "otherrepo";
+        server.enqueue(repository());
+        server.enqueue(repository());
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/branch.json")).setResponseCode(200));
+        server.enqueue(repository());
+        final ResponseCache cache = ResponseCache.builder().ttl(repositoryGet, Duration.ofMinutes(1)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+
+            final Repository repository = client.api().repositoryApi().get(projectKey, repoKey);
+            final Repository otherRepository = client.api().repositoryApi().get(projectKey, otherRepoKey);
+
+            client.api().branchApi().create(projectKey, repoKey,
+                    CreateBranch.create("dev-branch", "8d351a10fb428c0c1239530256e21cf24f136e73", null));
+
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey)).isNotSameAs(repository);
+            assertThat(client.api().repositoryApi().get(projectKey, otherRepoKey)).isSameAs(otherRepository);
+            assertThat(server.getRequestCount()).isEqualTo(4);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testErrorsNotCached() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/repository-not-exist.json")).setResponseCode(404));
+        server.enqueue(repository());
+        final ResponseCache cache = ResponseCache.builder().defaultTtl(Duration.ofMinutes(1)).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/")).responseCache(cache).build()) {
+
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey).errors()).isNotEmpty();
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey).errors()).isEmpty();
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private MockResponse repository() {
+        return new MockResponse().setBody(payloadFromResource("/repository.json")).setResponseCode(200);
+    }
+
+    private MockResponse version() {
+        return new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+    }
+}
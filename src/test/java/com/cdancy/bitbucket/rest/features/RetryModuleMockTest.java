@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.domain.common.RequestStatus;
+import com.cdancy.bitbucket.rest.retry.RetryModule;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link RetryModule} class.
+ */
+@Test(groups = "unit", testName = "RetryModuleMockTest")
+public class RetryModuleMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+
+    public void testRetriesUnavailableGets() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(version());
+        try (final BitbucketClient client = client(server, 3)) {
+
+            assertThat(client.api().systemApi().version().version()).isNotNull();
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testGivesUpAfterMaximumRetries() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(504));
+        server.enqueue(new MockResponse().setResponseCode(504));
+        server.enqueue(version());
+        try (final BitbucketClient client = client(server, 1)) {
+
+            assertThatThrownBy(() -> client.api().systemApi().version()).isNotNull();
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testInternalServerErrorNotRetried() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(version());
+        try (final BitbucketClient client = client(server, 3)) {
+
+            assertThatThrownBy(() -> client.api().systemApi().version()).isNotNull();
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testOnlyGetsRetried() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        try (final BitbucketClient client = client(server, 3)) {
+
+            final RequestStatus status = client.api().repositoryApi().delete(projectKey, repoKey);
+            assertThat(status.value()).isFalse();
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private BitbucketClient client(final MockWebServer server, final int maximumRetries) {
+        return clientBuilder(server.getUrl("/"))
+                .modules(RetryModule.builder()
+                        .maximumRetries(maximumRetries)
+                        .initialDelay(Duration.ofMillis(10))
+                        .build())
+                .build();
+    }
+
+    private MockResponse version() {
+        return new MockResponse().setBody(payloadFromResource("/version.json")).setResponseCode(200);
+    }
+}
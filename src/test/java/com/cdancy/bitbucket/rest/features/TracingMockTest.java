@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.bitbucket.rest.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.cdancy.bitbucket.rest.BaseBitbucketMockTest;
+import com.cdancy.bitbucket.rest.BitbucketClient;
+import com.cdancy.bitbucket.rest.cache.ResponseCache;
+import com.cdancy.bitbucket.rest.retry.RetryModule;
+import com.cdancy.bitbucket.rest.tracing.InMemorySpanExporter;
+import com.cdancy.bitbucket.rest.tracing.Span;
+import com.cdancy.bitbucket.rest.tracing.SpanData;
+import com.cdancy.bitbucket.rest.tracing.Tracing;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Mock tests for the {@link Tracing} class.
+ */
+@Test(groups = "unit", testName = "TracingMockTest")
+public class TracingMockTest extends BaseBitbucketMockTest {
+
+    private final String projectKey = "PRJ";
+    private final String repoKey = "myrepo";
+    private final String repositoryGet = "repository:get";
+    private final String requests = "requests";
+
+    public void testTracesCalls() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(repository());
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/repository-page-full.json")).setResponseCode(200));
+        final InMemorySpanExporter spans = new InMemorySpanExporter();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .tracing(Tracing.builder(spans).build())
+                .build()) {
+
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey).errors()).isEmpty();
+            assertThat(client.api().repositoryApi().list(projectKey, 25, 100).errors()).isEmpty();
+
+            final List<SpanData> exported = spans.spans();
+            assertThat(exported).hasSize(2);
+            final SpanData get = exported.get(0);
+            assertThat(get.name()).isEqualTo(repositoryGet);
+            assertThat(get.parentSpanId()).isNull();
+            assertThat(get.error()).isNull();
+            assertThat(get.attributes())
+                    .containsEntry("project", projectKey)
+                    .containsEntry("repo", repoKey)
+                    .containsEntry(requests, 1L)
+                    .containsEntry("status", 200)
+                    .doesNotContainKeys("retries", "hedged", "cache");
+            assertThat(exported.get(1).attributes())
+                    .containsEntry("project", projectKey)
+                    .containsEntry("start", 25)
+                    .containsEntry("limit", 100);
+
+            final RecordedRequest request = server.takeRequest();
+            assertThat(request.getHeader("traceparent"))
+                    .isEqualTo("00-" + get.traceId() + "-" + get.spanId() + "-01");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testNestsWithinSpanAndRecordsCacheHits() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(repository());
+        final InMemorySpanExporter spans = new InMemorySpanExporter();
+        final Tracing tracing = Tracing.builder(spans).build();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .tracing(tracing)
+                .responseCache(ResponseCache.builder().ttl(repositoryGet, Duration.ofMinutes(1)).build())
+                .build()) {
+
+            final String parentSpanId;
+            try (Span crawl = tracing.startSpan("crawl")) {
+                parentSpanId = crawl.spanId();
+                client.api().repositoryApi().get(projectKey, repoKey);
+                client.asyncApi().repositoryApi().get(projectKey, repoKey).get();
+                assertThat(Span.current()).isSameAs(crawl);
+            }
+            assertThat(Span.current()).isNull();
+
+            final List<SpanData> exported = spans.spans();
+            assertThat(exported).extracting(SpanData::name).containsExactly(repositoryGet, repositoryGet, "crawl");
+            assertThat(exported).extracting(SpanData::traceId).containsOnly(exported.get(2).traceId());
+            assertThat(exported.get(0).parentSpanId()).isEqualTo(parentSpanId);
+            assertThat(exported.get(1).parentSpanId()).isEqualTo(parentSpanId);
+            assertThat(exported.get(0).attributes()).containsEntry("cache", "miss").containsEntry(requests, 1L);
+            assertThat(exported.get(1).attributes()).containsEntry("cache", "hit").doesNotContainKey(requests);
+            assertThat(server.getRequestCount()).isEqualTo(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testRecordsRetriesAndErrors() throws Exception {
+        final MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(repository());
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/repository-not-exist.json")).setResponseCode(404));
+        final InMemorySpanExporter spans = new InMemorySpanExporter();
+        try (final BitbucketClient client = clientBuilder(server.getUrl("/"))
+                .tracing(Tracing.builder(spans).propagateContext(false).build())
+                .modules(RetryModule.builder().initialDelay(Duration.ofMillis(10)).build())
+                .build()) {
+
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey).errors()).isEmpty();
+            assertThat(client.api().repositoryApi().get(projectKey, repoKey).errors()).isNotEmpty();
+
+            final List<SpanData> exported = spans.spans();
+            assertThat(exported.get(0).attributes())
+                    .containsEntry(requests, 1L)
+                    .containsEntry("retries", 1L)
+                    .containsEntry("status", 200);
+            assertThat(exported.get(1).attributes()).containsEntry("status", 404);
+            assertThat(exported.get(1).error()).isNotNull();
+            assertThat(server.takeRequest().getHeader("traceparent")).isNull();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private MockResponse repository() {
+        return new MockResponse().setBody(payloadFromResource("/repository.json")).setResponseCode(200);
+    }
+}